@@ -4,7 +4,8 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.time.Duration;
-import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -22,6 +23,8 @@ import org.builder.session.jackson.system.SystemUtil;
 import org.builder.session.jackson.system.TaskSystemUtil;
 import org.builder.session.jackson.utils.CommandLineArguments;
 import org.builder.session.jackson.utils.LoggingInitializer;
+import org.builder.session.jackson.workflow.ControlScheduler;
+import org.builder.session.jackson.workflow.control.ControllerType;
 import org.builder.session.jackson.workflow.utilize.Consumer;
 import org.builder.session.jackson.workflow.utilize.PIDConfig;
 
@@ -43,23 +46,26 @@ public class Application
                                     "Expected at least 6 arguments to this application " +
                                             "[--port, --pidConfig, --serviceDiscoveryId].");
         final int port = parsePort(args);
-        final PIDConfig pidConfig = parsePidConfig(args);
+        final Map<Resource, PIDConfig> pidConfigs = parsePidConfigs(args);
         final String serviceDiscoveryId = parseServiceDiscoveryId(args);
-        final SystemUtil systemUtil = parseProfiling(args);
+        final ControlScheduler scheduler = new ControlScheduler(parseControlThreads(args),
+                                                                ControlScheduler.DEFAULT_MAX_JITTER);
+        final SystemUtil systemUtil = parseProfiling(args, scheduler);
         final Set<Resource> resources = parseConsumerConfig(args);
         final ServiceRegistry registry = new ServiceRegistryImpl(serviceDiscoveryId);
         final Map<Resource, Consumer> consumers = Consumer.buildDefaultConsumers(resources,
                                                                                  systemUtil,
-                                                                                 pidConfig,
+                                                                                 pidConfigs,
                                                                                  registry);
 
         log.info("Starting a server on port {}, with consumers {}, with PID {}, and DNS \"{}\".",
                  new Object[]{ port,
                                resources,
-                               pidConfig,
+                               pidConfigs,
                                serviceDiscoveryId });
 
-        try (Server server = new ServerImpl(port, consumers, registry);
+        try (ControlScheduler closeableScheduler = scheduler;
+             Server server = new ServerImpl(port, consumers, registry, scheduler);
              BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
             server.start();
             while(!shouldStop(reader)) {
@@ -78,15 +84,16 @@ public class Application
         return reader.ready();
     }
 
-    protected static SystemUtil parseProfiling(final @NonNull String[] args) {
-        SystemUtil systemUtil = new TaskSystemUtil();
+    protected static SystemUtil parseProfiling(final @NonNull String[] args,
+                                               final @NonNull ControlScheduler scheduler) {
+        SystemUtil systemUtil = new TaskSystemUtil(scheduler);
         Optional<Integer> secondsToProfile = CommandLineArguments.parseArg(args,
                                                                            false,
                                                                            "--runProfiling",
                                                                            Integer::parseInt);
         secondsToProfile.ifPresent(s -> {
             try (Profiler profiler = new Profiler(Duration.ofSeconds(s))) {
-                profiler.profile(systemUtil);
+                systemUtil.applyProfile(profiler.profile(systemUtil));
             } catch (Throwable t) {
                 log.error("System profiling failed due to: {}", t);
                 System.exit(1);
@@ -96,6 +103,17 @@ public class Application
         return systemUtil;
     }
 
+    /**
+     * Parses the optional number of threads shared by all control loops and trackers.
+     */
+    protected static int parseControlThreads(final @NonNull String[] args) {
+        return CommandLineArguments.parseArg(args, false, "--controlThreads", s -> {
+            int threads = Integer.parseInt(s);
+            Preconditions.checkArgument(threads > 0, "Expected a positive number of control threads.");
+            return threads;
+        }).orElse(ControlScheduler.DEFAULT_THREADS);
+    }
+
     protected static int parsePort(final @NonNull String[] args) {
         return CommandLineArguments.parseArg(args, true, "--port", s -> {
             int port = Integer.parseInt(s);
@@ -105,45 +123,89 @@ public class Application
         }).get();
     }
 
-    protected static PIDConfig parsePidConfig(final @NonNull String[] args) {
-        return CommandLineArguments.parseArg(args, true, "--pid", s -> {
-            s = s.trim();
-            Preconditions.checkArgument(s.startsWith("["), "List should start with \"[\"");
-            Preconditions.checkArgument(s.endsWith("]"), "List should ends with \"[\"");
-            s = s.substring(1, s.length() - 1);
-            String[] listArgs = s.split(",");
-            Preconditions.checkArgument(listArgs.length == 5, "Expected exactly 5 value for PIDConfig list, but got " + listArgs);
-            long paceInMillis = Integer.parseInt(listArgs[0].trim());
-            double p = Double.parseDouble(listArgs[1].trim());
-            double d = Double.parseDouble(listArgs[2].trim());
-            double i = Double.parseDouble(listArgs[3].trim());
-            double decay = Double.parseDouble(listArgs[4].trim());
-            Range<Double> range = Range.open(0.0, 10.0);
-            Preconditions.checkArgument(range.contains(p), "Expected valid P-Value within range " + range);
-            Preconditions.checkArgument(range.contains(d), "Expected valid D-Value within range " + range);
-            Preconditions.checkArgument(range.contains(i), "Expected valid I-Value within range " + range);
-            Preconditions.checkArgument(range.contains(decay), "Expected valid Decay within range " + range);
-            return PIDConfig.builder()
-                            .pace(Duration.ofMillis(paceInMillis))
-                            .proportionFactor(p)
-                            .derivativeFactor(d)
-                            .integralFactor(i)
-                            .integralDecay(decay)
-                            .build();
-        }).get();
+    /**
+     * Parses the default PID config from "--pid" along with any per-resource overrides
+     * (ex. "--pidCpu", "--pidMemory") so each loop can be paced and tuned separately.
+     * Each is a list of [PaceInMillis, P, D, I, Decay] followed by optional "key=value"
+     * entries: feedForward, controller, outputRateLimit, hysteresis, horizon,
+     * maxSampleWaitInMillis and adaptivePace.
+     */
+    protected static Map<Resource, PIDConfig> parsePidConfigs(final @NonNull String[] args) {
+        final PIDConfig defaultConfig = CommandLineArguments.parseArg(args,
+                                                                      true,
+                                                                      "--pid",
+                                                                      Application::parsePidConfig).get();
+        Map<Resource, PIDConfig> configs = new EnumMap<>(Resource.class);
+        for(Resource resource : Resource.values()) {
+            if(Resource.UNRECOGNIZED.equals(resource)) {
+                continue;
+            }
+            String name = resource.name();
+            String parameterName = "--pid" + name.charAt(0) + name.substring(1).toLowerCase();
+            configs.put(resource, CommandLineArguments.parseArg(args,
+                                                                false,
+                                                                parameterName,
+                                                                Application::parsePidConfig)
+                                                      .orElse(defaultConfig));
+        }
+        return configs;
+    }
+
+    protected static PIDConfig parsePidConfig(@NonNull String s) {
+        List<String> listArgs = CommandLineArguments.parseList(s);
+        Preconditions.checkArgument(listArgs.size() >= 5,
+                                    "Expected at least 5 values for PIDConfig list, but got " + listArgs);
+        long paceInMillis = Integer.parseInt(listArgs.get(0));
+        double p = Double.parseDouble(listArgs.get(1));
+        double d = Double.parseDouble(listArgs.get(2));
+        double i = Double.parseDouble(listArgs.get(3));
+        double decay = Double.parseDouble(listArgs.get(4));
+        PIDConfig.PIDConfigBuilder builder = PIDConfig.builder()
+                                                      .pace(Duration.ofMillis(paceInMillis))
+                                                      .proportionFactor(p)
+                                                      .derivativeFactor(d)
+                                                      .integralFactor(i)
+                                                      .integralDecay(decay);
+        for(int index = 5; index < listArgs.size(); index++) {
+            String[] option = listArgs.get(index).split("=");
+            Preconditions.checkArgument(option.length == 2,
+                                        "Expected a \"key=value\" option in PIDConfig list, but got " + listArgs.get(index));
+            String value = option[1].trim();
+            switch (option[0].trim()) {
+                case "feedForward":
+                    builder.feedForward(Boolean.parseBoolean(value));
+                    break;
+                case "controller":
+                    builder.controller(ControllerType.valueOf(value.toUpperCase()));
+                    break;
+                case "outputRateLimit":
+                    builder.outputRateLimit(Long.parseLong(value));
+                    break;
+                case "hysteresis":
+                    builder.hysteresis(Long.parseLong(value));
+                    break;
+                case "horizon":
+                    builder.horizon(Integer.parseInt(value));
+                    break;
+                case "maxSampleWaitInMillis":
+                    builder.maxSampleWait(Duration.ofMillis(Long.parseLong(value)));
+                    break;
+                case "adaptivePace":
+                    builder.adaptivePace(Boolean.parseBoolean(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option in PIDConfig list: " + listArgs.get(index));
+            }
+        }
+        return builder.build();
     }
 
     protected static Set<Resource> parseConsumerConfig(final @NonNull String[] args) {
         return CommandLineArguments.parseArg(args, true, "--consumers", s -> {
-            s = s.trim();
-            Preconditions.checkArgument(s.startsWith("["), "List should start with \"[\"");
-            Preconditions.checkArgument(s.endsWith("]"), "List should ends with \"[\"");
-            s = s.substring(1, s.length() - 1);
-            String[] listArgs = s.split(",");
-            return Arrays.asList(listArgs)
-                         .stream()
-                         .map(r -> Resource.valueOf(r.toUpperCase()))
-                         .collect(Collectors.toSet());
+            return CommandLineArguments.parseList(s)
+                                       .stream()
+                                       .map(r -> Resource.valueOf(r.toUpperCase()))
+                                       .collect(Collectors.toSet());
         }).get();
     }
 
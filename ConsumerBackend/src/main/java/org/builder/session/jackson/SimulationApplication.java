@@ -0,0 +1,155 @@
+package org.builder.session.jackson;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.Level;
+import org.build.session.jackson.proto.Resource;
+import org.build.session.jackson.proto.Unit;
+import org.builder.session.jackson.simulation.PlantSpec;
+import org.builder.session.jackson.simulation.SimulatedConsumer;
+import org.builder.session.jackson.simulation.SimulatedSystemUtil;
+import org.builder.session.jackson.simulation.Simulator;
+import org.builder.session.jackson.simulation.VirtualClock;
+import org.builder.session.jackson.utils.CommandLineArguments;
+import org.builder.session.jackson.utils.LoggingInitializer;
+import org.builder.session.jackson.workflow.control.ConvergenceTracker;
+import org.builder.session.jackson.workflow.utilize.PIDConfig;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a control loop against a simulated plant in virtual time and reports how well it
+ * converged, so that controller changes can be evaluated without a container. Example:
+ *
+ * --pid [1000,0.5,0.5,0.1,0.5] --plant [gain=1.0,lagInMillis=3000,limit=1024]
+ * --targets [0.2,0.6,0.4] --holdInSeconds 120
+ */
+@Slf4j
+public class SimulationApplication
+{
+    private static final Duration DEFAULT_HOLD = Duration.ofSeconds(60);
+
+    public static void main(String[] args) {
+        initializeLogging();
+
+        final PIDConfig pidConfig = CommandLineArguments.parseArg(args,
+                                                                  true,
+                                                                  "--pid",
+                                                                  Application::parsePidConfig).get();
+        final PlantSpec plantSpec = CommandLineArguments.parseArg(args,
+                                                                  true,
+                                                                  "--plant",
+                                                                  SimulationApplication::parsePlantSpec).get();
+        final List<Double> targets = CommandLineArguments.parseArg(args,
+                                                                   true,
+                                                                   "--targets",
+                                                                   SimulationApplication::parseTargets).get();
+        final Resource resource = CommandLineArguments.parseArg(args, false, "--resource", s -> Resource.valueOf(s.toUpperCase()))
+                                                      .orElse(Resource.CPU);
+        final Unit unit = CommandLineArguments.parseArg(args, false, "--unit", s -> Unit.valueOf(s.toUpperCase()))
+                                              .orElse(Unit.PERCENTAGE);
+        final Duration hold = CommandLineArguments.parseArg(args, false, "--holdInSeconds", s -> Duration.ofSeconds(Long.parseLong(s)))
+                                                  .orElse(DEFAULT_HOLD);
+        final long seed = CommandLineArguments.parseArg(args, false, "--seed", Long::parseLong).orElse(0L);
+
+        SimulatedSystemUtil system = new SimulatedSystemUtil(new VirtualClock(),
+                                                             ImmutableMap.of(resource, plantSpec),
+                                                             seed);
+        SimulatedConsumer consumer = new SimulatedConsumer(resource, system, pidConfig);
+        Simulator simulator = new Simulator(system);
+        simulator.add(consumer);
+
+        log.info("Simulating {} with plant {} and PID {} over targets {} {} held for {} each.",
+                 new Object[] { resource, plantSpec, pidConfig, targets, unit, hold });
+        for (double target : targets) {
+            consumer.setTarget(target, unit);
+            simulator.run(hold);
+        }
+
+        // The last target's episode is still running, so it is reported on its own.
+        ConvergenceTracker convergence = consumer.getConvergence();
+        log.info("Final episode: {}", convergence.getCurrent().orElse(null));
+        log.info("Unsettled episodes: {}", convergence.getUnsettled());
+        log.info("Settling time (ms): {}", convergence.getSettlingTimeInMillis());
+        log.info("Overshoot (%): {}", convergence.getOvershootPercent());
+        log.info("Oscillations: {}", convergence.getOscillations());
+        log.info("Steady-state error (%): {}", convergence.getSteadyStateErrorPercent());
+        consumer.close();
+    }
+
+    /**
+     * Parses a list of "key=value" entries: gain, baseline, lagInMillis, deadTimeInMillis,
+     * noise, quantization, limit and sampleIntervalInMillis. Gain defaults to 1.
+     */
+    protected static PlantSpec parsePlantSpec(@NonNull String s) {
+        PlantSpec.PlantSpecBuilder builder = PlantSpec.builder().gain(1.0);
+        for (String entry : CommandLineArguments.parseList(s)) {
+            String[] option = entry.split("=");
+            Preconditions.checkArgument(option.length == 2,
+                                        "Expected a \"key=value\" option in plant list, but got " + entry);
+            String value = option[1].trim();
+            switch (option[0].trim()) {
+                case "gain":
+                    builder.gain(Double.parseDouble(value));
+                    break;
+                case "baseline":
+                    builder.baseline(Long.parseLong(value));
+                    break;
+                case "lagInMillis":
+                    builder.lag(Duration.ofMillis(Long.parseLong(value)));
+                    break;
+                case "deadTimeInMillis":
+                    builder.deadTime(Duration.ofMillis(Long.parseLong(value)));
+                    break;
+                case "noise":
+                    builder.noise(Double.parseDouble(value));
+                    break;
+                case "quantization":
+                    builder.quantization(Long.parseLong(value));
+                    break;
+                case "limit":
+                    builder.limit(Long.parseLong(value));
+                    break;
+                case "sampleIntervalInMillis":
+                    builder.sampleInterval(Duration.ofMillis(Long.parseLong(value)));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option in plant list: " + entry);
+            }
+        }
+        return builder.build();
+    }
+
+    protected static List<Double> parseTargets(@NonNull String s) {
+        List<Double> targets = CommandLineArguments.parseList(s).stream()
+                                           .map(Double::parseDouble)
+                                           .collect(Collectors.toList());
+        Preconditions.checkArgument(!targets.isEmpty(), "Expected at least one target.");
+        return targets;
+    }
+
+    private static void initializeLogging () {
+        LoggingInitializer logger = new LoggingInitializer();
+        logger.addPatternLayout("MainLayout", "%d{HH:mm:ss.SSS} [%t] %-5level %logger{36} - %msg%n")
+              .addConsoleAppender("ConsoleAppender", "MainLayout")
+              .addRootLogger(Level.WARN)
+              .addLogger("org.builder.session", Level.WARN,
+                         false,
+                         "ConsoleAppender")
+              .addLogger("org.builder.session.jackson.simulation",
+                         Level.INFO,
+                         false,
+                         "ConsoleAppender")
+              .addLogger("org.builder.session.jackson.SimulationApplication",
+                         Level.INFO,
+                         false,
+                         "ConsoleAppender")
+              .build();
+    }
+}
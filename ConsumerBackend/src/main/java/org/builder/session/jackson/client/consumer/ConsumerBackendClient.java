@@ -1,10 +1,21 @@
 package org.builder.session.jackson.client.consumer;
 
+import java.time.Duration;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+import org.build.session.jackson.proto.AutotuneRequest;
+import org.build.session.jackson.proto.AutotuneResponse;
+import org.build.session.jackson.proto.ConfigurePidRequest;
+import org.build.session.jackson.proto.ConfigurePidResponse;
 import org.build.session.jackson.proto.ConsumeRequest;
 import org.build.session.jackson.proto.ConsumeResponse;
 import org.build.session.jackson.proto.ConsumerBackendServiceGrpc;
+import org.build.session.jackson.proto.DescribeConvergenceRequest;
+import org.build.session.jackson.proto.DescribeConvergenceResponse;
+import org.build.session.jackson.proto.DescribeTelemetryRequest;
+import org.build.session.jackson.proto.DescribeTelemetryResponse;
 import org.builder.session.jackson.client.Client;
 import org.builder.session.jackson.utils.JsonHelper;
 
@@ -20,14 +31,36 @@ public class ConsumerBackendClient implements Client<ConsumeRequest, ConsumeResp
     private final ManagedChannel channel;
     @NonNull
     private final ConsumerBackendServiceGrpc.ConsumerBackendServiceBlockingStub blockingStub;
+    @NonNull
+    private final Optional<Duration> deadline;
 
     public ConsumerBackendClient(String host, int port) {
         this(ManagedChannelBuilder.forAddress(host, port).usePlaintext());
     }
 
+    /**
+     * @param deadline how long each call may take before it fails with DEADLINE_EXCEEDED.
+     */
+    public ConsumerBackendClient(String host, int port, @NonNull Duration deadline) {
+        this(ManagedChannelBuilder.forAddress(host, port).usePlaintext(), Optional.of(deadline));
+    }
+
     public ConsumerBackendClient(ManagedChannelBuilder<?> channelBuilder) {
+        this(channelBuilder, Optional.empty());
+    }
+
+    private ConsumerBackendClient(ManagedChannelBuilder<?> channelBuilder, @NonNull Optional<Duration> deadline) {
         channel = channelBuilder.build();
         blockingStub = ConsumerBackendServiceGrpc.newBlockingStub(channel);
+        this.deadline = deadline;
+    }
+
+    /**
+     * A stub for a single call. Deadlines are absolute, so they're set as each call is made.
+     */
+    private ConsumerBackendServiceGrpc.ConsumerBackendServiceBlockingStub stub() {
+        return deadline.map(d -> blockingStub.withDeadlineAfter(d.toMillis(), TimeUnit.MILLISECONDS))
+                       .orElse(blockingStub);
     }
 
     @Override
@@ -35,7 +68,59 @@ public class ConsumerBackendClient implements Client<ConsumeRequest, ConsumeResp
         UUID uuid = UUID.randomUUID();
         try {
             log.debug("Call {} Request={}", uuid.toString(), JsonHelper.toSingleLine(request));
-            ConsumeResponse response = blockingStub.consume(request);
+            ConsumeResponse response = stub().consume(request);
+            log.debug("Call {} Response={}", uuid.toString(), JsonHelper.toSingleLine(response));
+            return response;
+        } catch (Throwable t) {
+            log.error("Call {} Failed={}", uuid.toString(), t);
+            throw t;
+        }
+    }
+
+    public ConfigurePidResponse configurePid (@NonNull ConfigurePidRequest request) {
+        UUID uuid = UUID.randomUUID();
+        try {
+            log.debug("Call {} Request={}", uuid.toString(), JsonHelper.toSingleLine(request));
+            ConfigurePidResponse response = stub().configurePid(request);
+            log.debug("Call {} Response={}", uuid.toString(), JsonHelper.toSingleLine(response));
+            return response;
+        } catch (Throwable t) {
+            log.error("Call {} Failed={}", uuid.toString(), t);
+            throw t;
+        }
+    }
+
+    public AutotuneResponse autotune (@NonNull AutotuneRequest request) {
+        UUID uuid = UUID.randomUUID();
+        try {
+            log.debug("Call {} Request={}", uuid.toString(), JsonHelper.toSingleLine(request));
+            AutotuneResponse response = stub().autotune(request);
+            log.debug("Call {} Response={}", uuid.toString(), JsonHelper.toSingleLine(response));
+            return response;
+        } catch (Throwable t) {
+            log.error("Call {} Failed={}", uuid.toString(), t);
+            throw t;
+        }
+    }
+
+    public DescribeTelemetryResponse describeTelemetry (@NonNull DescribeTelemetryRequest request) {
+        UUID uuid = UUID.randomUUID();
+        try {
+            log.debug("Call {} Request={}", uuid.toString(), JsonHelper.toSingleLine(request));
+            DescribeTelemetryResponse response = stub().describeTelemetry(request);
+            log.debug("Call {} Response={}", uuid.toString(), JsonHelper.toSingleLine(response));
+            return response;
+        } catch (Throwable t) {
+            log.error("Call {} Failed={}", uuid.toString(), t);
+            throw t;
+        }
+    }
+
+    public DescribeConvergenceResponse describeConvergence (@NonNull DescribeConvergenceRequest request) {
+        UUID uuid = UUID.randomUUID();
+        try {
+            log.debug("Call {} Request={}", uuid.toString(), JsonHelper.toSingleLine(request));
+            DescribeConvergenceResponse response = stub().describeConvergence(request);
             log.debug("Call {} Response={}", uuid.toString(), JsonHelper.toSingleLine(response));
             return response;
         } catch (Throwable t) {
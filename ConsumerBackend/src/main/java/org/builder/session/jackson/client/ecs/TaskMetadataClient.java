@@ -4,7 +4,6 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.Duration;
 
-import org.builder.session.jackson.client.Client;
 import org.builder.session.jackson.client.SimpleClient;
 import org.builder.session.jackson.client.general.JsonHttpClient;
 import org.builder.session.jackson.client.messages.ContainerStats;
@@ -30,19 +29,19 @@ public class TaskMetadataClient<T> implements SimpleClient<T> {
     private static final String BASE_ENDPOINT = System.getenv("ECS_CONTAINER_METADATA_URI");
     private static final Gson SERIALIZER = MetadataConstants.createGson().create();
 
-    public static SimpleClient<TaskMetadata> createTaskMetadataClient(Duration cacheTime) {
+    public static TaskMetadataClient<TaskMetadata> createTaskMetadataClient(Duration cacheTime) {
         return new TaskMetadataClient<TaskMetadata>(BASE_ENDPOINT + "/task",
                                                     TaskMetadata.class,
                                                     cacheTime);
     }
 
-    public static SimpleClient<TaskStats> createTaskStatsClient(Duration cacheTime) {
+    public static TaskMetadataClient<TaskStats> createTaskStatsClient(Duration cacheTime) {
         return new TaskMetadataClient<TaskStats>(BASE_ENDPOINT + "/task/stats",
                                                  TaskStats.class,
                                                  cacheTime);
     }
 
-    public static SimpleClient<ContainerStats> createContainerStatsClient(Duration cacheTime) {
+    public static TaskMetadataClient<ContainerStats> createContainerStatsClient(Duration cacheTime) {
         return new TaskMetadataClient<ContainerStats>(BASE_ENDPOINT + "/stats",
                                                       ContainerStats.class,
                                                       cacheTime);
@@ -51,7 +50,7 @@ public class TaskMetadataClient<T> implements SimpleClient<T> {
     @NonNull
     private final URL endpoint;
     @NonNull
-    private final Client<URL, T> client;
+    private final CachedClient<URL, T> client;
 
     public TaskMetadataClient (@NonNull final String endpoint,
                                @NonNull final Class<T> clazz,
@@ -68,6 +67,17 @@ public class TaskMetadataClient<T> implements SimpleClient<T> {
 
     }
 
+    public Duration getCacheTime () {
+        return this.client.getTimeToLive();
+    }
+
+    /**
+     * Replaces how long responses are cached, such as to follow how often the endpoint refreshes.
+     */
+    public void setCacheTime (@NonNull final Duration cacheTime) {
+        this.client.setTimeToLive(cacheTime);
+    }
+
     @Override
     public T call (NoArgs passAnything) {
         return this.client.call(endpoint);
@@ -10,6 +10,7 @@ import org.builder.session.jackson.exception.ConsumerDependencyException;
 import org.builder.session.jackson.exception.ConsumerInternalException;
 import org.builder.session.jackson.utils.NoArgs;
 
+import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
@@ -19,9 +20,9 @@ import lombok.NonNull;
 
 public class CachedClient<INPUT, OUTPUT> implements Client<INPUT, OUTPUT> {
 
-    public static <IN, OUT> Client<IN, OUT> wrap(@NonNull final Client<IN, OUT> client,
-                                                 @NonNull final Duration timeToLive,
-                                                 boolean doBackgroundRefresh) {
+    public static <IN, OUT> CachedClient<IN, OUT> wrap(@NonNull final Client<IN, OUT> client,
+                                                       @NonNull final Duration timeToLive,
+                                                       boolean doBackgroundRefresh) {
         return new CachedClient<>(client, timeToLive, doBackgroundRefresh);
     }
 
@@ -42,42 +43,62 @@ public class CachedClient<INPUT, OUTPUT> implements Client<INPUT, OUTPUT> {
 
     @NonNull
     private final Client<INPUT, OUTPUT> client;
+    private final boolean doBackgroundRefresh;
     @NonNull
-    private final Cache<INPUT, OUTPUT> cache;
+    private volatile Cache<INPUT, OUTPUT> cache;
     @NonNull
     @Getter
-    private final Duration timeToLive;
+    private volatile Duration timeToLive;
 
     protected CachedClient(@NonNull final Client<INPUT, OUTPUT> client,
                            @NonNull final Duration timeToLive,
                            final boolean doBackgroundRefresh) {
         this.client = client;
+        this.doBackgroundRefresh = doBackgroundRefresh;
         this.timeToLive = timeToLive;
+        this.cache = buildCache(timeToLive, doBackgroundRefresh);
+    }
+
+    /**
+     * Replaces the time to live of cached values. Values cached so far are dropped.
+     */
+    public synchronized void setTimeToLive(@NonNull final Duration timeToLive) {
+        Preconditions.checkArgument(!timeToLive.isNegative() && !timeToLive.isZero(),
+                                    "Expected a positive time to live, but got " + timeToLive);
+        if(!timeToLive.equals(this.timeToLive)) {
+            this.cache = buildCache(timeToLive, doBackgroundRefresh);
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    private static <IN, OUT> Cache<IN, OUT> buildCache(final Duration timeToLive,
+                                                       final boolean doBackgroundRefresh) {
         if(doBackgroundRefresh) {
-            this.cache = CacheBuilder.newBuilder()
-                                     .expireAfterWrite(timeToLive.toMillis(), TimeUnit.MILLISECONDS)
-                                     .build();
+            return CacheBuilder.newBuilder()
+                               .expireAfterWrite(timeToLive.toMillis(), TimeUnit.MILLISECONDS)
+                               .build();
         } else {
-            this.cache = CacheBuilder.newBuilder()
-                                     .expireAfterWrite(timeToLive.toMillis(), TimeUnit.MILLISECONDS)
-                                     .build(new CacheLoader<INPUT, OUTPUT>() {
-                                         @Override
-                                         public OUTPUT load (INPUT key) throws Exception {
-                                             return this.load(key);
-                                         }
-                                     });
+            return CacheBuilder.newBuilder()
+                               .expireAfterWrite(timeToLive.toMillis(), TimeUnit.MILLISECONDS)
+                               .build(new CacheLoader<IN, OUT>() {
+                                   @Override
+                                   public OUT load (IN key) throws Exception {
+                                       return this.load(key);
+                                   }
+                               });
         }
     }
 
     @Override
     public OUTPUT call (INPUT input) {
-        this.cache.cleanUp();
-        OUTPUT output = this.cache.getIfPresent(input);
+        Cache<INPUT, OUTPUT> cache = this.cache;
+        cache.cleanUp();
+        OUTPUT output = cache.getIfPresent(input);
         if(output == null) {
             output = this.client.call(input);
             //We can only add values that are non-null
             if(output != null) {
-                this.cache.put(input, output);
+                cache.put(input, output);
             }
         }
         return output;
@@ -2,19 +2,43 @@ package org.builder.session.jackson.server;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.build.session.jackson.proto.AutotuneRequest;
+import org.build.session.jackson.proto.AutotuneResponse;
+import org.build.session.jackson.proto.AutotuneSpec;
+import org.build.session.jackson.proto.AutotuneState;
+import org.build.session.jackson.proto.AutotuneSummary;
 import org.build.session.jackson.proto.Candidate;
+import org.build.session.jackson.proto.CollectorSummary;
+import org.build.session.jackson.proto.ConfigurePidRequest;
+import org.build.session.jackson.proto.ConfigurePidResponse;
 import org.build.session.jackson.proto.ConsumeRequest;
+import org.build.session.jackson.proto.ControlLaw;
+import org.build.session.jackson.proto.ControlTick;
+import org.build.session.jackson.proto.ConvergenceEpisode;
+import org.build.session.jackson.proto.ConvergenceSummary;
 import org.build.session.jackson.proto.ConsumeResponse;
 import org.build.session.jackson.proto.ConsumerBackendServiceGrpc;
 import org.build.session.jackson.proto.DescribeEndpointRequest;
+import org.build.session.jackson.proto.DescribeConvergenceRequest;
+import org.build.session.jackson.proto.DescribeConvergenceResponse;
 import org.build.session.jackson.proto.DescribeEndpointResponse;
+import org.build.session.jackson.proto.DescribeTelemetryRequest;
+import org.build.session.jackson.proto.DescribeTelemetryResponse;
+import org.build.session.jackson.proto.GcSummary;
+import org.build.session.jackson.proto.HistogramSummary;
 import org.build.session.jackson.proto.InstanceSummary;
+import org.build.session.jackson.proto.MemoryFootprint;
+import org.build.session.jackson.proto.PidSpec;
 import org.build.session.jackson.proto.Resource;
+import org.build.session.jackson.proto.TelemetrySummary;
+import org.build.session.jackson.proto.TickSource;
 import org.build.session.jackson.proto.Unit;
 import org.build.session.jackson.proto.UsageSpec;
 import org.builder.session.jackson.client.SimpleClient;
@@ -23,8 +47,19 @@ import org.builder.session.jackson.client.loadbalancing.ServiceRegistry;
 import org.builder.session.jackson.client.wrapper.CachedClient;
 import org.builder.session.jackson.request.CandidateHandler;
 import org.builder.session.jackson.request.ErrorHandler;
+import org.builder.session.jackson.utils.Histogram;
+import org.builder.session.jackson.workflow.control.ControlTelemetry;
+import org.builder.session.jackson.workflow.control.ControllerType;
+import org.builder.session.jackson.workflow.control.ConvergenceTracker;
+import org.builder.session.jackson.workflow.control.RelayAutotuner;
+import org.builder.session.jackson.workflow.ControlScheduler;
 import org.builder.session.jackson.workflow.Workflow;
+import org.builder.session.jackson.workflow.utilize.AbstractPidConsumer;
+import org.builder.session.jackson.workflow.utilize.AllocationConsumer;
 import org.builder.session.jackson.workflow.utilize.Consumer;
+import org.builder.session.jackson.workflow.utilize.MemoryConsumer;
+import org.builder.session.jackson.workflow.utilize.PIDConfig;
+import org.builder.session.jackson.workflow.utilize.allocation.GcMonitor;
 
 import com.google.common.base.Preconditions;
 
@@ -39,7 +74,7 @@ public final class ConsumerBackendService extends ConsumerBackendServiceGrpc.Con
     private static final Duration INSTANCE_DISCOVERY_PACE = Duration.ofSeconds(15);
 
     @NonNull
-    private final Workflow workflow = new Workflow();
+    private final Workflow workflow;
     @NonNull
     private final SimpleClient<List<ServiceRegistry.Instance>> registry;
     @NonNull
@@ -50,8 +85,10 @@ public final class ConsumerBackendService extends ConsumerBackendServiceGrpc.Con
     public ConsumerBackendService(@NonNull final String host,
                                   final int port,
                                   @NonNull final Map<Resource, Consumer> consumers,
-                                  @NonNull ServiceRegistry registry) {
+                                  @NonNull ServiceRegistry registry,
+                                  @NonNull final ControlScheduler scheduler) {
         this.host = new ServiceRegistry.Instance(host, port);
+        this.workflow = new Workflow(scheduler);
         this.registry = CachedClient.wrap(registry, INSTANCE_DISCOVERY_PACE, true);
         this.consumers = consumers;
         consumers.forEach((r, c) -> workflow.consume(c));
@@ -115,6 +152,276 @@ public final class ConsumerBackendService extends ConsumerBackendServiceGrpc.Con
 
     }
 
+    @Override
+    public void configurePid (ConfigurePidRequest request,
+                              StreamObserver<ConfigurePidResponse> responseObserver) {
+        ErrorHandler.ResultOrError<ConfigurePidResponse> response = ErrorHandler.wrap((req, observer) -> {
+            Preconditions.checkArgument(Candidate.SELF.equals(req.getCandidate()),
+                                        "Only candidate SELF is supported in calls to configurePid(), but got "
+                                                + req.getCandidate());
+            // Validate every spec before replacing any config so a bad request changes nothing.
+            Map<AbstractPidConsumer, PIDConfig> replacements = new HashMap<>();
+            for(PidSpec spec : req.getPidList()) {
+                replacements.put(getPidConsumer(spec.getResource()), convert(spec));
+            }
+            replacements.forEach(AbstractPidConsumer::setPidConfig);
+            return describePid();
+        }, request, log);
+
+        if(response.wasSuccessful()) {
+            responseObserver.onNext(response.getResult());
+        } else {
+            responseObserver.onNext(ConfigurePidResponse.newBuilder()
+                                                        .addError(response.getError())
+                                                        .build());
+        }
+        responseObserver.onCompleted();
+    }
+
+    protected ConfigurePidResponse describePid() {
+        ConfigurePidResponse.Builder builder = ConfigurePidResponse.newBuilder();
+        this.consumers.forEach((resource, consumer) -> {
+            if(consumer instanceof AbstractPidConsumer) {
+                builder.addPid(convert(resource, ((AbstractPidConsumer) consumer).getPidConfig()));
+            }
+        });
+        return builder.build();
+    }
+
+    @Override
+    public void autotune (AutotuneRequest request,
+                          StreamObserver<AutotuneResponse> responseObserver) {
+        ErrorHandler.ResultOrError<AutotuneResponse> response = ErrorHandler.wrap((req, observer) -> {
+            Preconditions.checkArgument(Candidate.SELF.equals(req.getCandidate()),
+                                        "Only candidate SELF is supported in calls to autotune(), but got "
+                                                + req.getCandidate());
+            // Validate every spec before starting any autotune so a bad request changes nothing.
+            Map<AbstractPidConsumer, RelayAutotuner> tuners = new HashMap<>();
+            for(AutotuneSpec spec : req.getStartList()) {
+                tuners.put(getPidConsumer(spec.getResource()),
+                           new RelayAutotuner(spec.getRelayAmplitude(),
+                                              spec.getHysteresis(),
+                                              spec.getCycles()));
+            }
+            tuners.forEach(AbstractPidConsumer::startAutotune);
+            return describeAutotune();
+        }, request, log);
+
+        if(response.wasSuccessful()) {
+            responseObserver.onNext(response.getResult());
+        } else {
+            responseObserver.onNext(AutotuneResponse.newBuilder()
+                                                    .addError(response.getError())
+                                                    .build());
+        }
+        responseObserver.onCompleted();
+    }
+
+    protected AutotuneResponse describeAutotune() {
+        AutotuneResponse.Builder builder = AutotuneResponse.newBuilder();
+        this.consumers.forEach((resource, consumer) -> {
+            if(consumer instanceof AbstractPidConsumer) {
+                ((AbstractPidConsumer) consumer).getAutotuneResult()
+                                                .ifPresent(r -> builder.addSummary(convert(resource, r)));
+            }
+        });
+        return builder.build();
+    }
+
+    private static AutotuneSummary convert(@NonNull Resource resource, @NonNull RelayAutotuner.Result result) {
+        AutotuneSummary.Builder summary = AutotuneSummary.newBuilder()
+                                                         .setResource(resource)
+                                                         .setState(AutotuneState.valueOf(result.getState().name()))
+                                                         .setRelayAmplitude(result.getRelayAmplitude())
+                                                         .setOscillationAmplitude(result.getOscillationAmplitude())
+                                                         .setUltimateGain(result.getUltimateGain())
+                                                         .setUltimatePeriodInMillis(result.getUltimatePeriod().toMillis())
+                                                         .setCycles(result.getCycles())
+                                                         .setMessage(result.getMessage());
+        result.getConfig().ifPresent(c -> summary.setPid(convert(resource, c)));
+        return summary.build();
+    }
+
+    @Override
+    public void describeTelemetry (DescribeTelemetryRequest request,
+                                   StreamObserver<DescribeTelemetryResponse> responseObserver) {
+        ErrorHandler.ResultOrError<DescribeTelemetryResponse> response = ErrorHandler.wrap((req, observer) -> {
+            Preconditions.checkArgument(Candidate.SELF.equals(req.getCandidate()),
+                                        "Only candidate SELF is supported in calls to describeTelemetry(), but got "
+                                                + req.getCandidate());
+            Preconditions.checkArgument(req.getMaxTicks() >= 0,
+                                        "Expected a non-negative max ticks, but got " + req.getMaxTicks());
+            int maxTicks = req.getMaxTicks() > 0 ? req.getMaxTicks() : Integer.MAX_VALUE;
+            List<Resource> resources = getPidResources(req.getResourceList());
+            DescribeTelemetryResponse.Builder builder = DescribeTelemetryResponse.newBuilder();
+            for(Resource resource : resources) {
+                builder.addTelemetry(convert(resource, getPidConsumer(resource).getTelemetry(), maxTicks));
+            }
+            return builder.build();
+        }, request, log);
+
+        if(response.wasSuccessful()) {
+            responseObserver.onNext(response.getResult());
+        } else {
+            responseObserver.onNext(DescribeTelemetryResponse.newBuilder()
+                                                             .addError(response.getError())
+                                                             .build());
+        }
+        responseObserver.onCompleted();
+    }
+
+    private static TelemetrySummary convert(@NonNull Resource resource,
+                                            @NonNull ControlTelemetry telemetry,
+                                            int maxTicks) {
+        TelemetrySummary.Builder summary = TelemetrySummary.newBuilder()
+                                                           .setResource(resource)
+                                                           .setRecorded(telemetry.getRecorded());
+        for(ControlTelemetry.Tick tick : telemetry.snapshot(maxTicks)) {
+            summary.addTick(ControlTick.newBuilder()
+                                       .setTimestampInMillis(tick.getTimestampInMillis())
+                                       .setSource(TickSource.valueOf(tick.getSource().name()))
+                                       .setGoal(tick.getGoal())
+                                       .setConsumed(tick.getConsumed())
+                                       .setLoad(tick.getLoad())
+                                       .setProportional(tick.getProportional())
+                                       .setIntegral(tick.getIntegral())
+                                       .setDerivative(tick.getDerivative())
+                                       .setScale(tick.getScale())
+                                       .build());
+        }
+        return summary.build();
+    }
+
+    @Override
+    public void describeConvergence (DescribeConvergenceRequest request,
+                                     StreamObserver<DescribeConvergenceResponse> responseObserver) {
+        ErrorHandler.ResultOrError<DescribeConvergenceResponse> response = ErrorHandler.wrap((req, observer) -> {
+            Preconditions.checkArgument(Candidate.SELF.equals(req.getCandidate()),
+                                        "Only candidate SELF is supported in calls to describeConvergence(), but got "
+                                                + req.getCandidate());
+            // Find every consumer before resetting any so a bad request changes nothing.
+            Map<Resource, AbstractPidConsumer> pidConsumers = new LinkedHashMap<>();
+            for(Resource resource : getPidResources(req.getResourceList())) {
+                pidConsumers.put(resource, getPidConsumer(resource));
+            }
+            DescribeConvergenceResponse.Builder builder = DescribeConvergenceResponse.newBuilder();
+            pidConsumers.forEach((resource, consumer) -> {
+                builder.addConvergence(convert(resource, consumer.getConvergence()));
+                if(req.getReset()) {
+                    consumer.getConvergence().reset();
+                }
+            });
+            return builder.build();
+        }, request, log);
+
+        if(response.wasSuccessful()) {
+            responseObserver.onNext(response.getResult());
+        } else {
+            responseObserver.onNext(DescribeConvergenceResponse.newBuilder()
+                                                               .addError(response.getError())
+                                                               .build());
+        }
+        responseObserver.onCompleted();
+    }
+
+    private static ConvergenceSummary convert(@NonNull Resource resource, @NonNull ConvergenceTracker tracker) {
+        ConvergenceSummary.Builder summary = ConvergenceSummary.newBuilder()
+                                                               .setResource(resource)
+                                                               .setTolerancePercent(100.0 * tracker.getTolerance())
+                                                               .setSettleTicks(tracker.getSettleTicks())
+                                                               .setUnsettled(tracker.getUnsettled())
+                                                               .setSettlingTimeInMillis(convert(tracker.getSettlingTimeInMillis()))
+                                                               .setOvershootPercent(convert(tracker.getOvershootPercent()))
+                                                               .setOscillations(convert(tracker.getOscillations()))
+                                                               .setSteadyStateErrorPercent(convert(tracker.getSteadyStateErrorPercent()));
+        tracker.getCurrent().ifPresent(episode -> summary.setCurrent(
+                ConvergenceEpisode.newBuilder()
+                                  .setStartInMillis(episode.getStartInMillis())
+                                  .setGoal(episode.getGoal())
+                                  .setSettled(episode.isSettled())
+                                  .setSettlingTimeInMillis(episode.getSettlingTimeInMillis())
+                                  .setOvershootPercent(episode.getOvershootPercent())
+                                  .setOscillations(episode.getOscillations())
+                                  .setSteadyStateErrorPercent(episode.getSteadyStateErrorPercent())
+                                  .build()));
+        return summary.build();
+    }
+
+    private static HistogramSummary convert(@NonNull Histogram histogram) {
+        HistogramSummary.Builder summary = HistogramSummary.newBuilder()
+                                                           .setTotal(histogram.getCount())
+                                                           .setAverage(histogram.getAverage())
+                                                           .setMin(histogram.getMin())
+                                                           .setMax(histogram.getMax());
+        for(double bound : histogram.getUpperBounds()) {
+            summary.addUpperBound(bound);
+        }
+        for(long count : histogram.getCounts()) {
+            summary.addCount(count);
+        }
+        return summary.build();
+    }
+
+    /**
+     * The resources requested, or every resource with a PID consumer if none were.
+     */
+    private List<Resource> getPidResources(@NonNull List<Resource> requested) {
+        if(!requested.isEmpty()) {
+            return requested;
+        }
+        return this.consumers.entrySet()
+                             .stream()
+                             .filter(e -> e.getValue() instanceof AbstractPidConsumer)
+                             .map(Map.Entry::getKey)
+                             .collect(Collectors.toList());
+    }
+
+    private AbstractPidConsumer getPidConsumer(@NonNull Resource resource) {
+        Consumer consumer = Optional.ofNullable(consumers.get(resource))
+                                    .orElseThrow(() -> new IllegalArgumentException(
+                                            "Could not find consumer for " + resource));
+        Preconditions.checkArgument(consumer instanceof AbstractPidConsumer,
+                                    "The consumer for " + resource + " is not PID controlled.");
+        return (AbstractPidConsumer) consumer;
+    }
+
+    private static PidSpec convert(@NonNull Resource resource, @NonNull PIDConfig config) {
+        return PidSpec.newBuilder()
+                      .setResource(resource)
+                      .setPaceInMillis(config.getPace().toMillis())
+                      .setProportionFactor(config.getProportionFactor())
+                      .setDerivativeFactor(config.getDerivativeFactor())
+                      .setIntegralFactor(config.getIntegralFactor())
+                      .setIntegralDecay(config.getIntegralDecay())
+                      .setFeedForward(config.isFeedForward())
+                      .setControlLaw(ControlLaw.valueOf(config.getController().name()))
+                      .setOutputRateLimit(config.getOutputRateLimit())
+                      .setHysteresis(config.getHysteresis())
+                      .setHorizon(config.getHorizon())
+                      .setMaxSampleWaitInMillis(config.getMaxSampleWait().toMillis())
+                      .setAdaptivePace(config.isAdaptivePace())
+                      .build();
+    }
+
+    private static PIDConfig convert(@NonNull PidSpec spec) {
+        return PIDConfig.builder()
+                        .pace(Duration.ofMillis(spec.getPaceInMillis()))
+                        .proportionFactor(spec.getProportionFactor())
+                        .derivativeFactor(spec.getDerivativeFactor())
+                        .integralFactor(spec.getIntegralFactor())
+                        .integralDecay(spec.getIntegralDecay())
+                        .feedForward(spec.getFeedForward())
+                        .controller(ControllerType.valueOf(spec.getControlLaw().name()))
+                        .outputRateLimit(spec.getOutputRateLimit())
+                        .hysteresis(spec.getHysteresis())
+                        .horizon(spec.getHorizon())
+                        .maxSampleWait(spec.getMaxSampleWaitInMillis() > 0
+                                               ? Duration.ofMillis(spec.getMaxSampleWaitInMillis())
+                                               : null)
+                        .adaptivePace(spec.getAdaptivePace())
+                        .build();
+    }
+
     /**
      * Runs consume method for self if necessary or passes to other host.
      */
@@ -127,9 +434,17 @@ public final class ConsumerBackendService extends ConsumerBackendServiceGrpc.Con
             for(UsageSpec usage : usages) {
                 Preconditions.checkArgument(Double.compare(0.0, usage.getActual()) == 0,
                                             "Cannot specify field [actual] in calls to consume().");
-                Optional<Consumer> consumer = Optional.of(consumers.get(usage.getResource()));
-                consumer.orElseThrow(() -> new IllegalStateException("Could not find consumer for " + usage))
-                        .setTarget(usage.getTarget(), usage.getUnit());
+                Preconditions.checkArgument(!usage.hasCpu() || Resource.CPU.equals(usage.getResource()),
+                                            "Cannot specify field [cpu] for resource " + usage.getResource());
+                Preconditions.checkArgument(!usage.hasMemory() || Resource.MEMORY.equals(usage.getResource()),
+                                            "Cannot specify field [memory] for resource " + usage.getResource());
+                Preconditions.checkArgument(!usage.hasAllocation() || Resource.ALLOCATION.equals(usage.getResource()),
+                                            "Cannot specify field [allocation] for resource " + usage.getResource());
+                Preconditions.checkArgument(!usage.hasDisk() || Resource.DISK.equals(usage.getResource()),
+                                            "Cannot specify field [disk] for resource " + usage.getResource());
+                Consumer consumer = Optional.ofNullable(consumers.get(usage.getResource()))
+                                            .orElseThrow(() -> new IllegalStateException("Could not find consumer for " + usage));
+                consumer.apply(usage);
             }
 
             return ConsumeResponse.newBuilder()
@@ -157,11 +472,60 @@ public final class ConsumerBackendService extends ConsumerBackendServiceGrpc.Con
                                                                          e.getValue());
                                                       })
                                                       .collect(Collectors.toList());
-        return InstanceSummary.newBuilder()
-                              .setHost(this.host.getAddress())
-                              .setPort(this.host.getPort())
-                              .addAllUsage(resolvedUsage)
-                              .build();
+        InstanceSummary.Builder summary = InstanceSummary.newBuilder()
+                                                         .setHost(this.host.getAddress())
+                                                         .setPort(this.host.getPort())
+                                                         .addAllUsage(resolvedUsage);
+        Optional.ofNullable(this.consumers.get(Resource.MEMORY))
+                .filter(c -> c instanceof MemoryConsumer)
+                .map(c -> convert(((MemoryConsumer)c).getFootprint()))
+                .ifPresent(summary::setMemory);
+        Optional.ofNullable(this.consumers.get(Resource.ALLOCATION))
+                .filter(c -> c instanceof AllocationConsumer)
+                .map(c -> convert(((AllocationConsumer)c).getGc()))
+                .ifPresent(summary::setGc);
+        return summary.build();
+    }
+
+    private GcSummary convert(@NonNull GcMonitor gc) {
+        GcMonitor.Snapshot snapshot = gc.snapshot();
+        GcSummary.Builder summary = GcSummary.newBuilder()
+                                             .setAllocatedBytesPerSecond(snapshot.getAllocatedBytesPerSecond())
+                                             .setCollectionFraction(snapshot.getCollectionFraction())
+                                             .setPauseInMillis(convert(gc.getPauses()));
+        for(GcMonitor.Collector collector : snapshot.getCollectors()) {
+            summary.addCollector(CollectorSummary.newBuilder()
+                                                 .setName(collector.getName())
+                                                 .setCollections(collector.getCollections())
+                                                 .setCollectionTimeInMillis(collector.getCollectionTimeInMillis())
+                                                 .build());
+        }
+        return summary.build();
+    }
+
+    private MemoryFootprint convert(@NonNull MemoryConsumer.Footprint footprint) {
+        MemoryFootprint.Builder summary = MemoryFootprint.newBuilder()
+                                                         .setHeldBytes(footprint.getHeldBytes())
+                                                         .setUsedBytes(footprint.getUsedBytes())
+                                                         .setOverheadBytes(footprint.getOverheadBytes())
+                                                         .setHeapUsedBytes(footprint.getHeap().getHeapUsedBytes())
+                                                         .setHeapCommittedBytes(footprint.getHeap().getHeapCommittedBytes())
+                                                         .setHeapMaxBytes(footprint.getHeap().getHeapMaxBytes())
+                                                         .setHeapGrownBytes(footprint.getHeap().getGrownBytes())
+                                                         .setCollections(footprint.getHeap().getCollections())
+                                                         .setUncommittedBytes(footprint.getHeap().getUncommittedBytes())
+                                                         .setLastUncommittedBytes(footprint.getHeap().getLastUncommittedBytes())
+                                                         .setLastCollectionInMillis(footprint.getHeap().getLastCollection().toMillis())
+                                                         .setPlannedReadBytesPerSecond(footprint.getPlan().getReadBytesPerSecond())
+                                                         .setPlannedWriteBytesPerSecond(footprint.getPlan().getWriteBytesPerSecond())
+                                                         .setReadBytesPerSecond(footprint.getAchieved().getReadBytesPerSecond())
+                                                         .setWriteBytesPerSecond(footprint.getAchieved().getWriteBytesPerSecond());
+        Optional.ofNullable(footprint.getPageCache()).ifPresent(cache -> {
+            summary.setCacheBytes(cache.getCacheBytes())
+                   .setDirtyBytes(cache.getDirtyBytes())
+                   .setWritebackBytes(cache.getWritebackBytes());
+        });
+        return summary.build();
     }
 
     private UsageSpec convert(@NonNull Resource resource, @NonNull Optional<Unit> unit, @NonNull Consumer consumer) {
@@ -6,6 +6,7 @@ import java.util.Map;
 import org.build.session.jackson.proto.Resource;
 import org.builder.session.jackson.client.loadbalancing.ServiceRegistry;
 import org.builder.session.jackson.utils.HostnameUtils;
+import org.builder.session.jackson.workflow.ControlScheduler;
 import org.builder.session.jackson.workflow.utilize.Consumer;
 
 import com.google.common.base.Preconditions;
@@ -30,7 +31,8 @@ public class ServerImpl implements Server {
 
     public ServerImpl (@NonNull final int port,
                        @NonNull final Map<Resource, Consumer> consumers,
-                       @NonNull final ServiceRegistry registry) {
+                       @NonNull final ServiceRegistry registry,
+                       @NonNull final ControlScheduler scheduler) {
         Preconditions.checkArgument(port >= 0 && port < (Short.MAX_VALUE * 2),
                                     "Port must be within the range [0, 65535], but was " + port);
         this.host = HostnameUtils.resolveIpAddress(HostnameUtils.AddressType.PRIVATE);
@@ -38,7 +40,8 @@ public class ServerImpl implements Server {
         this.service = new ConsumerBackendService(this.host,
                                                   this.port,
                                                   consumers,
-                                                  registry);
+                                                  registry,
+                                                  scheduler);
         server = ServerBuilder.forPort(port)
                               .addService(this.service)
                               .build();
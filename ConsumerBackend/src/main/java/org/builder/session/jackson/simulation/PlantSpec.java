@@ -0,0 +1,79 @@
+package org.builder.session.jackson.simulation;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import com.google.common.base.Preconditions;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Describes how a simulated resource responds to load. Consumption follows the load times
+ * the gain, plus a baseline, after the dead time and through a first-order lag. It is capped
+ * at the limit, as a cgroup caps a container, and read as noisy, quantized samples. Every
+ * value is in the base unit of the resource (ex. VCPU or BYTES).
+ */
+@ToString
+@EqualsAndHashCode
+@Getter
+public class PlantSpec {
+    private static final Duration DEFAULT_SAMPLE_INTERVAL = Duration.ofSeconds(1);
+
+    // Consumption per unit of load once settled.
+    private final double gain;
+    // Consumption present without any load, like the JVM itself.
+    private final long baseline;
+    // The time constant of the response to a change in load.
+    private final Duration lag;
+    // The delay before a change in load starts to take effect.
+    private final Duration deadTime;
+    // The standard deviation of the noise added to each sample.
+    private final double noise;
+    // The step that samples are rounded down to.
+    private final long quantization;
+    // The most that can be consumed.
+    private final long limit;
+    // How often new samples of consumption are taken.
+    private final Duration sampleInterval;
+
+    @Builder(toBuilder = true)
+    private PlantSpec(final double gain,
+                      final long baseline,
+                      final Duration lag,
+                      final Duration deadTime,
+                      final double noise,
+                      final long quantization,
+                      final long limit,
+                      final Duration sampleInterval) {
+        Preconditions.checkArgument(gain > 0.0, "Expected a positive gain, but got " + gain);
+        Preconditions.checkArgument(baseline >= 0, "Expected a non-negative baseline, but got " + baseline);
+        Preconditions.checkArgument(noise >= 0.0, "Expected non-negative noise, but got " + noise);
+        Preconditions.checkArgument(quantization >= 0, "Expected a non-negative quantization, but got " + quantization);
+        Preconditions.checkArgument(limit >= 0, "Expected a non-negative limit, but got " + limit);
+        this.gain = gain;
+        this.baseline = baseline;
+        this.lag = nonNegative(lag, "lag");
+        this.deadTime = nonNegative(deadTime, "dead time");
+        this.noise = noise;
+        this.quantization = Math.max(1L, quantization);
+        // Zero means unlimited.
+        this.limit = limit == 0 ? Long.MAX_VALUE : limit;
+        this.sampleInterval = Optional.ofNullable(sampleInterval).orElse(DEFAULT_SAMPLE_INTERVAL);
+        Preconditions.checkArgument(!this.sampleInterval.isNegative() && !this.sampleInterval.isZero(),
+                                    "Expected a positive sample interval, but got " + this.sampleInterval);
+    }
+
+    private static Duration nonNegative(Duration duration, @NonNull String name) {
+        Duration value = Optional.ofNullable(duration).orElse(Duration.ZERO);
+        Preconditions.checkArgument(!value.isNegative(), "Expected a non-negative " + name + ", but got " + value);
+        return value;
+    }
+
+    public boolean isLimited() {
+        return limit != Long.MAX_VALUE;
+    }
+}
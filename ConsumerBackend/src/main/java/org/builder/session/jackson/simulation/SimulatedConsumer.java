@@ -0,0 +1,104 @@
+package org.builder.session.jackson.simulation;
+
+import org.build.session.jackson.proto.Resource;
+import org.build.session.jackson.proto.Unit;
+import org.builder.session.jackson.system.DigitalUnit;
+import org.builder.session.jackson.workflow.utilize.AbstractPidConsumer;
+import org.builder.session.jackson.workflow.utilize.PIDConfig;
+
+import com.google.common.base.Preconditions;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * A PID consumer whose load drives a simulated plant instead of real work, running on the
+ * virtual clock of its system. It controls exactly as the real consumers do, so changes to
+ * the control loop can be evaluated without a container.
+ */
+public class SimulatedConsumer extends AbstractPidConsumer {
+
+    @Getter
+    private final String name;
+    @Getter(AccessLevel.PROTECTED)
+    private final Resource resource;
+    @NonNull
+    @Getter(AccessLevel.PROTECTED)
+    private final SimulatedSystemUtil system;
+    @NonNull
+    private final DigitalUnit baseUnit;
+
+    public SimulatedConsumer(@NonNull final Resource resource,
+                             @NonNull final SimulatedSystemUtil system,
+                             @NonNull final PIDConfig pidConfig) {
+        super(pidConfig, system.getClock(), system.getClock().getTicker());
+        this.name = "Simulated" + resource.name().charAt(0) + resource.name().substring(1).toLowerCase() + "Consumer";
+        this.resource = resource;
+        this.system = system;
+        this.baseUnit = SimulatedSystemUtil.getBaseUnit(resource);
+        // Fail now, rather than on the first step, if the resource isn't simulated.
+        system.getSpec(resource);
+    }
+
+    @Override
+    public Unit getDefaultUnit () {
+        return baseUnit.toUnit();
+    }
+
+    @Override
+    public boolean isUnitAllowed (Unit unit) {
+        return (DigitalUnit.isPercentage(unit) && system.getSpec(resource).isLimited())
+                || (!DigitalUnit.isPercentage(unit) && baseUnit.canConvertTo(unit));
+    }
+
+    @Override
+    protected Unit getStoredUnit () {
+        return baseUnit.toUnit();
+    }
+
+    @Override
+    protected double getActual () {
+        return system.getReading(resource);
+    }
+
+    @Override
+    protected double convertFromStoredUnitTo (double storedValue, Unit unit) {
+        if(DigitalUnit.isPercentage(unit)) {
+            return storedValue / system.getSpec(resource).getLimit();
+        } else {
+            return DigitalUnit.from(unit).from(storedValue, baseUnit);
+        }
+    }
+
+    @Override
+    protected double convertToStoredUnitFrom (double value, Unit unit) {
+        if(DigitalUnit.isPercentage(unit)) {
+            return value * system.getSpec(resource).getLimit();
+        } else {
+            return baseUnit.from(value, unit);
+        }
+    }
+
+    @Override
+    protected long getGoal () {
+        return (long)getTarget();
+    }
+
+    @Override
+    protected long getConsumed () {
+        return system.getReading(resource);
+    }
+
+    @Override
+    protected void generateLoad (long scale) {
+        Preconditions.checkArgument(scale >= 0, "Scale should be greater than or equal to zero.");
+        system.setLoad(resource, system.getLoad(resource) + scale);
+    }
+
+    @Override
+    protected void destroyLoad (long scale) {
+        Preconditions.checkArgument(scale >= 0, "Scale should be greater than or equal to zero.");
+        system.setLoad(resource, Math.max(0L, system.getLoad(resource) - scale));
+    }
+}
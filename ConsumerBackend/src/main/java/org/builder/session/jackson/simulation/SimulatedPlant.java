@@ -0,0 +1,109 @@
+package org.builder.session.jackson.simulation;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import com.google.common.base.Preconditions;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The state of one simulated resource. Load is applied as a step that takes effect after
+ * the dead time, and consumption is integrated exactly between changes, so the result does
+ * not depend on how finely time is advanced.
+ */
+class SimulatedPlant {
+
+    @Getter
+    @NonNull
+    private final PlantSpec spec;
+    private final double lagInNanos;
+    private final long deadTimeInNanos;
+    // Loads that were set but whose dead time hasn't passed, oldest first.
+    private final Deque<long[]> pending = new ArrayDeque<>();
+    @Getter
+    private long load = 0;
+    private long effectiveLoad = 0;
+    private double consumption;
+    @Getter
+    private long reading;
+    @Getter
+    private long nextSampleInNanos;
+    @Getter
+    private long samples = 0;
+    private long timeInNanos = 0;
+
+    SimulatedPlant(@NonNull final PlantSpec spec) {
+        this.spec = spec;
+        this.lagInNanos = spec.getLag().toNanos();
+        this.deadTimeInNanos = spec.getDeadTime().toNanos();
+        this.consumption = getSettledConsumption();
+        this.reading = quantize(consumption);
+        this.nextSampleInNanos = spec.getSampleInterval().toNanos();
+    }
+
+    /**
+     * Sets the load, which takes effect once the dead time has passed.
+     */
+    void setLoad(final long newLoad) {
+        Preconditions.checkArgument(newLoad >= 0, "Expected a non-negative load, but got " + newLoad);
+        load = newLoad;
+        if (deadTimeInNanos == 0) {
+            effectiveLoad = newLoad;
+        } else {
+            pending.addLast(new long[] { timeInNanos + deadTimeInNanos, newLoad });
+        }
+    }
+
+    /**
+     * Integrates consumption up to the supplied time, applying each delayed load as it takes effect.
+     */
+    void advanceTo(final long untilInNanos) {
+        while (timeInNanos < untilInNanos) {
+            long segmentEnd = untilInNanos;
+            if (!pending.isEmpty() && pending.peekFirst()[0] < segmentEnd) {
+                segmentEnd = Math.max(timeInNanos, pending.peekFirst()[0]);
+            }
+            integrate(segmentEnd - timeInNanos);
+            timeInNanos = segmentEnd;
+            while (!pending.isEmpty() && pending.peekFirst()[0] <= timeInNanos) {
+                effectiveLoad = pending.pollFirst()[1];
+            }
+        }
+    }
+
+    /**
+     * Takes a sample of consumption, if one is due, with noise and quantization.
+     *
+     * @return true if a new sample was taken.
+     */
+    boolean sample(@NonNull final Random random) {
+        if (timeInNanos < nextSampleInNanos) {
+            return false;
+        }
+        double noisy = consumption + spec.getNoise() * random.nextGaussian();
+        reading = quantize(Math.max(0.0, Math.min((double)spec.getLimit(), noisy)));
+        nextSampleInNanos += spec.getSampleInterval().toNanos();
+        samples++;
+        return true;
+    }
+
+    private void integrate(long elapsedInNanos) {
+        double settled = getSettledConsumption();
+        if (lagInNanos == 0) {
+            consumption = settled;
+        } else {
+            consumption += (settled - consumption) * (1.0 - Math.exp(-elapsedInNanos / lagInNanos));
+        }
+    }
+
+    private double getSettledConsumption() {
+        return Math.min((double)spec.getLimit(), spec.getBaseline() + spec.getGain() * effectiveLoad);
+    }
+
+    private long quantize(double value) {
+        return ((long)value / spec.getQuantization()) * spec.getQuantization();
+    }
+}
@@ -0,0 +1,195 @@
+package org.builder.session.jackson.simulation;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import org.build.session.jackson.proto.Resource;
+import org.builder.session.jackson.system.DigitalUnit;
+import org.builder.session.jackson.system.RefreshEstimate;
+import org.builder.session.jackson.system.SampleNotifier;
+import org.builder.session.jackson.system.SystemUtil;
+
+import com.google.common.base.Preconditions;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * A SystemUtil backed by simulated plants on a virtual clock instead of a real container.
+ * Time only moves through advanceTo(), which publishes each sample as it is taken so that
+ * consumers waiting on fresh samples behave as they would against the metadata endpoint.
+ * Runs are repeatable for a given seed.
+ */
+public class SimulatedSystemUtil implements SystemUtil {
+
+    @Getter
+    @NonNull
+    private final VirtualClock clock;
+    @NonNull
+    private final Map<Resource, SimulatedPlant> plants = new EnumMap<>(Resource.class);
+    @NonNull
+    private final SampleNotifier sampleNotifier = new SampleNotifier();
+    @NonNull
+    private final Random random;
+
+    public SimulatedSystemUtil(@NonNull final VirtualClock clock,
+                               @NonNull final Map<Resource, PlantSpec> specs,
+                               final long seed) {
+        this.clock = clock;
+        this.random = new Random(seed);
+        specs.forEach((resource, spec) -> plants.put(resource, new SimulatedPlant(spec)));
+    }
+
+    /**
+     * The unit that plants of the resource are expressed in.
+     */
+    public static DigitalUnit getBaseUnit(@NonNull final Resource resource) {
+        switch (resource) {
+            case CPU:
+                return DigitalUnit.VCPU;
+            case MEMORY:
+                return DigitalUnit.BYTES;
+            case NETWORK:
+            case DISK:
+            case ALLOCATION:
+                return DigitalUnit.BYTES_PER_SECOND;
+            default:
+                throw new IllegalArgumentException("Unrecognized resource type " + resource);
+        }
+    }
+
+    public PlantSpec getSpec(@NonNull final Resource resource) {
+        return getPlant(resource).getSpec();
+    }
+
+    public long getLoad(@NonNull final Resource resource) {
+        return getPlant(resource).getLoad();
+    }
+
+    public void setLoad(@NonNull final Resource resource, final long load) {
+        getPlant(resource).setLoad(load);
+    }
+
+    /**
+     * The latest sampled consumption of the resource, in its base unit.
+     */
+    public long getReading(@NonNull final Resource resource) {
+        return getPlant(resource).getReading();
+    }
+
+    /**
+     * The time of the next sample of any resource.
+     */
+    public long getNextSampleInNanos() {
+        return plants.values()
+                     .stream()
+                     .mapToLong(SimulatedPlant::getNextSampleInNanos)
+                     .min()
+                     .orElse(Long.MAX_VALUE);
+    }
+
+    /**
+     * Advances the clock and every plant to the supplied time, or to the next sample if that
+     * comes first, publishing any samples taken. Callers loop until they reach their time so
+     * that listeners are told of each sample at the time it was taken.
+     */
+    public void advanceTo(final long untilInNanos) {
+        long target = Math.min(untilInNanos, getNextSampleInNanos());
+        for (SimulatedPlant plant : plants.values()) {
+            plant.advanceTo(target);
+        }
+        clock.advanceTo(target);
+        plants.forEach((resource, plant) -> {
+            if (plant.sample(random)) {
+                sampleNotifier.publish(resource);
+            }
+        });
+    }
+
+    private SimulatedPlant getPlant(@NonNull final Resource resource) {
+        return Optional.ofNullable(plants.get(resource))
+                       .orElseThrow(() -> new IllegalArgumentException("No plant is simulated for " + resource));
+    }
+
+    private long getLimit(@NonNull final Resource resource) {
+        PlantSpec spec = getSpec(resource);
+        Preconditions.checkState(spec.isLimited(), "The plant for " + resource + " has no limit.");
+        return spec.getLimit();
+    }
+
+    @Override
+    public long getFreeMemory(DigitalUnit unit) {
+        return unit.from(getLimit(Resource.MEMORY) - getReading(Resource.MEMORY), DigitalUnit.BYTES);
+    }
+
+    @Override
+    public long getTotalMemory(DigitalUnit unit) {
+        return unit.from(getLimit(Resource.MEMORY), DigitalUnit.BYTES);
+    }
+
+    @Override
+    public long getUsedMemory(DigitalUnit unit) {
+        return unit.from(getReading(Resource.MEMORY), DigitalUnit.BYTES);
+    }
+
+    @Override
+    public double getMemoryPercentage() {
+        return (double)getReading(Resource.MEMORY) / (double)getLimit(Resource.MEMORY);
+    }
+
+    @Override
+    public long getTotalCpu(DigitalUnit unit) {
+        return unit.from(getLimit(Resource.CPU), DigitalUnit.VCPU);
+    }
+
+    @Override
+    public long getUsedCpu(DigitalUnit unit) {
+        return unit.from(getReading(Resource.CPU), DigitalUnit.VCPU);
+    }
+
+    @Override
+    public double getCpuPercentage() {
+        return (double)getReading(Resource.CPU) / (double)getLimit(Resource.CPU);
+    }
+
+    @Override
+    public long getNetworkUsage(DigitalUnit unit) {
+        Preconditions.checkArgument(unit.isRate(), "Expected a rate based metric.");
+        return unit.from(getReading(Resource.NETWORK), DigitalUnit.BYTES_PER_SECOND);
+    }
+
+    @Override
+    public long getStorageUsage(DigitalUnit unit) {
+        Preconditions.checkArgument(unit.isRate(), "Expected a rate based metric.");
+        return unit.from(getReading(Resource.DISK), DigitalUnit.BYTES_PER_SECOND);
+    }
+
+    @Override
+    public long getSampleVersion(Resource resource) {
+        return sampleNotifier.getVersion(resource);
+    }
+
+    @Override
+    public void addSampleListener(Resource resource, Runnable listener) {
+        sampleNotifier.addListener(resource, listener);
+    }
+
+    @Override
+    public void removeSampleListener(Resource resource, Runnable listener) {
+        sampleNotifier.removeListener(resource, listener);
+    }
+
+    /**
+     * The sample interval of a simulated plant is known exactly, so there is no jitter.
+     */
+    @Override
+    public Optional<RefreshEstimate> getRefreshEstimate(Resource resource) {
+        return Optional.ofNullable(plants.get(resource))
+                       .map(plant -> new RefreshEstimate(plant.getSpec().getSampleInterval(),
+                                                         Duration.ZERO,
+                                                         plant.getSamples()));
+    }
+}
@@ -0,0 +1,98 @@
+package org.builder.session.jackson.simulation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs simulated consumers against their plants in virtual time. Each consumer's step is run
+ * when the delay it asked for passes or a new sample of its resource wakes it, just as the
+ * ControlScheduler would, but time jumps straight to the next event instead of sleeping.
+ * This is single-threaded, so a run is deterministic.
+ */
+@Slf4j
+public class Simulator {
+
+    @NonNull
+    private final SimulatedSystemUtil system;
+    @NonNull
+    private final List<SimulatedConsumer> consumers = new ArrayList<>();
+    private final List<long[]> wakeAtInNanos = new ArrayList<>();
+
+    public Simulator(@NonNull final SimulatedSystemUtil system) {
+        this.system = system;
+    }
+
+    public void add(@NonNull final SimulatedConsumer consumer) {
+        Preconditions.checkArgument(!consumers.contains(consumer), consumer.getName() + " was already added.");
+        // Held in an array so that the sample listener can wake it in place.
+        long[] wakeAt = new long[] { system.getClock().nanos() };
+        consumers.add(consumer);
+        wakeAtInNanos.add(wakeAt);
+        system.addSampleListener(consumer.getResource(), () -> wakeAt[0] = system.getClock().nanos());
+    }
+
+    /**
+     * Runs every consumer for the supplied duration of virtual time.
+     */
+    public Result run(@NonNull final Duration duration) {
+        Preconditions.checkArgument(!duration.isNegative(), "Expected a non-negative duration, but got " + duration);
+        VirtualClock clock = system.getClock();
+        long startInNanos = clock.nanos();
+        long endInNanos = startInNanos + duration.toNanos();
+        long startOfRun = System.nanoTime();
+        long steps = 0;
+        long ticks = -getTicks();
+        while (true) {
+            long now = clock.nanos();
+            long next = endInNanos;
+            for (int i = 0; i < consumers.size(); i++) {
+                long[] wakeAt = wakeAtInNanos.get(i);
+                if (wakeAt[0] <= now) {
+                    wakeAt[0] = now + Math.max(0L, consumers.get(i).step().toNanos());
+                    steps++;
+                }
+                next = Math.min(next, wakeAt[0]);
+            }
+            if (now >= endInNanos) {
+                break;
+            }
+            system.advanceTo(Math.max(next, now + 1));
+        }
+        ticks += getTicks();
+        Result result = Result.builder()
+                              .simulated(Duration.ofNanos(clock.nanos() - startInNanos))
+                              .elapsed(Duration.ofNanos(System.nanoTime() - startOfRun))
+                              .steps(steps)
+                              .ticks(ticks)
+                              .build();
+        log.info("Simulation finished: {}", result);
+        return result;
+    }
+
+    private long getTicks() {
+        return consumers.stream().mapToLong(c -> c.getTelemetry().getRecorded()).sum();
+    }
+
+    /**
+     * How much virtual time a run covered and the real time it took. Ticks are iterations of
+     * a control loop, while steps also count wakes that only waited for a fresh sample.
+     */
+    @Value
+    @Builder
+    public static class Result {
+        @NonNull
+        private final Duration simulated;
+        @NonNull
+        private final Duration elapsed;
+        private final long steps;
+        private final long ticks;
+    }
+}
@@ -0,0 +1,75 @@
+package org.builder.session.jackson.simulation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+
+import lombok.NonNull;
+
+/**
+ * A clock that only moves when told to, so that simulated time can run far faster than
+ * real time and every run is repeatable. It serves both wall-clock reads and, through
+ * its ticker, the monotonic reads that pacing is measured in.
+ */
+public class VirtualClock extends Clock {
+
+    private static final Instant EPOCH = Instant.EPOCH;
+
+    private long nanos = 0;
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read () {
+            return nanos;
+        }
+    };
+
+    /**
+     * The nanoseconds elapsed since the simulation began.
+     */
+    public long nanos() {
+        return nanos;
+    }
+
+    public Ticker getTicker() {
+        return ticker;
+    }
+
+    /**
+     * Moves the clock forward to the supplied time. Time never moves backwards.
+     */
+    public void advanceTo(final long untilInNanos) {
+        Preconditions.checkArgument(untilInNanos >= nanos,
+                                    "Cannot move the clock back from " + nanos + " to " + untilInNanos);
+        nanos = untilInNanos;
+    }
+
+    public void advance(@NonNull final Duration duration) {
+        advanceTo(nanos + duration.toNanos());
+    }
+
+    @Override
+    public long millis() {
+        return nanos / 1_000_000L;
+    }
+
+    @Override
+    public Instant instant() {
+        return EPOCH.plusNanos(nanos);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        Preconditions.checkArgument(ZoneOffset.UTC.equals(zone), "A virtual clock only supports UTC.");
+        return this;
+    }
+}
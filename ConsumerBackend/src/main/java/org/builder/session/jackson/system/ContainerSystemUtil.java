@@ -1,6 +1,7 @@
 package org.builder.session.jackson.system;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 import org.builder.session.jackson.client.SimpleClient;
@@ -10,7 +11,9 @@ import org.builder.session.jackson.client.messages.ContainerStats;
 import org.builder.session.jackson.client.messages.TaskMetadata;
 import org.builder.session.jackson.exception.ConsumerDependencyException;
 import org.builder.session.jackson.exception.ConsumerInternalException;
+import org.builder.session.jackson.utils.BackgroundPoller;
 import org.builder.session.jackson.utils.RateTracker;
+import org.builder.session.jackson.workflow.ControlScheduler;
 
 import com.google.common.base.Preconditions;
 
@@ -20,6 +23,9 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * Uses the Task Metadata endpoint to pollStats usage statistics.
  *
+ * Like TaskSystemUtil, the endpoint is only called from background pollers, so readings
+ * never block.
+ *
  * Link: https://docs.aws.amazon.com/AmazonECS/latest/developerguide/task-metadata-endpoint-v3.html
  */
 @Slf4j
@@ -31,23 +37,30 @@ public class ContainerSystemUtil implements SystemUtil {
     private static final Duration CACHE_TIME = Duration.ofMillis(200);
     private static final Duration WAIT_TIME = Duration.ofSeconds(20);
     private static final Duration RATE_POLLING_PERIOD = Duration.ofSeconds(20);
-    public static final String OPERATION_FOR_STORAGE = "Write";
+    private static final Duration METADATA_POLLING_PERIOD = Duration.ofSeconds(10);
+    public static final String OPERATION_FOR_STORAGE = "Total";
 
     private final SimpleClient<TaskMetadata> metadataClient;
     private final SimpleClient<ContainerStats> statsClient;
+    private final BackgroundPoller<ContainerMetadata> metadataPoller;
+    private final BackgroundPoller<ContainerStats> statsPoller;
 
     private final RateTracker networkRateTracker;
     private final RateTracker storageRateTracker;
 
-    public ContainerSystemUtil() {
+    public ContainerSystemUtil(@NonNull final ControlScheduler scheduler) {
         try {
             metadataClient = TaskMetadataClient.createTaskMetadataClient(CACHE_TIME);
             statsClient = TaskMetadataClient.createContainerStatsClient(CACHE_TIME);
 
             //Perform some simple validation for our system to confirm that it is properly setup.
             //TODO: Improve how this sleep time is setup to only do it on initialization...
-            ContainerStats initialStats = pollStats();
-            ContainerMetadata initialMetadata = pollMetadata();
+            metadataPoller = new BackgroundPoller<>("ContainerMetadata",
+                                                    this::fetchMetadata,
+                                                    () -> METADATA_POLLING_PERIOD);
+            statsPoller = new BackgroundPoller<>("ContainerStats",
+                                                 this::fetchStats,
+                                                 () -> CACHE_TIME);
             Thread.sleep(WAIT_TIME.toMillis());
             long reservedContainerCpu = getTotalCpu(DigitalUnit.VCPU);
             long reservedContainerMemory = getTotalMemory(DigitalUnit.BYTES);
@@ -66,8 +79,9 @@ public class ContainerSystemUtil implements SystemUtil {
                                                            .stream()
                                                            .mapToDouble(i -> i.getTransmittedBytes())
                                                            .sum(),
-                                                 RATE_POLLING_PERIOD);
-            storageRateTracker = new RateTracker("StorageWriteTracker",
+                                                 RATE_POLLING_PERIOD,
+                                                 scheduler);
+            storageRateTracker = new RateTracker("StorageTracker",
                                                  () -> this.pollStats()
                                                            .getStorageStats()
                                                            .getVolumes()
@@ -75,16 +89,31 @@ public class ContainerSystemUtil implements SystemUtil {
                                                            .filter(v -> OPERATION_FOR_STORAGE.equals(v.getOperation()))
                                                            .mapToDouble(v -> v.getValue())
                                                            .sum(),
-                                                 RATE_POLLING_PERIOD);
+                                                 RATE_POLLING_PERIOD,
+                                                 scheduler);
         } catch (Throwable t) {
             throw new ConsumerInternalException("Failed while starting up ContainerSystemUtil.", t);
         }
     }
 
     /**
-     * Polls the latest ContainerStats from the Metadata endpoint and logs the result.
+     * The latest ContainerStats fetched in the background.
      */
     protected ContainerStats pollStats () {
+        return statsPoller.get();
+    }
+
+    /**
+     * The latest ContainerMetadata fetched in the background.
+     */
+    protected ContainerMetadata pollMetadata () {
+        return metadataPoller.get();
+    }
+
+    /**
+     * Calls the Metadata endpoint for the latest ContainerStats and logs the result.
+     */
+    private ContainerStats fetchStats () {
         ContainerStats stats = Optional.ofNullable(statsClient.call())
                                        .orElseThrow(() -> new ConsumerDependencyException("Couldn't gather stats from endpoint."));
         log.debug("Pulled container stats: " + stats);
@@ -92,9 +121,9 @@ public class ContainerSystemUtil implements SystemUtil {
     }
 
     /**
-     * Polls the latest ContainerStats from the Metadata endpoint and logs the result.
+     * Calls the Metadata endpoint for this container's metadata and logs the result.
      */
-    protected ContainerMetadata pollMetadata () {
+    private ContainerMetadata fetchMetadata () {
         TaskMetadata stats = Optional.ofNullable(metadataClient.call())
                                      .orElseThrow(() -> new ConsumerDependencyException("Couldn't gather metadata from endpoint."));
         log.debug("Pulled task metadata: " + stats);
@@ -152,17 +181,38 @@ public class ContainerSystemUtil implements SystemUtil {
         }
     }
 
-    protected double getCpuPercentageAllocatedToThisContainer() {
+    @Override
+    public long getOnlineCpus() {
         ContainerStats pollStats = this.pollStats();
-        long processors = Optional.ofNullable(pollStats.getCpuStats())
-                                  .map(c -> c.getOnlineCpus())
-                                  .orElseGet(() -> { //Default to 1, but log the issue
-                                        log.warn("Defaulting online CPUs to 1 due to poll stats: {}",
-                                                 pollStats);
-                                        return 1L;
-                                  });
+        return Optional.ofNullable(pollStats.getCpuStats())
+                       .map(c -> c.getOnlineCpus())
+                       .orElseGet(() -> { //Default to 1, but log the issue
+                             log.warn("Defaulting online CPUs to 1 due to poll stats: {}",
+                                      pollStats);
+                             return 1L;
+                       });
+    }
+
+    protected double getCpuPercentageAllocatedToThisContainer() {
         return (double)this.pollMetadata().getLimits().get(CPU_LIMIT_KEY)
-                / (double)(processors * getUnitsPerProcessor());
+                / (double)(getOnlineCpus() * getUnitsPerProcessor());
+    }
+
+    @Override
+    public Optional<List<Long>> getPerCpuUsage() {
+        return Optional.ofNullable(this.pollStats().getCpuStats())
+                       .map(ContainerStats.CpuStats::getCpuUsage)
+                       .map(ContainerStats.CpuStats.CpuUsageStats::getPerCpuUsage);
+    }
+
+    @Override
+    public Optional<PageCache> getPageCache() {
+        return Optional.ofNullable(this.pollStats().getMemoryStats())
+                       .map(ContainerStats.MemoryStats::getStats)
+                       .filter(s -> s.getCache() != null)
+                       .map(s -> new PageCache(s.getCache(),
+                                               Optional.ofNullable(s.getDirty()).orElse(0L),
+                                               Optional.ofNullable(s.getWriteback()).orElse(0L)));
     }
 
     @Override
@@ -0,0 +1,37 @@
+package org.builder.session.jackson.system;
+
+import java.time.Duration;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * How much the CFS quota throttled a task between its two latest CPU samples.
+ */
+@Value
+public class CpuThrottling {
+    // The enforcement periods that elapsed, and those in which the quota ran out.
+    private final long periods;
+    private final long throttledPeriods;
+    // The total time that runnable threads were held back by the quota.
+    @NonNull
+    private final Duration throttledTime;
+    // The time between the two samples.
+    @NonNull
+    private final Duration elapsed;
+
+    /**
+     * The fraction of enforcement periods in which the task was throttled.
+     */
+    public double getThrottledPeriodFraction() {
+        return periods <= 0 ? 0.0 : (double)throttledPeriods / (double)periods;
+    }
+
+    /**
+     * The throttled time per unit of elapsed time. This sums over every throttled CPU, so it can exceed one.
+     */
+    public double getThrottledTimeRatio() {
+        return elapsed.isZero() || elapsed.isNegative() ? 0.0
+                : (double)throttledTime.toNanos() / (double)elapsed.toNanos();
+    }
+}
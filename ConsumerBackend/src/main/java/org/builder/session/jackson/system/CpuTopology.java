@@ -0,0 +1,184 @@
+package org.builder.session.jackson.system;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The online logical CPUs of a Linux host that this process may run on, along with the
+ * physical core, package and NUMA node that each belongs to, as read from sysfs. A container
+ * is often confined to a cpuset smaller than the host, so CPUs outside the process's allowed
+ * list are left out.
+ *
+ * Link: https://www.kernel.org/doc/Documentation/ABI/stable/sysfs-devices-system-cpu
+ * Link: https://man7.org/linux/man-pages/man5/proc.5.html
+ */
+@Slf4j
+@Value
+public class CpuTopology {
+
+    public static final Path DEFAULT_ROOT = Paths.get("/sys/devices/system/cpu");
+    public static final Path DEFAULT_STATUS = Paths.get("/proc/self/status");
+    private static final String ALLOWED_FIELD = "Cpus_allowed_list:";
+    // Read once, before any worker is pinned, so it stays the set the process was started with.
+    private static final Optional<List<Integer>> ALLOWED = readAllowed(DEFAULT_STATUS);
+
+    // Ordered by id.
+    @NonNull
+    private final List<LogicalCpu> cpus;
+
+    /**
+     * One hardware thread, which shares its physical core with its SMT siblings.
+     */
+    @Value
+    public static class LogicalCpu {
+        private final int id;
+        private final int coreId;
+        private final int packageId;
+        // The NUMA node, or zero if the host reports none.
+        private final int node;
+    }
+
+    /**
+     * Reads the topology of this host, if it is Linux and exposes sysfs.
+     */
+    public static Optional<CpuTopology> read() {
+        return read(DEFAULT_ROOT, ALLOWED);
+    }
+
+    /**
+     * @param allowed the CPUs the process may run on, or empty to include every online CPU.
+     */
+    public static Optional<CpuTopology> read(@NonNull final Path root,
+                                             @NonNull final Optional<List<Integer>> allowed) {
+        Path online = root.resolve("online");
+        if (!Files.isReadable(online)) {
+            return Optional.empty();
+        }
+        try {
+            ImmutableList.Builder<LogicalCpu> builder = ImmutableList.builder();
+            for (int id : parseList(readLine(online))) {
+                if (allowed.isPresent() && !allowed.get().contains(id)) {
+                    continue;
+                }
+                Path cpu = root.resolve("cpu" + id);
+                builder.add(new LogicalCpu(id,
+                                           readInt(cpu.resolve("topology/core_id"), id),
+                                           readInt(cpu.resolve("topology/physical_package_id"), 0),
+                                           readNode(cpu)));
+            }
+            return Optional.of(new CpuTopology(builder.build()));
+        } catch (Throwable t) {
+            log.warn("Failed to read the CPU topology from " + root + ".", t);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The CPUs this process was allowed to run on when first read, if this is Linux.
+     */
+    public static Optional<List<Integer>> getAllowedCpus() {
+        return ALLOWED;
+    }
+
+    /**
+     * Reads the Cpus_allowed_list of a process status file, such as "0-3,8".
+     */
+    public static Optional<List<Integer>> readAllowed(@NonNull final Path status) {
+        if (!Files.isReadable(status)) {
+            return Optional.empty();
+        }
+        try {
+            for (String line : Files.readAllLines(status, StandardCharsets.US_ASCII)) {
+                if (line.startsWith(ALLOWED_FIELD)) {
+                    return Optional.of(ImmutableList.copyOf(parseList(line.substring(ALLOWED_FIELD.length()))));
+                }
+            }
+            log.warn("Found no {} in {}.", ALLOWED_FIELD, status);
+        } catch (Throwable t) {
+            log.warn("Failed to read the allowed CPUs from " + status + ".", t);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Formats ids as a CPU list that taskset accepts, such as "0,1,8".
+     */
+    public static String formatList(@NonNull final List<Integer> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    /**
+     * Parses a sysfs CPU list, such as "0-3,8,10-11", into ascending ids.
+     */
+    public static List<Integer> parseList(@NonNull final String list) {
+        TreeSet<Integer> ids = new TreeSet<>();
+        for (String range : list.trim().split(",")) {
+            if (range.trim().isEmpty()) {
+                continue;
+            }
+            String[] bounds = range.trim().split("-");
+            Preconditions.checkArgument(bounds.length <= 2, "Expected a CPU or range of CPUs, but got " + range);
+            int first = Integer.parseInt(bounds[0].trim());
+            int last = bounds.length == 2 ? Integer.parseInt(bounds[1].trim()) : first;
+            Preconditions.checkArgument(0 <= first && first <= last, "Expected an ascending range, but got " + range);
+            for (int id = first; id <= last; id++) {
+                ids.add(id);
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private static String readLine(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.US_ASCII).trim();
+    }
+
+    private static int readInt(Path path, int defaultValue) throws IOException {
+        return Files.isReadable(path) ? Integer.parseInt(readLine(path)) : defaultValue;
+    }
+
+    /**
+     * Finds the NUMA node from the "nodeN" link within the CPU's directory.
+     */
+    private static int readNode(Path cpu) throws IOException {
+        try (DirectoryStream<Path> nodes = Files.newDirectoryStream(cpu, "node[0-9]*")) {
+            for (Path node : nodes) {
+                return Integer.parseInt(node.getFileName().toString().substring("node".length()));
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Whether the CPU is online and this process may run on it.
+     */
+    public boolean isAvailable(final int id) {
+        return cpus.stream().anyMatch(c -> c.getId() == id);
+    }
+
+    /**
+     * The number of physical cores, counting each core of each package once.
+     */
+    public long getCoreCount() {
+        return cpus.stream().map(c -> c.getPackageId() + ":" + c.getCoreId()).distinct().count();
+    }
+
+    public long getNodeCount() {
+        return cpus.stream().mapToInt(LogicalCpu::getNode).distinct().count();
+    }
+}
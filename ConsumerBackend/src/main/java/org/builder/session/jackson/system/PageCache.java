@@ -0,0 +1,22 @@
+package org.builder.session.jackson.system;
+
+import lombok.Value;
+
+/**
+ * The file-backed memory charged to a task, as of its latest memory sample. The cache
+ * includes every page read from or written to a file, along with tmpfs and shared memory.
+ */
+@Value
+public class PageCache {
+    private final long cacheBytes;
+    // Pages changed but not yet written back, and those being written back now.
+    private final long dirtyBytes;
+    private final long writebackBytes;
+
+    /**
+     * The cached pages that match the file, which the kernel may drop without any I/O.
+     */
+    public long getCleanBytes() {
+        return Math.max(0L, cacheBytes - dirtyBytes - writebackBytes);
+    }
+}
@@ -65,15 +65,21 @@ public class Profiler implements Closeable {
         });
     }
 
-    public void profile (SystemUtil utilToProfile) throws Exception {
+    /**
+     * Measures how often each profiled resource refreshes its readings, logging and
+     * returning the interval between changes and its jitter. The first change is only
+     * used as a starting point since it doesn't span a whole refresh.
+     */
+    public Map<Resource, RefreshEstimate> profile (SystemUtil utilToProfile) throws Exception {
         Instant profileStart = Instant.now();
 
         //Set inital state and StatTrackers...
         Map<Resource, StatTracker> statsMap = new HashMap<>();
+        Map<Resource, Double> lastValueMap = new HashMap<>();
         Map<Resource, Instant> lastRefreshMap = new HashMap<>();
         RESOURCES_TO_PROFILE.entrySet().forEach(e -> {
-            statsMap.put(e.getKey(), new StatTracker(e.getValue().apply(utilToProfile)));
-            lastRefreshMap.put(e.getKey(), Instant.now());
+            statsMap.put(e.getKey(), new StatTracker(0.0));
+            lastValueMap.put(e.getKey(), e.getValue().apply(utilToProfile));
         });
 
         //Now to actually profile...
@@ -82,12 +88,13 @@ public class Profiler implements Closeable {
                 Resource resource = e.getKey();
                 StatTracker stat = e.getValue();
                 double currentValue = RESOURCES_TO_PROFILE.get(resource).apply(utilToProfile);
-                if(Double.compare(currentValue, stat.getLatest().getValue()) != 0) {
+                if(Double.compare(currentValue, lastValueMap.put(resource, currentValue)) != 0) {
                     //We have a change or an update!!
                     Instant timeNow = Instant.now();
                     Instant previousRefresh = lastRefreshMap.put(resource, timeNow);
-                    Duration delayForRefresh = Duration.between(previousRefresh, timeNow);
-                    stat.addStat(delayForRefresh.toMillis());
+                    if(previousRefresh != null) {
+                        stat.addStat(Duration.between(previousRefresh, timeNow).toMillis());
+                    }
                 }
             });
             Thread.sleep(1);
@@ -95,11 +102,18 @@ public class Profiler implements Closeable {
 
         log.info(utilToProfile.toCpuString());
         log.info(utilToProfile.toMemoryString());
+        Map<Resource, RefreshEstimate> estimates = new HashMap<>();
         statsMap.entrySet().forEach(e -> {
             Resource resource = e.getKey();
             StatTracker stat = e.getValue();
             log.info("Found {} RefreshRate (ms): {}", resource.name(), stat);
+            if(stat.getCount() > 0) {
+                estimates.put(resource, new RefreshEstimate(Duration.ofMillis((long)stat.getAverage()),
+                                                            Duration.ofMillis((long)stat.getStandardDeviation()),
+                                                            stat.getCount()));
+            }
         });
+        return estimates;
     }
 
     @Override
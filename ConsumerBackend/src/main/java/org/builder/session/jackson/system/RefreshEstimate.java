@@ -0,0 +1,29 @@
+package org.builder.session.jackson.system;
+
+import java.time.Duration;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * How often the readings of a resource refresh, and how much that interval varies.
+ */
+@Value
+public class RefreshEstimate {
+    // Deviations of jitter allowed for when predicting the next sample.
+    private static final double JITTER_MARGIN = 2.0;
+
+    @NonNull
+    private final Duration interval;
+    @NonNull
+    private final Duration jitter;
+    private final long samples;
+
+    /**
+     * The earliest that the next sample is expected after the last one, allowing for jitter.
+     */
+    public Duration getEarliestNext() {
+        long nanos = interval.toNanos() - (long)(JITTER_MARGIN * jitter.toNanos());
+        return Duration.ofNanos(Math.max(0L, nanos));
+    }
+}
@@ -0,0 +1,80 @@
+package org.builder.session.jackson.system;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.build.session.jackson.proto.Resource;
+
+import com.google.common.base.Preconditions;
+
+import lombok.NonNull;
+
+/**
+ * Follows the interval between samples of each resource at runtime using an exponentially
+ * weighted mean and deviation, so that pacing keeps up as the refresh rate changes. It can
+ * be seeded from a profile taken at startup.
+ */
+public class RefreshEstimator {
+
+    private static final double DEFAULT_WEIGHT = 0.2;
+
+    private final double weight;
+    @NonNull
+    private final Map<Resource, Tracked> tracked = new EnumMap<>(Resource.class);
+
+    public RefreshEstimator() {
+        this(DEFAULT_WEIGHT);
+    }
+
+    public RefreshEstimator(final double weight) {
+        Preconditions.checkArgument(weight > 0.0 && weight <= 1.0,
+                                    "Weight must be within (0, 1], but got " + weight);
+        this.weight = weight;
+    }
+
+    public synchronized void seed(@NonNull final Resource resource, @NonNull final RefreshEstimate estimate) {
+        Tracked t = tracked.computeIfAbsent(resource, r -> new Tracked());
+        t.mean = estimate.getInterval().toNanos();
+        t.variance = Math.pow(estimate.getJitter().toNanos(), 2);
+        t.samples = estimate.getSamples();
+    }
+
+    /**
+     * Records the arrival of a sample of the resource at the specified time.
+     */
+    public synchronized void onSample(@NonNull final Resource resource, final long nowInNanos) {
+        Tracked t = tracked.computeIfAbsent(resource, r -> new Tracked());
+        if (t.lastInNanos < 0) {
+            t.lastInNanos = nowInNanos;
+            return;
+        }
+        double interval = nowInNanos - t.lastInNanos;
+        t.lastInNanos = nowInNanos;
+        if (t.samples == 0) {
+            t.mean = interval;
+            t.variance = 0.0;
+        } else {
+            double difference = interval - t.mean;
+            t.mean += weight * difference;
+            t.variance = (1.0 - weight) * (t.variance + weight * difference * difference);
+        }
+        t.samples++;
+    }
+
+    public synchronized Optional<RefreshEstimate> get(@NonNull final Resource resource) {
+        return Optional.ofNullable(tracked.get(resource))
+                       .filter(t -> t.samples > 0)
+                       .map(t -> new RefreshEstimate(Duration.ofNanos((long)t.mean),
+                                                     Duration.ofNanos((long)Math.sqrt(t.variance)),
+                                                     t.samples));
+    }
+
+    private static class Tracked {
+        private long lastInNanos = -1;
+        private double mean = 0.0;
+        private double variance = 0.0;
+        private long samples = 0;
+    }
+}
@@ -0,0 +1,62 @@
+package org.builder.session.jackson.system;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.build.session.jackson.proto.Resource;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tracks the arrival of new samples for each resource so that readers can react to fresh
+ * data instead of polling on a fixed pace. Each resource has a version that increases
+ * every time a new sample is published for it, and listeners are told of each one.
+ */
+@Slf4j
+public class SampleNotifier {
+
+    @NonNull
+    private final Map<Resource, Long> versions = new EnumMap<>(Resource.class);
+    @NonNull
+    private final Map<Resource, List<Runnable>> listeners = new EnumMap<>(Resource.class);
+
+    /**
+     * Records that a new sample has arrived for the resource and tells its listeners.
+     * Listeners are run on the publishing thread, so they should only hand off work.
+     */
+    public void publish (@NonNull final Resource resource) {
+        List<Runnable> toNotify;
+        synchronized (this) {
+            long version = versions.merge(resource, 1L, Long::sum);
+            log.debug("Published sample {} of {}.", version, resource);
+            toNotify = listeners.get(resource);
+        }
+        if (toNotify != null) {
+            for (Runnable listener : toNotify) {
+                try {
+                    listener.run();
+                } catch (Throwable t) {
+                    log.warn("Sample listener of {} failed.", resource, t);
+                }
+            }
+        }
+    }
+
+    public synchronized long getVersion (@NonNull final Resource resource) {
+        return versions.getOrDefault(resource, 0L);
+    }
+
+    public synchronized void addListener (@NonNull final Resource resource, @NonNull final Runnable listener) {
+        listeners.computeIfAbsent(resource, r -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    public synchronized void removeListener (@NonNull final Resource resource, @NonNull final Runnable listener) {
+        List<Runnable> registered = listeners.get(resource);
+        if (registered != null) {
+            registered.remove(listener);
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package org.builder.session.jackson.system;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.build.session.jackson.proto.Resource;
+
 public interface SystemUtil {
 
+    public static final long UNTRACKED_SAMPLE = -1L;
+
     public long getFreeMemory(DigitalUnit unit);
     public long getTotalMemory(DigitalUnit unit);
     public long getUsedMemory(DigitalUnit unit);
@@ -14,10 +22,83 @@ public interface SystemUtil {
     }
     public double getCpuPercentage();
 
+    /**
+     * The number of processors online on the host, which the task's threads may run across.
+     */
+    public default long getOnlineCpus() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * The cumulative CPU time of the task on each logical CPU of the host, in nanoseconds
+     * and by CPU id, if that is reported.
+     */
+    public default Optional<List<Long>> getPerCpuUsage() {
+        return Optional.empty();
+    }
+
+    /**
+     * How much the CPU quota throttled the consumer's container over the latest sample. This is empty
+     * unless it is reported and a quota was enforced over the sample.
+     */
+    public default Optional<CpuThrottling> getCpuThrottling() {
+        return Optional.empty();
+    }
+
+    /**
+     * The page cache charged to the task, as of the latest memory sample, if that is reported.
+     */
+    public default Optional<PageCache> getPageCache() {
+        return Optional.empty();
+    }
+
     public long getNetworkUsage(DigitalUnit unit);
 
     public long getStorageUsage(DigitalUnit unit);
 
+    /**
+     * The version of the latest sample of the resource, which changes each time a new
+     * sample arrives. Implementations that cannot tell when samples arrive return
+     * UNTRACKED_SAMPLE, and every read should be treated as fresh.
+     */
+    public default long getSampleVersion(Resource resource) {
+        return UNTRACKED_SAMPLE;
+    }
+
+    /**
+     * Publishes a new sample of a resource that is measured outside of this, such as within
+     * the JVM by its consumer, so that readers of its version and listeners see it arrive.
+     * Implementations that don't track samples ignore it.
+     */
+    public default void publishSample(Resource resource) {
+    }
+
+    /**
+     * Registers a listener that is run each time a new sample of the resource arrives.
+     * Listeners run on the thread that saw the sample and should only hand off work.
+     */
+    public default void addSampleListener(Resource resource, Runnable listener) {
+    }
+
+    /**
+     * Removes a listener added by addSampleListener, such as when its consumer closes.
+     */
+    public default void removeSampleListener(Resource resource, Runnable listener) {
+    }
+
+    /**
+     * Estimates how often the readings of the resource refresh, if that is being measured.
+     */
+    public default Optional<RefreshEstimate> getRefreshEstimate(Resource resource) {
+        return Optional.empty();
+    }
+
+    /**
+     * Seeds the refresh estimates with ones measured by a Profiler at startup.
+     */
+    public default void applyProfile(Map<Resource, RefreshEstimate> profile) {
+    }
+
     public default String toMemoryString() {
         long usedMemory = this.getUsedMemory(DigitalUnit.MEGABYTES);
         long totalMemory = this.getTotalMemory(DigitalUnit.MEGABYTES);
@@ -1,27 +1,42 @@
 package org.builder.session.jackson.system;
 
 import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import org.build.session.jackson.proto.Resource;
 import org.builder.session.jackson.client.SimpleClient;
 import org.builder.session.jackson.client.ecs.TaskMetadataClient;
+import org.builder.session.jackson.client.messages.ContainerStats;
 import org.builder.session.jackson.client.messages.TaskMetadata;
 import org.builder.session.jackson.client.messages.TaskStats;
 import org.builder.session.jackson.exception.ConsumerDependencyException;
 import org.builder.session.jackson.exception.ConsumerInternalException;
+import org.builder.session.jackson.utils.BackgroundPoller;
 import org.builder.session.jackson.utils.RateTracker;
+import org.builder.session.jackson.workflow.ControlScheduler;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
+import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Uses the Task Metadata endpoint to pollStats usage statistics.
  *
+ * The endpoint is called over HTTP, so it is only ever called from background pollers.
+ * Every reading is taken from the latest stats and metadata they fetched, and never blocks,
+ * so it is safe to read from the steps of the ControlScheduler.
+ *
  * Link: https://docs.aws.amazon.com/AmazonECS/latest/developerguide/task-metadata-endpoint-v3.html
  */
 @Slf4j
@@ -32,22 +47,41 @@ public class TaskSystemUtil implements SystemUtil {
     private static final Duration CACHE_TIME = Duration.ofMillis(100);
     private static final Duration WAIT_TIME = Duration.ofSeconds(30);
     private static final Duration RATE_POLLING_PERIOD = Duration.ofSeconds(20);
-    public static final String OPERATION_FOR_STORAGE = "Write";
+    // Limits only change when the task is redeployed, so metadata is fetched rarely.
+    private static final Duration METADATA_POLLING_PERIOD = Duration.ofSeconds(10);
+    private static final Duration MIN_CACHE_TIME = Duration.ofMillis(10);
+    private static final Duration MAX_CACHE_TIME = Duration.ofSeconds(1);
+    // Caching stats for this fraction of the refresh interval bounds how late a new sample is seen.
+    private static final int CACHE_TIME_DIVISOR = 4;
+    public static final String OPERATION_FOR_STORAGE = "Total";
+    // The name of the container the consumers run in, as listed in the task metadata.
+    private static final String CONSUMER_CONTAINER_NAME = System.getenv("CONSUMER_CONTAINER_NAME");
 
     private final SimpleClient<TaskMetadata> metadataClient;
-    private final SimpleClient<TaskStats> statsClient;
+    private final TaskMetadataClient<TaskStats> statsClient;
+    private final BackgroundPoller<TaskMetadata> metadataPoller;
+    private final BackgroundPoller<TaskStats> statsPoller;
     private final RateTracker networkRateTracker;
     private final RateTracker storageRateTracker;
+    private final SampleNotifier sampleNotifier = new SampleNotifier();
+    private final RefreshEstimator refreshEstimator = new RefreshEstimator();
+    private volatile ZonedDateTime latestSampleRead = null;
 
-    public TaskSystemUtil () {
+    public TaskSystemUtil (@NonNull final ControlScheduler scheduler) {
         try {
             metadataClient = TaskMetadataClient.createTaskMetadataClient(CACHE_TIME);
             statsClient = TaskMetadataClient.createTaskStatsClient(CACHE_TIME);
 
-            //Perform some simple validation for our system to confirm that it is properly setup.
+            //Fetch in the background, watching for new samples of CPU and Memory, which the endpoint
+            //refreshes together. The first fetch of each also confirms the endpoint is properly setup.
             //TODO: Improve how this sleep time is setup to only do it on initialization...
-            TaskStats initialStats = pollStats();
-            TaskMetadata initialMetadata = pollMetadata();
+            metadataPoller = new BackgroundPoller<>("TaskMetadata",
+                                                    this::fetchMetadata,
+                                                    () -> METADATA_POLLING_PERIOD);
+            statsPoller = new BackgroundPoller<>("TaskStats",
+                                                 this::fetchStats,
+                                                 statsClient::getCacheTime,
+                                                 this::checkForNewSample);
             Thread.sleep(WAIT_TIME.toMillis());
             long reservedContainerCpu = getTotalCpu(DigitalUnit.VCPU);
             long reservedContainerMemory = getTotalMemory(DigitalUnit.BYTES);
@@ -69,8 +103,10 @@ public class TaskSystemUtil implements SystemUtil {
                                                                                      .map(o -> o.getTransmittedBytes())
                                                                                      .orElse(0L))
                                                            .sum(),
-                                                 RATE_POLLING_PERIOD);
-            storageRateTracker = new RateTracker("StorageWriteTracker",
+                                                 RATE_POLLING_PERIOD,
+                                                 scheduler,
+                                                 () -> onSample(Resource.NETWORK));
+            storageRateTracker = new RateTracker("StorageTracker",
                                                  () -> this.pollStats()
                                                            .getContainers()
                                                            .values()
@@ -80,17 +116,101 @@ public class TaskSystemUtil implements SystemUtil {
                                                                                  .map(o -> o.getVolumes())
                                                                                  .orElseGet(() -> Lists.newArrayList())
                                                                                  .stream())
-                                                           // We just track written bytes since roughly Read == Write at the moment.
+                                                           // Reads and writes both count, since the disk consumer may mix them.
                                                            .filter(v -> OPERATION_FOR_STORAGE.equals(v.getOperation()))
                                                            .mapToDouble(v -> Optional.ofNullable(v.getValue())
                                                                                      .orElse(0L))
                                                            .sum(),
-                                                 RATE_POLLING_PERIOD);
+                                                 RATE_POLLING_PERIOD,
+                                                 scheduler,
+                                                 () -> onSample(Resource.DISK));
         } catch (Throwable t) {
             throw new ConsumerInternalException("Failed while starting up TaskSystemUtil.", t);
         }
     }
 
+    private void onSample (Resource resource) {
+        refreshEstimator.onSample(resource, System.nanoTime());
+        sampleNotifier.publish(resource);
+    }
+
+    /**
+     * Publishes a new CPU and Memory sample whenever the read time of fetched stats changes.
+     */
+    private void checkForNewSample (final TaskStats stats) {
+        try {
+            Optional<ZonedDateTime> read = stats.getContainers()
+                                               .values()
+                                               .stream()
+                                               .filter(Objects::nonNull)
+                                               .map(ContainerStats::getRead)
+                                               .filter(Objects::nonNull)
+                                               .max(Comparator.naturalOrder());
+            if (read.isPresent() && !read.get().equals(latestSampleRead)) {
+                latestSampleRead = read.get();
+                onSample(Resource.CPU);
+                onSample(Resource.MEMORY);
+                retuneCacheTime();
+            }
+        } catch (Throwable t) {
+            log.warn("Failed to check for a new sample of task stats.", t);
+        }
+    }
+
+    /**
+     * Fetches stats every fraction of the time until the next sample is expected, so that
+     * new samples are seen promptly without polling the endpoint more than needed.
+     */
+    private void retuneCacheTime () {
+        refreshEstimator.get(Resource.CPU).ifPresent(estimate -> {
+            long nanos = estimate.getEarliestNext().toNanos() / CACHE_TIME_DIVISOR;
+            Duration cacheTime = Duration.ofMillis(Math.max(MIN_CACHE_TIME.toMillis(),
+                                                            Math.min(MAX_CACHE_TIME.toMillis(),
+                                                                     TimeUnit.NANOSECONDS.toMillis(nanos))));
+            if (!cacheTime.equals(statsClient.getCacheTime())) {
+                log.debug("Retuning task stats cache time from {} to {} for refresh {}.",
+                          new Object[] { statsClient.getCacheTime(), cacheTime, estimate });
+                statsClient.setCacheTime(cacheTime);
+            }
+        });
+    }
+
+    @Override
+    public Optional<RefreshEstimate> getRefreshEstimate (Resource resource) {
+        return refreshEstimator.get(resource);
+    }
+
+    @Override
+    public void applyProfile (Map<Resource, RefreshEstimate> profile) {
+        profile.forEach(refreshEstimator::seed);
+        retuneCacheTime();
+        log.info("Applied refresh profile {}, caching task stats for {}.", profile, statsClient.getCacheTime());
+    }
+
+    @Override
+    public long getSampleVersion (Resource resource) {
+        return sampleNotifier.getVersion(resource);
+    }
+
+    /**
+     * Allocation is measured within the JVM by its consumer rather than sampled from the
+     * task, so its consumer publishes each sample it takes.
+     */
+    @Override
+    public void publishSample (Resource resource) {
+        onSample(resource);
+    }
+
+    @Override
+    public void addSampleListener (Resource resource, Runnable listener) {
+        sampleNotifier.addListener(resource, listener);
+    }
+
+    @Override
+    public void removeSampleListener (Resource resource, Runnable listener) {
+        sampleNotifier.removeListener(resource, listener);
+    }
+
     protected long getTaskLimit(String limitKey) {
         //NOTE: We don't use Task limits because of the complication it can add.
         //      For example, the CPU is listed in processors instead of VCPUs at
@@ -109,9 +229,23 @@ public class TaskSystemUtil implements SystemUtil {
     }
 
     /**
-     * Polls the latest ContainerStats from the Metadata endpoint and logs the result.
+     * The latest TaskStats fetched in the background.
      */
     protected TaskStats pollStats () {
+        return statsPoller.get();
+    }
+
+    /**
+     * The latest TaskMetadata fetched in the background.
+     */
+    protected TaskMetadata pollMetadata () {
+        return metadataPoller.get();
+    }
+
+    /**
+     * Calls the Metadata endpoint for the latest TaskStats and logs the result.
+     */
+    private TaskStats fetchStats () {
         TaskStats stats = Optional.ofNullable(statsClient.call())
                                   .orElseThrow(() -> new ConsumerDependencyException("Couldn't gather stats from endpoint."));
         log.debug("Pulled task stats: " + stats);
@@ -119,9 +253,9 @@ public class TaskSystemUtil implements SystemUtil {
     }
 
     /**
-     * Polls the latest ContainerStats from the Metadata endpoint and logs the result.
+     * Calls the Metadata endpoint for the latest TaskMetadata and logs the result.
      */
-    protected TaskMetadata pollMetadata () {
+    private TaskMetadata fetchMetadata () {
         TaskMetadata stats = Optional.ofNullable(metadataClient.call())
                                      .orElseThrow(() -> new ConsumerDependencyException("Couldn't gather metadata from endpoint."));
         log.debug("Pulled task metadata: " + stats);
@@ -177,25 +311,28 @@ public class TaskSystemUtil implements SystemUtil {
         }
     }
 
-    public double getCpuPercentageAllocatedToThisTask() {
+    @Override
+    public long getOnlineCpus() {
         TaskStats pollStats = this.pollStats();
-        long processors = pollStats
-                              .getContainers()
-                              .values()
-                              .stream()
-                              .map(c -> Optional.ofNullable(c)
-                                                .map(o -> o.getCpuStats())
-                                                .map(o -> o.getOnlineCpus()))
-                              .filter(c -> c.isPresent())
-                              .map(c -> c.get())
-                              .findFirst()
-                              .orElseGet(() -> { //Default to 1, but log the issue
-                                  log.warn("Defaulting online CPUs to 1 due to poll stats: {}",
-                                           pollStats);
-                                  return 1L;
-                              });
+        return pollStats.getContainers()
+                        .values()
+                        .stream()
+                        .map(c -> Optional.ofNullable(c)
+                                          .map(o -> o.getCpuStats())
+                                          .map(o -> o.getOnlineCpus()))
+                        .filter(c -> c.isPresent())
+                        .map(c -> c.get())
+                        .findFirst()
+                        .orElseGet(() -> { //Default to 1, but log the issue
+                            log.warn("Defaulting online CPUs to 1 due to poll stats: {}",
+                                     pollStats);
+                            return 1L;
+                        });
+    }
+
+    public double getCpuPercentageAllocatedToThisTask() {
         return (double)getTotalCpu(DigitalUnit.VCPU)
-                / (double)(processors * getUnitsPerProcessor());
+                / (double)(getOnlineCpus() * getUnitsPerProcessor());
     }
 
     public double getCpuPercentage() {
@@ -204,6 +341,97 @@ public class TaskSystemUtil implements SystemUtil {
                 / getCpuPercentageAllocatedToThisTask();
     }
 
+    /**
+     * Sums the usage of every container on each logical CPU.
+     */
+    @Override
+    public Optional<List<Long>> getPerCpuUsage() {
+        TaskStats stats = this.pollStats();
+        List<Long> total = null;
+        for(ContainerStats container : stats.getContainers().values()) {
+            Optional<List<Long>> usage = Optional.ofNullable(container)
+                    .map(ContainerStats::getCpuStats)
+                    .map(ContainerStats.CpuStats::getCpuUsage)
+                    .map(ContainerStats.CpuStats.CpuUsageStats::getPerCpuUsage);
+            if(!usage.isPresent()) {
+                return Optional.empty();
+            }
+            if(total == null) {
+                total = Lists.newArrayList(Collections.nCopies(usage.get().size(), 0L));
+            }
+            for(int i = 0; i < Math.min(total.size(), usage.get().size()); i++) {
+                total.set(i, total.get(i) + Optional.ofNullable(usage.get().get(i)).orElse(0L));
+            }
+        }
+        return Optional.ofNullable(total);
+    }
+
+    /**
+     * The throttling of the consumer's own container between its current and previous CPU stats.
+     * Other containers of the task have their own quotas, so they are left out. This is empty when
+     * no enforcement periods elapsed, as happens when the container has no CPU quota.
+     */
+    @Override
+    public Optional<CpuThrottling> getCpuThrottling() {
+        if(CONSUMER_CONTAINER_NAME == null) {
+            return Optional.empty();
+        }
+        Optional<ContainerStats> container = this.pollMetadata()
+                                                 .getContainers()
+                                                 .stream()
+                                                 .filter(c -> CONSUMER_CONTAINER_NAME.equals(c.getName()))
+                                                 .map(c -> c.getDockerId())
+                                                 .filter(Objects::nonNull)
+                                                 .findFirst()
+                                                 .map(id -> this.pollStats().getContainers().get(id));
+        if(!container.isPresent() || container.get().getRead() == null || container.get().getPreRead() == null) {
+            return Optional.empty();
+        }
+        Optional<ContainerStats.CpuStats.ThrottlingDataStats> current = container.map(ContainerStats::getCpuStats)
+                                                                                 .map(ContainerStats.CpuStats::getThrottlingData);
+        Optional<ContainerStats.CpuStats.ThrottlingDataStats> previous = container.map(ContainerStats::getPreviousCpuStats)
+                                                                                  .map(ContainerStats.CpuStats::getThrottlingData);
+        if(!current.isPresent() || !previous.isPresent()) {
+            return Optional.empty();
+        }
+        long periods = delta(current.get().getPeriods(), previous.get().getPeriods());
+        if(periods <= 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new CpuThrottling(periods,
+                                             delta(current.get().getThrottledPeriods(), previous.get().getThrottledPeriods()),
+                                             Duration.ofNanos(delta(current.get().getThrottledTime(), previous.get().getThrottledTime())),
+                                             Duration.between(container.get().getPreRead(), container.get().getRead())));
+    }
+
+    /**
+     * Sums the page cache of the task's containers. Stats without dirty or writeback
+     * counts report them as none.
+     */
+    @Override
+    public Optional<PageCache> getPageCache() {
+        TaskStats stats = this.pollStats();
+        long cache = 0;
+        long dirty = 0;
+        long writeback = 0;
+        for(ContainerStats container : stats.getContainers().values()) {
+            Optional<ContainerStats.MemoryStats.Stats> memory = Optional.ofNullable(container)
+                    .map(ContainerStats::getMemoryStats)
+                    .map(ContainerStats.MemoryStats::getStats);
+            if(!memory.isPresent() || memory.get().getCache() == null) {
+                return Optional.empty();
+            }
+            cache += memory.get().getCache();
+            dirty += Optional.ofNullable(memory.get().getDirty()).orElse(0L);
+            writeback += Optional.ofNullable(memory.get().getWriteback()).orElse(0L);
+        }
+        return Optional.of(new PageCache(cache, dirty, writeback));
+    }
+
+    private static long delta(Long current, Long previous) {
+        return Math.max(0L, Optional.ofNullable(current).orElse(0L) - Optional.ofNullable(previous).orElse(0L));
+    }
+
     @Override
     public long getTotalCpu(DigitalUnit unit) {
         return unit.from(this.getTaskLimit(CPU_LIMIT_KEY), DigitalUnit.VCPU);
@@ -219,7 +447,7 @@ public class TaskSystemUtil implements SystemUtil {
     @Override
     public long getStorageUsage (DigitalUnit unit) {
         Preconditions.checkArgument(unit.isRate(), "Expected a rate based metric.");
-        return unit.from(networkRateTracker.getLatestRate(unit.getTimeUnit())
+        return unit.from(storageRateTracker.getLatestRate(unit.getTimeUnit())
                                            .map(d -> (long)Math.round(d))
                                            .orElse(0L),
                          DigitalUnit.BYTES_PER_SECOND);
@@ -228,7 +456,7 @@ public class TaskSystemUtil implements SystemUtil {
     @Override
     public long getNetworkUsage (DigitalUnit unit) {
         Preconditions.checkArgument(unit.isRate(), "Expected a rate based metric.");
-        return unit.from(storageRateTracker.getLatestRate(unit.getTimeUnit())
+        return unit.from(networkRateTracker.getLatestRate(unit.getTimeUnit())
                                            .map(d -> (long)Math.round(d))
                                            .orElse(0L),
                          DigitalUnit.BYTES_PER_SECOND);
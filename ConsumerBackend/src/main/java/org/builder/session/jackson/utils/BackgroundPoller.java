@@ -0,0 +1,99 @@
+package org.builder.session.jackson.utils;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fetches a value on its own daemon thread and keeps the latest one, so that readers,
+ * like the steps on the ControlScheduler, never wait on a slow or blocking source such
+ * as an HTTP endpoint. The first value is fetched when the poller is created, so a
+ * poller always has a value to read.
+ */
+@Slf4j
+public class BackgroundPoller<T> implements AutoCloseable {
+
+    @Getter
+    @NonNull
+    private final String name;
+    @NonNull
+    private final Supplier<T> fetch;
+    @NonNull
+    private final Supplier<Duration> period;
+    @NonNull
+    private final Consumer<T> onFetch;
+    @NonNull
+    private final ScheduledExecutorService executor;
+    @NonNull
+    private volatile T latest;
+
+    public BackgroundPoller (@NonNull final String name,
+                             @NonNull final Supplier<T> fetch,
+                             @NonNull final Supplier<Duration> period) {
+        this(name, fetch, period, value -> {});
+    }
+
+    /**
+     * @param period read before each wait, so the pace can follow how often the source refreshes.
+     * @param onFetch run on the poller's thread after each value is fetched.
+     */
+    public BackgroundPoller (@NonNull final String name,
+                             @NonNull final Supplier<T> fetch,
+                             @NonNull final Supplier<Duration> period,
+                             @NonNull final Consumer<T> onFetch) {
+        this.name = name;
+        this.fetch = fetch;
+        this.period = period;
+        this.onFetch = onFetch;
+        this.latest = Preconditions.checkNotNull(fetch.get(), "Expected an initial value for " + name + ".");
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat(name + "-poller")
+                                                                                             .setDaemon(true)
+                                                                                             .build());
+        scheduleNext();
+    }
+
+    private void scheduleNext () {
+        if (!executor.isShutdown()) {
+            executor.schedule(this::poll, period.get().toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void poll () {
+        try {
+            T value = fetch.get();
+            if (value != null) {
+                latest = value;
+                onFetch.accept(value);
+            }
+        } catch (Throwable t) {
+            log.warn("Failed to poll {}, keeping the last value.", name, t);
+        } finally {
+            scheduleNext();
+        }
+    }
+
+    /**
+     * The latest value fetched, without waiting on the source.
+     */
+    public T get () {
+        return latest;
+    }
+
+    /**
+     * Stops polling.
+     */
+    @Override
+    public void close () {
+        executor.shutdownNow();
+    }
+}
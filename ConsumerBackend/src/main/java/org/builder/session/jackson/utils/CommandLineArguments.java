@@ -1,7 +1,11 @@
 package org.builder.session.jackson.utils;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import com.google.common.base.Preconditions;
 
@@ -30,4 +34,17 @@ public class CommandLineArguments {
         }
     }
 
+    /**
+     * Splits a list argument like "[a, b, c]" into its trimmed entries. An empty list, "[]", has none.
+     */
+    public static List<String> parseList(@NonNull String s) {
+        s = s.trim();
+        Preconditions.checkArgument(s.startsWith("["), "List should start with \"[\"");
+        Preconditions.checkArgument(s.endsWith("]"), "List should end with \"]\"");
+        s = s.substring(1, s.length() - 1).trim();
+        if (s.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(s.split(",")).map(String::trim).collect(Collectors.toList());
+    }
 }
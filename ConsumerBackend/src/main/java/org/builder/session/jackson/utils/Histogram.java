@@ -0,0 +1,74 @@
+package org.builder.session.jackson.utils;
+
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Counts values into buckets by fixed upper bounds, with a final bucket for everything above
+ * the last bound. Bounds are chosen per metric so that values of interest land in distinct buckets.
+ */
+public class Histogram {
+
+    @Getter
+    private final double[] upperBounds;
+    private final long[] counts;
+    private final StatTracker stats = new StatTracker(0.0);
+
+    public Histogram(@NonNull final double... upperBounds) {
+        Preconditions.checkArgument(upperBounds.length > 0, "Expected at least one bucket bound.");
+        for (int i = 1; i < upperBounds.length; i++) {
+            Preconditions.checkArgument(upperBounds[i - 1] < upperBounds[i],
+                                        "Expected ascending bucket bounds, but got " + Arrays.toString(upperBounds));
+        }
+        this.upperBounds = upperBounds.clone();
+        this.counts = new long[upperBounds.length + 1];
+    }
+
+    public synchronized void add(double value) {
+        int bucket = 0;
+        while (bucket < upperBounds.length && value > upperBounds[bucket]) {
+            bucket++;
+        }
+        counts[bucket]++;
+        stats.addStat(value);
+    }
+
+    /**
+     * The counts of each bucket. The last is the overflow bucket above every bound.
+     */
+    public synchronized long[] getCounts() {
+        return counts.clone();
+    }
+
+    public synchronized long getCount() {
+        return stats.getCount();
+    }
+
+    public synchronized double getAverage() {
+        return stats.getAverage();
+    }
+
+    public synchronized double getMin() {
+        return stats.getMin().orElse(0.0);
+    }
+
+    public synchronized double getMax() {
+        return stats.getMax().orElse(0.0);
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(counts, 0L);
+        stats.reset(0.0);
+    }
+
+    public synchronized String toString() {
+        return "{ Bounds" + Arrays.toString(upperBounds) +
+                ", Counts" + Arrays.toString(counts) +
+                ", Stats" + stats +
+                " }";
+    }
+}
@@ -2,11 +2,11 @@ package org.builder.session.jackson.utils;
 
 import java.time.Duration;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
+import org.builder.session.jackson.workflow.ControlScheduler;
+
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -22,34 +22,45 @@ public class RateTracker {
     @NonNull
     private final Duration pollingPeriod;
     @NonNull
-    private final ExecutorService executorService;
+    private final Runnable onSample;
+    @NonNull
+    private final ControlScheduler.Task poller;
     @NonNull
     private StatTracker stats;
 
     public RateTracker (@NonNull final String name,
                         @NonNull final Supplier<Double> functionToReadTotal,
-                        @NonNull final Duration pollingPeriod) {
+                        @NonNull final Duration pollingPeriod,
+                        @NonNull final ControlScheduler scheduler) {
+        this(name, functionToReadTotal, pollingPeriod, scheduler, () -> {});
+    }
+
+    /**
+     * @param onSample run after each new value is added, so that readers can react to a fresh rate.
+     */
+    public RateTracker (@NonNull final String name,
+                        @NonNull final Supplier<Double> functionToReadTotal,
+                        @NonNull final Duration pollingPeriod,
+                        @NonNull final ControlScheduler scheduler,
+                        @NonNull final Runnable onSample) {
         this.name = name;
         this.functionToReadTotal = functionToReadTotal;
         this.pollingPeriod = pollingPeriod;
-        this.executorService = Executors.newSingleThreadScheduledExecutor();
+        this.onSample = onSample;
         this.stats = new StatTracker(this.functionToReadTotal.get());
-        this.executorService.submit(() -> {
-            while (true) {
-                try {
-                    Thread.sleep(pollingPeriod.toMillis());
-
-                    //This ensures that the pacing is accurate.
-                    double value = functionToReadTotal.get();
-                    synchronized (stats) {
-                        stats.addStat(value);
-                    }
-                    log.debug("Rate tracker {} polled {} and added to stats {}",
-                              new Object[] { this.name, value, stats });
-                } catch (Throwable t) {
-                    log.error("Caught error in background polling thread for RateTracker.", t);
+        this.poller = scheduler.schedule(name, pollingPeriod, () -> {
+            try {
+                double value = functionToReadTotal.get();
+                synchronized (stats) {
+                    stats.addStat(value);
                 }
+                onSample.run();
+                log.debug("Rate tracker {} polled {} and added to stats {}",
+                          new Object[] { this.name, value, stats });
+            } catch (Throwable t) {
+                log.error("Caught error in background polling for RateTracker.", t);
             }
+            return pollingPeriod;
         });
     }
 
@@ -64,4 +75,11 @@ public class RateTracker {
             return latestRate;
         }
     }
+
+    /**
+     * Stops polling.
+     */
+    public void close() {
+        poller.cancel();
+    }
 }
@@ -13,6 +13,7 @@ import lombok.NonNull;
 public class StatTracker {
 
     private double total;
+    private double totalOfSquares;
     private Optional<Double> max;
     private Optional<Double> min;
     private long count;
@@ -27,6 +28,17 @@ public class StatTracker {
         return count == 0 ? 0.0 : (total / (double) count);
     }
 
+    /**
+     * The population standard deviation of the stats added so far.
+     */
+    public double getStandardDeviation() {
+        if (count == 0) {
+            return 0.0;
+        }
+        double average = getAverage();
+        return Math.sqrt(Math.max(0.0, totalOfSquares / (double) count - average * average));
+    }
+
     public Optional<Double> getLatestChange() {
         return previous.map(prev -> latest.getValue() - prev.getValue());
     }
@@ -48,6 +60,7 @@ public class StatTracker {
 
     public void addStat(double value) {
         total += value;
+        totalOfSquares += value * value;
         max = !max.isPresent() || max.get() < value ? Optional.of(value) : max;
         min = !min.isPresent() || min.get() > value ? Optional.of(value) : min;
         count++;
@@ -58,6 +71,7 @@ public class StatTracker {
 
     public void reset(double initialValue) {
         total = 0.0;
+        totalOfSquares = 0.0;
         max = Optional.empty();
         min = Optional.empty();
         count = 0;
@@ -68,6 +82,7 @@ public class StatTracker {
 
     public String toString() {
         return "{ Avg[" + getAverage() +
+                "], StdDev[" + getStandardDeviation() +
                 "], Min[" + getMin().orElse(null) +
                 "], Max[" + getMax().orElse(null) +
                 "], Count[" + getCount() +
@@ -0,0 +1,268 @@
+package org.builder.session.jackson.workflow;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs every periodic task of this service, like control steps and tracker polls, on a
+ * small fixed set of threads. Nothing that runs here should block, as one blocked step
+ * delays every other. Sources that block, like the HTTP metadata endpoint, are fetched by
+ * a BackgroundPoller on its own thread and only read here from the sample it keeps. Each
+ * step returns the delay until it should run again and can be woken early, such as when
+ * a new sample arrives.
+ *
+ * Deadlines are jittered slightly so that tasks on the same pace don't all wake together,
+ * and each task keeps count of how late its runs start so that an overloaded scheduler
+ * shows up as overruns instead of silently stretching every loop. These statistics are
+ * logged periodically, with a warning whenever overruns were seen since the last report.
+ */
+@Slf4j
+public class ControlScheduler implements AutoCloseable {
+
+    public static final int DEFAULT_THREADS = 2;
+    public static final Duration DEFAULT_MAX_JITTER = Duration.ofMillis(5);
+    // Jitter never exceeds this fraction of a delay, so short delays stay short.
+    private static final double MAX_JITTER_FRACTION = 0.05;
+    // A run is an overrun if it starts later than this fraction of its delay, with a floor.
+    private static final double OVERRUN_FRACTION = 0.1;
+    private static final Duration MIN_OVERRUN = Duration.ofMillis(5);
+    private static final Duration ERROR_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration REPORT_PERIOD = Duration.ofMinutes(1);
+
+    /**
+     * A single run of a periodic task.
+     */
+    @FunctionalInterface
+    public interface Step {
+        /**
+         * @return the delay until the step should run again.
+         */
+        public Duration run() throws Exception;
+    }
+
+    @NonNull
+    private final ScheduledThreadPoolExecutor executor;
+    @NonNull
+    private final Duration maxJitter;
+    @NonNull
+    private final ConcurrentHashMap<Task, Boolean> tasks = new ConcurrentHashMap<>();
+    // Only read and written by the report step, which never runs concurrently with itself.
+    private long reportedOverruns = 0;
+
+    public ControlScheduler() {
+        this(DEFAULT_THREADS, DEFAULT_MAX_JITTER);
+    }
+
+    public ControlScheduler(final int threads, @NonNull final Duration maxJitter) {
+        Preconditions.checkArgument(threads > 0, "Expected a positive thread count, but got " + threads);
+        Preconditions.checkArgument(!maxJitter.isNegative(), "Expected a non-negative jitter, but got " + maxJitter);
+        this.executor = new ScheduledThreadPoolExecutor(threads,
+                                                        new ThreadFactoryBuilder().setNameFormat("control-scheduler-%d")
+                                                                                  .setDaemon(true)
+                                                                                  .build());
+        this.executor.setRemoveOnCancelPolicy(true);
+        this.maxJitter = maxJitter;
+        this.schedule("ControlSchedulerReport", REPORT_PERIOD, this::report);
+    }
+
+    public Task schedule(@NonNull final String name, @NonNull final Step step) {
+        return schedule(name, Duration.ZERO, step);
+    }
+
+    /**
+     * Runs the step after the initial delay and then again after each delay it returns, until cancelled.
+     */
+    public Task schedule(@NonNull final String name, @NonNull final Duration initialDelay, @NonNull final Step step) {
+        Preconditions.checkState(!executor.isShutdown(), "Cannot schedule " + name + " on a closed scheduler.");
+        Task task = new Task(name, step);
+        tasks.put(task, Boolean.TRUE);
+        task.scheduleAfter(initialDelay, true);
+        return task;
+    }
+
+    public List<Statistics> getStatistics() {
+        return tasks.keySet().stream().map(Task::getStatistics).collect(Collectors.toList());
+    }
+
+    /**
+     * Logs the statistics of every task, warning if any started late since the last report.
+     */
+    private Duration report() {
+        List<Statistics> statistics = getStatistics();
+        long overruns = statistics.stream().mapToLong(Statistics::getOverruns).sum();
+        if (overruns > reportedOverruns) {
+            log.warn("Scheduled tasks overran {} times since the last report: {}",
+                     overruns - reportedOverruns, statistics);
+        } else {
+            log.info("Scheduled task statistics: {}", statistics);
+        }
+        reportedOverruns = overruns;
+        return REPORT_PERIOD;
+    }
+
+    @Override
+    public void close() {
+        tasks.keySet().forEach(Task::cancel);
+        executor.shutdownNow();
+    }
+
+    private long jitter(final long delayInNanos) {
+        long bound = Math.min(maxJitter.toNanos(), (long)(delayInNanos * MAX_JITTER_FRACTION));
+        return bound > 0 ? ThreadLocalRandom.current().nextLong(bound) : 0L;
+    }
+
+    /**
+     * A handle on a scheduled step.
+     */
+    public final class Task {
+        @Getter
+        @NonNull
+        private final String name;
+        @NonNull
+        private final Step step;
+        private ScheduledFuture<?> pending = null;
+        private long deadlineInNanos;
+        private long delayInNanos;
+        private boolean running = false;
+        private boolean wakeRequested = false;
+        private boolean cancelled = false;
+        // Accounting, guarded by this.
+        private long runs = 0;
+        private long overruns = 0;
+        private long totalLatenessInNanos = 0;
+        private long maxLatenessInNanos = 0;
+        private long totalRunTimeInNanos = 0;
+        private long maxRunTimeInNanos = 0;
+
+        private Task(@NonNull final String name, @NonNull final Step step) {
+            this.name = name;
+            this.step = step;
+        }
+
+        private synchronized void scheduleAfter(final Duration delay, final boolean withJitter) {
+            delayInNanos = Math.max(0L, delay.toNanos());
+            long scheduledDelay = delayInNanos + (withJitter ? jitter(delayInNanos) : 0L);
+            deadlineInNanos = System.nanoTime() + scheduledDelay;
+            pending = executor.schedule(this::execute, scheduledDelay, TimeUnit.NANOSECONDS);
+        }
+
+        private void execute() {
+            long start = System.nanoTime();
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                running = true;
+                wakeRequested = false;
+                pending = null;
+                account(start - deadlineInNanos);
+            }
+
+            Duration delay;
+            try {
+                delay = step.run();
+            } catch (Throwable t) {
+                log.error("Caught an exception while running scheduled task {}. Retrying after {}.",
+                          new Object[] { name, ERROR_BACKOFF, t });
+                delay = ERROR_BACKOFF;
+            }
+
+            long runTime = System.nanoTime() - start;
+            synchronized (this) {
+                running = false;
+                totalRunTimeInNanos += runTime;
+                maxRunTimeInNanos = Math.max(maxRunTimeInNanos, runTime);
+                if (cancelled) {
+                    return;
+                }
+                if (wakeRequested) {
+                    scheduleAfter(Duration.ZERO, false);
+                } else {
+                    scheduleAfter(delay, true);
+                }
+            }
+        }
+
+        private void account(final long latenessInNanos) {
+            runs++;
+            totalLatenessInNanos += Math.max(0L, latenessInNanos);
+            maxLatenessInNanos = Math.max(maxLatenessInNanos, latenessInNanos);
+            long tolerance = Math.max(MIN_OVERRUN.toNanos(), (long)(delayInNanos * OVERRUN_FRACTION));
+            if (latenessInNanos > tolerance) {
+                overruns++;
+                log.debug("Task {} started {}ms late for a {}ms delay.",
+                          new Object[] { name,
+                                         TimeUnit.NANOSECONDS.toMillis(latenessInNanos),
+                                         TimeUnit.NANOSECONDS.toMillis(delayInNanos) });
+            }
+        }
+
+        /**
+         * Runs the step as soon as possible instead of waiting out its delay. A wake
+         * during a run makes the step run again right after it.
+         */
+        public synchronized void wake() {
+            if (cancelled) {
+                return;
+            }
+            if (running) {
+                wakeRequested = true;
+            } else if (pending != null && pending.cancel(false)) {
+                scheduleAfter(Duration.ZERO, false);
+            }
+        }
+
+        public synchronized void cancel() {
+            cancelled = true;
+            if (pending != null) {
+                pending.cancel(false);
+                pending = null;
+            }
+            tasks.remove(this);
+        }
+
+        public synchronized Statistics getStatistics() {
+            return Statistics.builder()
+                             .name(name)
+                             .runs(runs)
+                             .overruns(overruns)
+                             .averageLateness(Duration.ofNanos(runs == 0 ? 0L : totalLatenessInNanos / runs))
+                             .maxLateness(Duration.ofNanos(maxLatenessInNanos))
+                             .averageRunTime(Duration.ofNanos(runs == 0 ? 0L : totalRunTimeInNanos / runs))
+                             .maxRunTime(Duration.ofNanos(maxRunTimeInNanos))
+                             .build();
+        }
+    }
+
+    @Value
+    @Builder
+    public static class Statistics {
+        @NonNull
+        private final String name;
+        private final long runs;
+        private final long overruns;
+        @NonNull
+        private final Duration averageLateness;
+        @NonNull
+        private final Duration maxLateness;
+        @NonNull
+        private final Duration averageRunTime;
+        @NonNull
+        private final Duration maxRunTime;
+    }
+}
@@ -1,11 +1,7 @@
 package org.builder.session.jackson.workflow;
 
 import java.util.Optional;
-import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.builder.session.jackson.workflow.utilize.Consumer;
@@ -16,15 +12,16 @@ import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
 public class Workflow implements AutoCloseable {
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+    @NonNull
+    private final ControlScheduler scheduler;
     private final ConcurrentHashMap<String, ConsumerHandle> consumers = new ConcurrentHashMap<>();
 
     public void consume(@NonNull Consumer consumer) {
         AtomicBoolean computed = new AtomicBoolean(false);
         consumers.computeIfAbsent(consumer.getName(), name -> {
-            Future future = executor.submit(() -> consumer.consume());
+            consumer.start(scheduler);
             computed.set(true);
-            return new ConsumerHandle(name, future, consumer);
+            return new ConsumerHandle(name, consumer);
         });
 
         if(!computed.get()) {
@@ -54,14 +51,9 @@ public class Workflow implements AutoCloseable {
         @NonNull
         private final String id;
         @NonNull
-        private final Future thread;
-        @NonNull
         private final Consumer consumer;
 
         public void cancel() {
-            if(!thread.cancel(true)) {
-                throw new CancellationException("Failed to cancel consumer " + this.id + ".");
-            }
             consumer.close();
         }
     }
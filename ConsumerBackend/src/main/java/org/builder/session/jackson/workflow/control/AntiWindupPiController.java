@@ -0,0 +1,35 @@
+package org.builder.session.jackson.workflow.control;
+
+import org.builder.session.jackson.workflow.utilize.PIDConfig;
+
+import lombok.NonNull;
+
+/**
+ * A PI law with clamped anti-windup. The loop is incremental (load += scale), so the
+ * load itself integrates the "proportion" term while the "derivative" term, applied to
+ * the change in error, acts as proportional action on the load. Clamping the load to
+ * what the consumer can hold therefore stops the integrator from winding up, without
+ * the resets the classic law needs. The decayed error sum is not used.
+ */
+public class AntiWindupPiController implements Controller {
+
+    private long previousError = 0;
+
+    @Override
+    public long step (@NonNull ControlSignal signal, @NonNull PIDConfig config) {
+        long currentError = signal.getError();
+        double p = currentError * config.getProportionFactor();
+        double d = (currentError - previousError) * config.getDerivativeFactor();
+        previousError = currentError;
+
+        signal.setProportional(p);
+        signal.setIntegral(0.0);
+        signal.setDerivative(d);
+        return signal.clampScale((long)(p + d));
+    }
+
+    @Override
+    public void reset () {
+        previousError = 0;
+    }
+}
@@ -0,0 +1,41 @@
+package org.builder.session.jackson.workflow.control;
+
+import org.builder.session.jackson.workflow.utilize.PIDConfig;
+
+import com.google.common.base.Preconditions;
+
+import lombok.NonNull;
+
+/**
+ * Moves the load at the full output rate limit towards the goal. Movement starts once
+ * the error leaves the hysteresis band and stops once the goal has been reached, which
+ * keeps the loop from chattering around the goal on noisy readings.
+ */
+public class BangBangController implements Controller {
+
+    private int direction = 0;
+
+    @Override
+    public long step (@NonNull ControlSignal signal, @NonNull PIDConfig config) {
+        Preconditions.checkArgument(config.getOutputRateLimit() > 0,
+                                    "Bang-bang control requires a positive output rate limit.");
+        long error = signal.getError();
+        if(error > config.getHysteresis()) {
+            direction = 1;
+        } else if(error < -config.getHysteresis()) {
+            direction = -1;
+        } else if((direction > 0 && error <= 0) || (direction < 0 && error >= 0)) {
+            direction = 0;
+        }
+
+        signal.setProportional(direction);
+        signal.setIntegral(0.0);
+        signal.setDerivative(0.0);
+        return signal.clampScale(direction * config.getOutputRateLimit());
+    }
+
+    @Override
+    public void reset () {
+        direction = 0;
+    }
+}
@@ -0,0 +1,44 @@
+package org.builder.session.jackson.workflow.control;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * The inputs and terms of one iteration of a control loop. A single instance is
+ * reused by each consumer so that running the loop doesn't allocate.
+ */
+@Getter
+@Setter
+@ToString
+public class ControlSignal {
+    private long goal;
+    private long consumed;
+    private long load;
+    private long minLoad;
+    private long maxLoad;
+    private double proportional;
+    private double integral;
+    private double derivative;
+
+    public long getError() {
+        return goal - consumed;
+    }
+
+    /**
+     * Limits a change in load so that the resulting load stays within [minLoad, maxLoad].
+     * A load that is already out of bounds is moved back inside.
+     */
+    public long clampScale(long scale) {
+        long upper = maxLoad - load;
+        long lower = minLoad - load;
+        return Math.max(lower, Math.min(upper, scale));
+    }
+
+    /**
+     * Limits a change in load to the specified rate. A non-positive rate is unlimited.
+     */
+    public static long limitRate(long scale, long rateLimit) {
+        return rateLimit > 0 ? Math.max(-rateLimit, Math.min(rateLimit, scale)) : scale;
+    }
+}
@@ -0,0 +1,132 @@
+package org.builder.session.jackson.workflow.control;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * A fixed-size history of the latest iterations of a control loop. Ticks are kept in
+ * parallel primitive arrays so that recording one never allocates, which keeps the
+ * telemetry from disturbing the resources being controlled. Reading a snapshot copies
+ * the ticks out and may allocate freely.
+ */
+public class ControlTelemetry {
+
+    public static final int DEFAULT_CAPACITY = 512;
+
+    /**
+     * What decided the change in load of a tick.
+     */
+    public enum Source {
+        CONTROLLER, FEED_FORWARD, AUTOTUNE
+    }
+
+    private static final Source[] SOURCES = Source.values();
+
+    @Getter
+    private final int capacity;
+    private final long[] timestampInMillis;
+    private final byte[] source;
+    private final long[] goal;
+    private final long[] consumed;
+    private final long[] load;
+    private final double[] proportional;
+    private final double[] integral;
+    private final double[] derivative;
+    private final long[] scale;
+    private long recorded = 0;
+
+    public ControlTelemetry() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ControlTelemetry(final int capacity) {
+        Preconditions.checkArgument(capacity > 0, "Expected a positive capacity, but got " + capacity);
+        this.capacity = capacity;
+        this.timestampInMillis = new long[capacity];
+        this.source = new byte[capacity];
+        this.goal = new long[capacity];
+        this.consumed = new long[capacity];
+        this.load = new long[capacity];
+        this.proportional = new double[capacity];
+        this.integral = new double[capacity];
+        this.derivative = new double[capacity];
+        this.scale = new long[capacity];
+    }
+
+    /**
+     * Records a tick, overwriting the oldest once full. The load is the load after the change.
+     */
+    public synchronized void record(final long nowInMillis,
+                                    @NonNull final Source tickSource,
+                                    final long tickGoal,
+                                    final long tickConsumed,
+                                    final long tickLoad,
+                                    final double tickProportional,
+                                    final double tickIntegral,
+                                    final double tickDerivative,
+                                    final long tickScale) {
+        int index = (int)(recorded % capacity);
+        timestampInMillis[index] = nowInMillis;
+        source[index] = (byte)tickSource.ordinal();
+        goal[index] = tickGoal;
+        consumed[index] = tickConsumed;
+        load[index] = tickLoad;
+        proportional[index] = tickProportional;
+        integral[index] = tickIntegral;
+        derivative[index] = tickDerivative;
+        scale[index] = tickScale;
+        recorded++;
+    }
+
+    /**
+     * The total number of ticks recorded, including those since overwritten.
+     */
+    public synchronized long getRecorded() {
+        return recorded;
+    }
+
+    /**
+     * Copies out up to the latest maxTicks ticks, oldest first.
+     */
+    public synchronized List<Tick> snapshot(final int maxTicks) {
+        int count = (int)Math.min(Math.min(recorded, capacity), Math.max(0, maxTicks));
+        List<Tick> ticks = new ArrayList<>(count);
+        for (long n = recorded - count; n < recorded; n++) {
+            int index = (int)(n % capacity);
+            ticks.add(Tick.builder()
+                          .timestampInMillis(timestampInMillis[index])
+                          .source(SOURCES[source[index]])
+                          .goal(goal[index])
+                          .consumed(consumed[index])
+                          .load(load[index])
+                          .proportional(proportional[index])
+                          .integral(integral[index])
+                          .derivative(derivative[index])
+                          .scale(scale[index])
+                          .build());
+        }
+        return ticks;
+    }
+
+    @Value
+    @Builder
+    public static class Tick {
+        private final long timestampInMillis;
+        @NonNull
+        private final Source source;
+        private final long goal;
+        private final long consumed;
+        private final long load;
+        private final double proportional;
+        private final double integral;
+        private final double derivative;
+        private final long scale;
+    }
+}
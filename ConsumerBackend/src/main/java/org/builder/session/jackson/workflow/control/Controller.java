@@ -0,0 +1,25 @@
+package org.builder.session.jackson.workflow.control;
+
+import org.builder.session.jackson.workflow.utilize.PIDConfig;
+
+import lombok.NonNull;
+
+/**
+ * A control law used by AbstractPidConsumer. Each iteration, the controller is given the
+ * latest signal and returns the change in load (scale) to apply. Load is held by the
+ * consumer, so a controller only ever decides how far to move it.
+ */
+public interface Controller {
+
+    /**
+     * Computes the change in load for one iteration. Implementations should record the
+     * terms they used on the signal so that the iteration can be reported.
+     */
+    public long step(@NonNull ControlSignal signal, @NonNull PIDConfig config);
+
+    /**
+     * Clears accumulated state. Called when the load is moved outside of the controller,
+     * like after a feed-forward step or an autotune.
+     */
+    public void reset();
+}
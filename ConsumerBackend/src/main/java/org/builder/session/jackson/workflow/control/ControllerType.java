@@ -0,0 +1,41 @@
+package org.builder.session.jackson.workflow.control;
+
+import lombok.NonNull;
+
+/**
+ * The control laws that a consumer can be configured with.
+ */
+public enum ControllerType {
+    PID {
+        @Override
+        public Controller create (@NonNull PlantModel model) {
+            return new PidController();
+        }
+    },
+    PI_ANTI_WINDUP {
+        @Override
+        public Controller create (@NonNull PlantModel model) {
+            return new AntiWindupPiController();
+        }
+    },
+    SLEW_LIMITED {
+        @Override
+        public Controller create (@NonNull PlantModel model) {
+            return new SlewRateLimitedController(new AntiWindupPiController());
+        }
+    },
+    BANG_BANG {
+        @Override
+        public Controller create (@NonNull PlantModel model) {
+            return new BangBangController();
+        }
+    },
+    PREDICTIVE {
+        @Override
+        public Controller create (@NonNull PlantModel model) {
+            return new PredictiveController(model, new AntiWindupPiController());
+        }
+    };
+
+    public abstract Controller create(@NonNull PlantModel model);
+}
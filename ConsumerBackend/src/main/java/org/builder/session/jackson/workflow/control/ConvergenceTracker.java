@@ -0,0 +1,194 @@
+package org.builder.session.jackson.workflow.control;
+
+import java.util.Optional;
+
+import org.builder.session.jackson.utils.Histogram;
+
+import com.google.common.base.Preconditions;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Value;
+
+/**
+ * Measures how well a control loop reaches each new target. Every target change starts an
+ * episode that runs until the next change, and the finished episode is added to histograms
+ * of settling time, peak overshoot, oscillations and steady-state error so that controller
+ * settings can be compared across many changes.
+ */
+public class ConvergenceTracker {
+
+    public static final double DEFAULT_TOLERANCE = 0.05;
+    public static final int DEFAULT_SETTLE_TICKS = 3;
+
+    // The error tolerated around the goal, as a fraction of the goal.
+    @Getter
+    private final double tolerance;
+    // The consecutive ticks within tolerance before a loop counts as settled.
+    @Getter
+    private final int settleTicks;
+    @Getter
+    private final Histogram settlingTimeInMillis = new Histogram(100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000);
+    @Getter
+    private final Histogram overshootPercent = new Histogram(0, 1, 5, 10, 25, 50, 100);
+    @Getter
+    private final Histogram oscillations = new Histogram(0, 1, 2, 3, 5, 10);
+    @Getter
+    private final Histogram steadyStateErrorPercent = new Histogram(0.5, 1, 2, 5, 10, 25);
+    private long unsettled = 0;
+    private Episode current = null;
+
+    public ConvergenceTracker() {
+        this(DEFAULT_TOLERANCE, DEFAULT_SETTLE_TICKS);
+    }
+
+    public ConvergenceTracker(final double tolerance, final int settleTicks) {
+        Preconditions.checkArgument(tolerance > 0.0, "Expected a positive tolerance, but got " + tolerance);
+        Preconditions.checkArgument(settleTicks > 0, "Expected positive settle ticks, but got " + settleTicks);
+        this.tolerance = tolerance;
+        this.settleTicks = settleTicks;
+    }
+
+    /**
+     * Finishes the running episode, if any, and starts one for a new goal from the current consumption.
+     */
+    public synchronized void start(final long nowInMillis, final long goal, final long consumed) {
+        finish();
+        current = new Episode(nowInMillis, goal, consumed);
+    }
+
+    /**
+     * Adds the consumption measured by a tick to the running episode, if any.
+     */
+    public synchronized void observe(final long nowInMillis, final long goal, final long consumed) {
+        if (current != null) {
+            current.observe(nowInMillis, goal, consumed);
+        }
+    }
+
+    /**
+     * Drops the running episode without recording it, for when something other than
+     * the controller, like an autotune, takes over the load.
+     */
+    public synchronized void abandon() {
+        current = null;
+    }
+
+    /**
+     * The episodes that ended before settling.
+     */
+    public synchronized long getUnsettled() {
+        return unsettled;
+    }
+
+    public synchronized Optional<Summary> getCurrent() {
+        return Optional.ofNullable(current).map(Episode::summarize);
+    }
+
+    /**
+     * Clears every histogram, keeping the running episode.
+     */
+    public synchronized void reset() {
+        settlingTimeInMillis.reset();
+        overshootPercent.reset();
+        oscillations.reset();
+        steadyStateErrorPercent.reset();
+        unsettled = 0;
+    }
+
+    private void finish() {
+        if (current == null) {
+            return;
+        }
+        Summary summary = current.summarize();
+        overshootPercent.add(summary.getOvershootPercent());
+        oscillations.add(summary.getOscillations());
+        if (summary.isSettled()) {
+            settlingTimeInMillis.add(summary.getSettlingTimeInMillis());
+            steadyStateErrorPercent.add(summary.getSteadyStateErrorPercent());
+        } else {
+            unsettled++;
+        }
+        current = null;
+    }
+
+    private class Episode {
+        private final long startInMillis;
+        private final long goal;
+        // Which side of the goal consumption started on, so overshoot is measured past it.
+        private final long direction;
+        private final long step;
+        private long peakOvershoot = 0;
+        private int crossings = 0;
+        private long lastOutsideSign = 0;
+        private int ticksWithin = 0;
+        private long withinSinceInMillis = 0;
+        private long settledAtInMillis = -1;
+        private double totalOfSquaredErrorPercent = 0.0;
+        private long steadyTicks = 0;
+
+        private Episode(long startInMillis, long goal, long consumed) {
+            this.startInMillis = startInMillis;
+            this.goal = goal;
+            this.direction = Long.signum(goal - consumed);
+            this.step = Math.abs(goal - consumed);
+        }
+
+        private void observe(long nowInMillis, long tickGoal, long consumed) {
+            long error = tickGoal - consumed;
+            long band = Math.max(1L, (long)(tolerance * Math.abs(tickGoal)));
+            peakOvershoot = Math.max(peakOvershoot, direction * (consumed - tickGoal));
+            if (Math.abs(error) > band) {
+                long sign = Long.signum(error);
+                if (lastOutsideSign != 0 && sign != lastOutsideSign) {
+                    crossings++;
+                }
+                lastOutsideSign = sign;
+                ticksWithin = 0;
+            } else {
+                if (ticksWithin == 0) {
+                    withinSinceInMillis = nowInMillis;
+                }
+                ticksWithin++;
+                if (settledAtInMillis < 0 && ticksWithin >= settleTicks) {
+                    settledAtInMillis = withinSinceInMillis;
+                }
+            }
+            if (settledAtInMillis >= 0) {
+                double errorPercent = 100.0 * error / Math.max(1L, Math.abs(tickGoal));
+                totalOfSquaredErrorPercent += errorPercent * errorPercent;
+                steadyTicks++;
+            }
+        }
+
+        private Summary summarize() {
+            boolean settled = settledAtInMillis >= 0;
+            return Summary.builder()
+                          .startInMillis(startInMillis)
+                          .goal(goal)
+                          .settled(settled)
+                          .settlingTimeInMillis(settled ? settledAtInMillis - startInMillis : 0)
+                          .overshootPercent(step == 0 ? 0.0 : 100.0 * peakOvershoot / step)
+                          .oscillations(crossings)
+                          .steadyStateErrorPercent(steadyTicks == 0 ? 0.0
+                                  : Math.sqrt(totalOfSquaredErrorPercent / steadyTicks))
+                          .build();
+        }
+    }
+
+    /**
+     * The convergence of a single episode. Steady-state error is the RMS error, as a percent
+     * of the goal, over the ticks since the loop settled.
+     */
+    @Value
+    @Builder
+    public static class Summary {
+        private final long startInMillis;
+        private final long goal;
+        private final boolean settled;
+        private final long settlingTimeInMillis;
+        private final double overshootPercent;
+        private final int oscillations;
+        private final double steadyStateErrorPercent;
+    }
+}
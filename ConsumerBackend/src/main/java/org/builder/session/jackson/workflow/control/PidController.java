@@ -0,0 +1,51 @@
+package org.builder.session.jackson.workflow.control;
+
+import org.builder.session.jackson.workflow.utilize.PIDConfig;
+
+import lombok.NonNull;
+
+/**
+ * The classic control law of this service: an incremental PID with some slight
+ * modifications to avoid integral overtake. The total error is reset when it changes
+ * signs or when the load has been emptied. Output is not limited.
+ */
+public class PidController implements Controller {
+
+    private long previousError = 0;
+    private long totalError = 0;
+
+    @Override
+    public long step (@NonNull ControlSignal signal, @NonNull PIDConfig config) {
+        long currentError = signal.getError();
+        double p = (currentError * config.getProportionFactor());
+        double d = ((currentError - previousError) * config.getDerivativeFactor());
+        double i = (totalError * config.getIntegralFactor());
+        long scale = (long) (p + i + d);
+        if (scale <= 0 && signal.getLoad() + scale <= 0) {
+            //Reset total error if the load has been emptied.
+            totalError = 0;
+        }
+
+        long signOfError = currentError == 0 ? 0 : currentError / Math.abs(currentError);
+        long signOfPreviousError = previousError == 0 ? 0 : previousError / Math.abs(previousError);
+        if(signOfError != signOfPreviousError) {
+            //Reset total error if the error changed signs between + and -
+            totalError = 0;
+        }
+
+        previousError = currentError;
+        totalError *= config.getIntegralDecay();
+        totalError += currentError;
+
+        signal.setProportional(p);
+        signal.setIntegral(i);
+        signal.setDerivative(d);
+        return scale;
+    }
+
+    @Override
+    public void reset () {
+        previousError = 0;
+        totalError = 0;
+    }
+}
@@ -0,0 +1,180 @@
+package org.builder.session.jackson.workflow.control;
+
+import java.util.Optional;
+
+import com.google.common.base.Preconditions;
+
+import lombok.Getter;
+
+/**
+ * An online least-squares fit of how much a consumer consumes for a given load:
+ *
+ *     consumed = intercept + gain * load
+ *
+ * The fit is recursive (RLS) with a forgetting factor so that it follows slow changes
+ * in the plant, like the JVM growing its heap, while old observations fade out. It is
+ * only trusted once the load has varied enough to separate gain from intercept.
+ *
+ * Forgetting is paused while the load has held still through the recent observations.
+ * Observations at a single load carry no information about the gain, so forgetting through
+ * them would only inflate the covariance (windup) until the next change in load swings the
+ * fit. The trace of the covariance is also bounded by its initial value.
+ *
+ * Readiness depends on the loads seen since the last reset rather than the recent ones, so
+ * that a model that once saw the load vary stays usable after the loop settles on one load.
+ * The loads must also have spread apart by a fraction of their size, as the jitter of a loop
+ * holding one load is mostly noise and says little about the gain.
+ *
+ * Observations are only fitted once consumption has come to rest. A plant lags its load, so
+ * while consumption is still moving it is the response to earlier loads, and pairing it with
+ * the current one would bias the gain towards the slope of the transient.
+ */
+public class PlantModel {
+
+    private static final double DEFAULT_FORGETTING_FACTOR = 0.98;
+    private static final double INITIAL_COVARIANCE = 1.0e6;
+    private static final double MAX_COVARIANCE_TRACE = 2.0 * INITIAL_COVARIANCE;
+    private static final int MIN_OBSERVATIONS = 5;
+    private static final int RECENT_OBSERVATIONS = 50;
+    // How much consumption may move between observations, as a fraction of it, and still be at rest.
+    private static final double REST_TOLERANCE = 0.02;
+    // How far the loads must spread, as a fraction of the largest, before the gain is trusted.
+    private static final double MIN_LOAD_SPREAD = 0.25;
+
+    private final double forgettingFactor;
+
+    @Getter
+    private double intercept = 0.0;
+    @Getter
+    private double gain = 0.0;
+    private double p00 = INITIAL_COVARIANCE;
+    private double p01 = 0.0;
+    private double p11 = INITIAL_COVARIANCE;
+    private long observations = 0;
+    // The loads of the most recent observations, oldest overwritten first.
+    private final long[] recentLoads = new long[RECENT_OBSERVATIONS];
+    private long recentMinLoad = Long.MAX_VALUE;
+    private long recentMaxLoad = Long.MIN_VALUE;
+    // The range of every load observed since the last reset.
+    private long minLoad = Long.MAX_VALUE;
+    private long maxLoad = Long.MIN_VALUE;
+    // The consumption of the previous observation, fitted or not.
+    private Long lastConsumed = null;
+
+    public PlantModel() {
+        this(DEFAULT_FORGETTING_FACTOR);
+    }
+
+    public PlantModel(final double forgettingFactor) {
+        Preconditions.checkArgument(forgettingFactor > 0.0 && forgettingFactor <= 1.0,
+                                    "Forgetting factor must be within (0, 1], but got " + forgettingFactor);
+        this.forgettingFactor = forgettingFactor;
+    }
+
+    /**
+     * Adds an observation of the consumption measured while holding the given load, if
+     * consumption has come to rest since the previous one.
+     */
+    public synchronized void observe(final long load, final long consumed) {
+        Long previous = lastConsumed;
+        lastConsumed = consumed;
+        if(previous == null || !isAtRest(previous, consumed)) {
+            return;
+        }
+        recentLoads[(int)(observations % RECENT_OBSERVATIONS)] = load;
+        observations++;
+        updateLoadRange();
+        minLoad = Math.min(minLoad, load);
+        maxLoad = Math.max(maxLoad, load);
+        double lambda = recentMaxLoad > recentMinLoad ? forgettingFactor : 1.0;
+
+        // Regressor is [1, load]. Compute P * phi.
+        double x = (double)load;
+        double pPhi0 = p00 + p01 * x;
+        double pPhi1 = p01 + p11 * x;
+        double denominator = lambda + pPhi0 + x * pPhi1;
+        double k0 = pPhi0 / denominator;
+        double k1 = pPhi1 / denominator;
+
+        double residual = (double)consumed - (intercept + gain * x);
+        intercept += k0 * residual;
+        gain += k1 * residual;
+
+        // P = (P - k * phi^T * P) / lambda, keeping P symmetric.
+        double newP00 = (p00 - k0 * pPhi0) / lambda;
+        double newP01 = (p01 - k0 * pPhi1) / lambda;
+        double newP11 = (p11 - k1 * pPhi1) / lambda;
+        double trace = newP00 + newP11;
+        double scale = trace > MAX_COVARIANCE_TRACE ? MAX_COVARIANCE_TRACE / trace : 1.0;
+        p00 = newP00 * scale;
+        p01 = newP01 * scale;
+        p11 = newP11 * scale;
+    }
+
+    private static boolean isAtRest(final long previous, final long consumed) {
+        long band = Math.max(1L, (long)(REST_TOLERANCE * Math.max(Math.abs(previous), Math.abs(consumed))));
+        return Math.abs(consumed - previous) <= band;
+    }
+
+    private void updateLoadRange() {
+        int count = (int)Math.min(observations, RECENT_OBSERVATIONS);
+        recentMinLoad = Long.MAX_VALUE;
+        recentMaxLoad = Long.MIN_VALUE;
+        for(int i = 0; i < count; i++) {
+            recentMinLoad = Math.min(recentMinLoad, recentLoads[i]);
+            recentMaxLoad = Math.max(recentMaxLoad, recentLoads[i]);
+        }
+    }
+
+    /**
+     * Forgets every observation, for when consumption is measured differently.
+     */
+    public synchronized void reset() {
+        intercept = 0.0;
+        gain = 0.0;
+        p00 = INITIAL_COVARIANCE;
+        p01 = 0.0;
+        p11 = INITIAL_COVARIANCE;
+        observations = 0;
+        recentMinLoad = Long.MAX_VALUE;
+        recentMaxLoad = Long.MIN_VALUE;
+        minLoad = Long.MAX_VALUE;
+        maxLoad = Long.MIN_VALUE;
+        lastConsumed = null;
+    }
+
+    /**
+     * The model is ready once it has learned a positive gain from loads that spread apart at
+     * some point since the last reset, even if they have held still since.
+     */
+    public synchronized boolean isReady() {
+        return observations >= MIN_OBSERVATIONS
+                && maxLoad > minLoad
+                && maxLoad - minLoad >= MIN_LOAD_SPREAD * Math.max(Math.abs(minLoad), Math.abs(maxLoad))
+                && gain > 0.0;
+    }
+
+    /**
+     * Predicts the steady-state consumption while holding the given load.
+     */
+    public synchronized double predict(final long load) {
+        return intercept + gain * (double)load;
+    }
+
+    /**
+     * Estimates the load required to consume the goal, if the model is ready.
+     */
+    public synchronized Optional<Long> estimateLoadFor(final long goal) {
+        if(!isReady()) {
+            return Optional.empty();
+        }
+        return Optional.of(Math.max(0L, Math.round(((double)goal - intercept) / gain)));
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "{ Consumed = " + intercept + " + " + gain + " * Load, Observations[" + observations
+                + "], LoadRange[" + minLoad + ", " + maxLoad + "], RecentLoadRange["
+                + recentMinLoad + ", " + recentMaxLoad + "] }";
+    }
+}
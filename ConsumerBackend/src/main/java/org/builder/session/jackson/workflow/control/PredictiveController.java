@@ -0,0 +1,54 @@
+package org.builder.session.jackson.workflow.control;
+
+import org.builder.session.jackson.workflow.utilize.PIDConfig;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A simple model-predictive law over the learned PlantModel. Each iteration predicts the
+ * steady-state consumption of the current load, corrected by a slowly filtered bias
+ * between the model and what was measured. It then plans the move that reaches the goal
+ * over the horizon and applies only the first 1/horizon of it, subject to the load and
+ * rate limits, before planning again. Predicting the steady state instead of reacting
+ * to the latest reading keeps moves that haven't shown up yet from being repeated,
+ * which is what makes the other laws overshoot a lagging sensor.
+ *
+ * Until the model is ready, the fallback controller is used.
+ */
+@RequiredArgsConstructor
+public class PredictiveController implements Controller {
+
+    private static final int DEFAULT_HORIZON = 5;
+
+    @NonNull
+    private final PlantModel model;
+    @NonNull
+    private final Controller fallback;
+    private double bias = 0.0;
+
+    @Override
+    public long step (@NonNull ControlSignal signal, @NonNull PIDConfig config) {
+        if(!model.isReady()) {
+            return fallback.step(signal, config);
+        }
+
+        int horizon = config.getHorizon() > 0 ? config.getHorizon() : DEFAULT_HORIZON;
+        double modelled = model.predict(signal.getLoad());
+        bias += (signal.getConsumed() - modelled - bias) / horizon;
+        double predictedError = signal.getGoal() - (modelled + bias);
+        double plannedMove = predictedError / model.getGain();
+        long scale = Math.round(plannedMove / horizon);
+
+        signal.setProportional(plannedMove);
+        signal.setIntegral(bias);
+        signal.setDerivative(0.0);
+        return signal.clampScale(ControlSignal.limitRate(scale, config.getOutputRateLimit()));
+    }
+
+    @Override
+    public void reset () {
+        bias = 0.0;
+        fallback.reset();
+    }
+}
@@ -0,0 +1,246 @@
+package org.builder.session.jackson.workflow.control;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.builder.session.jackson.workflow.utilize.PIDConfig;
+
+import com.google.common.base.Preconditions;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tunes a consumer using the relay method (Astrom and Hagglund). While running, the
+ * load is toggled between a high and a low level around the load it started from each
+ * time the error changes sign. The resource then oscillates around its target at the
+ * ultimate period Pu with an amplitude "a" that gives the ultimate gain:
+ *
+ *     Ku = 4d / (PI * sqrt(a^2 - h^2))
+ *
+ * where "d" is half the distance between the relay levels and "h" the hysteresis.
+ *
+ * The gains come from the Ziegler-Nichols PI rule (Kc = 0.45 Ku, Ti = Pu / 1.2), mapped
+ * onto the loop in AbstractPidConsumer. That loop is incremental (load += scale every
+ * iteration), so the "proportion" factor multiplies the error and acts as integral
+ * action on the load, while the "derivative" factor multiplies the change in error and
+ * acts as proportional action. The decayed error sum has no classic counterpart and is
+ * left at its minimum.
+ */
+@Slf4j
+public class RelayAutotuner {
+
+    private static final int DEFAULT_CYCLES = 4;
+    private static final int TRANSIENT_CYCLES = 1;
+    private static final int MAX_ITERATIONS_PER_SWITCH = 100;
+    private static final double MIN_FACTOR = 0.0001;
+    private static final double MAX_FACTOR = 9.999;
+    private static final double ZIEGLER_NICHOLS_PI_GAIN = 0.45;
+    private static final double ZIEGLER_NICHOLS_PI_INTEGRAL = 1.2;
+
+    public enum State {
+        RUNNING, COMPLETE, FAILED
+    }
+
+    private final long requestedAmplitude;
+    private final long hysteresis;
+    private final int cyclesToMeasure;
+
+    private boolean started = false;
+    private boolean relayHigh;
+    private long bias;
+    private long high;
+    private long low;
+    private long lastRiseInMillis = -1;
+    private long cycleMax;
+    private long cycleMin;
+    private int iterationsSinceSwitch = 0;
+    private int skippedCycles = 0;
+    private int measuredCycles = 0;
+    private double totalAmplitude = 0.0;
+    private long totalPeriodInMillis = 0;
+    @Getter
+    private volatile Result result = Result.builder().state(State.RUNNING).build();
+
+    /**
+     * @param relayAmplitude the load added and removed by the relay. Zero picks the load expected to move the
+     *                       resource by a quarter of its goal, scaled from the starting load and consumption.
+     * @param hysteresis the error, in units of the goal, that must be crossed before the relay switches.
+     * @param cycles the number of oscillations to average over. Zero picks a default.
+     */
+    public RelayAutotuner(final long relayAmplitude, final long hysteresis, final int cycles) {
+        Preconditions.checkArgument(relayAmplitude >= 0, "Relay amplitude must be non-negative, but got " + relayAmplitude);
+        Preconditions.checkArgument(hysteresis >= 0, "Hysteresis must be non-negative, but got " + hysteresis);
+        Preconditions.checkArgument(cycles >= 0, "Cycles must be non-negative, but got " + cycles);
+        this.requestedAmplitude = relayAmplitude;
+        this.hysteresis = hysteresis;
+        this.cyclesToMeasure = cycles > 0 ? cycles : DEFAULT_CYCLES;
+    }
+
+    public boolean isRunning() {
+        return State.RUNNING.equals(result.getState());
+    }
+
+    /**
+     * Runs one iteration of the experiment and returns the load the consumer should hold.
+     * Once the experiment finishes, the load it started from is returned so that the
+     * closed loop picks up from the operating point.
+     */
+    public synchronized long step(final long goal,
+                                  final long consumed,
+                                  final long load,
+                                  @NonNull final PIDConfig config,
+                                  final long nowInMillis) {
+        Preconditions.checkState(isRunning(), "Cannot step an autotuner that has finished: " + result);
+        if(!started) {
+            if(requestedAmplitude <= 0 && (load <= 0 || consumed <= 0)) {
+                // Without load already moving the resource there is no scale to pick a relay from,
+                // and a relay of a single unit of load would never cross the target.
+                fail("Cannot pick a relay amplitude from a starting load of " + load + " and consumption of "
+                             + consumed + ". Specify the relay amplitude explicitly.");
+                return load;
+            }
+            long amplitude = requestedAmplitude > 0 ? requestedAmplitude : defaultAmplitude(goal, consumed, load);
+            bias = load;
+            high = load + amplitude;
+            low = Math.max(0, load - amplitude);
+            relayHigh = consumed < goal;
+            cycleMax = consumed;
+            cycleMin = consumed;
+            started = true;
+            log.info("Starting relay autotune around load {} with levels [{}, {}].",
+                     new Object[] { bias, low, high });
+            return relayHigh ? high : low;
+        }
+
+        cycleMax = Math.max(cycleMax, consumed);
+        cycleMin = Math.min(cycleMin, consumed);
+        long error = goal - consumed;
+        iterationsSinceSwitch++;
+        if(relayHigh && error < -hysteresis) {
+            relayHigh = false;
+            iterationsSinceSwitch = 0;
+        } else if(!relayHigh && error > hysteresis) {
+            relayHigh = true;
+            iterationsSinceSwitch = 0;
+            onRise(consumed, config, nowInMillis);
+        } else if(iterationsSinceSwitch > MAX_ITERATIONS_PER_SWITCH) {
+            fail("The relay did not switch within " + MAX_ITERATIONS_PER_SWITCH
+                         + " iterations. The amplitude may be too small to move the resource across its target.");
+        }
+
+        return isRunning() ? (relayHigh ? high : low) : bias;
+    }
+
+    /**
+     * Picks the load expected to move the resource by a quarter of its goal, assuming consumption
+     * is proportional to load around the starting point.
+     */
+    private static long defaultAmplitude(final long goal, final long consumed, final long load) {
+        double loadPerConsumed = (double)load / (double)consumed;
+        return Math.max(1L, (long)Math.ceil(loadPerConsumed * Math.max(goal, consumed) / 4.0));
+    }
+
+    private void onRise(final long consumed, final PIDConfig config, final long nowInMillis) {
+        if(lastRiseInMillis >= 0) {
+            if(skippedCycles < TRANSIENT_CYCLES) {
+                skippedCycles++;
+            } else {
+                totalPeriodInMillis += nowInMillis - lastRiseInMillis;
+                totalAmplitude += (cycleMax - cycleMin) / 2.0;
+                measuredCycles++;
+            }
+        }
+        lastRiseInMillis = nowInMillis;
+        cycleMax = consumed;
+        cycleMin = consumed;
+
+        if(measuredCycles >= cyclesToMeasure) {
+            complete(config);
+        }
+    }
+
+    private void complete(final PIDConfig config) {
+        double relayAmplitude = (high - low) / 2.0;
+        double oscillationAmplitude = totalAmplitude / measuredCycles;
+        Duration ultimatePeriod = Duration.ofMillis(totalPeriodInMillis / measuredCycles);
+        if(oscillationAmplitude <= hysteresis || ultimatePeriod.isZero()) {
+            fail("The measured oscillation (amplitude " + oscillationAmplitude + ", period "
+                         + ultimatePeriod + ") was too small to compute gains from.");
+            return;
+        }
+
+        double ultimateGain = (4.0 * relayAmplitude)
+                / (Math.PI * Math.sqrt(oscillationAmplitude * oscillationAmplitude
+                                               - (double)hysteresis * (double)hysteresis));
+        if(ultimatePeriod.toMillis() < 2 * config.getPace().toMillis()) {
+            log.warn("Measured ultimate period {} is less than two iterations of {}. Gains may be unreliable.",
+                     ultimatePeriod, config.getPace());
+        }
+        result = Result.builder()
+                       .state(State.COMPLETE)
+                       .relayAmplitude(relayAmplitude)
+                       .oscillationAmplitude(oscillationAmplitude)
+                       .ultimateGain(ultimateGain)
+                       .ultimatePeriod(ultimatePeriod)
+                       .cycles(measuredCycles)
+                       .config(Optional.of(toPidConfig(ultimateGain, ultimatePeriod, config)))
+                       .message("Completed.")
+                       .build();
+        log.info("Completed relay autotune: {}", result);
+    }
+
+    private void fail(final String message) {
+        result = Result.builder()
+                       .state(State.FAILED)
+                       .relayAmplitude((high - low) / 2.0)
+                       .cycles(measuredCycles)
+                       .message(message)
+                       .build();
+        log.warn("Failed relay autotune: {}", result);
+    }
+
+    /**
+     * Computes a config from the measured plant characteristics, keeping the pace and decay of the base config.
+     */
+    public static PIDConfig toPidConfig(final double ultimateGain,
+                                        @NonNull final Duration ultimatePeriod,
+                                        @NonNull final PIDConfig base) {
+        double iterationsPerPeriod = (double)ultimatePeriod.toMillis() / (double)base.getPace().toMillis();
+        double proportionalGain = ZIEGLER_NICHOLS_PI_GAIN * ultimateGain;
+        double integralGainPerIteration = proportionalGain * ZIEGLER_NICHOLS_PI_INTEGRAL / iterationsPerPeriod;
+        return base.toBuilder()
+                   .derivativeFactor(clamp(proportionalGain))
+                   .proportionFactor(clamp(integralGainPerIteration))
+                   .integralFactor(MIN_FACTOR)
+                   .build();
+    }
+
+    private static double clamp(final double factor) {
+        if(factor < MIN_FACTOR || factor > MAX_FACTOR) {
+            log.warn("Computed factor {} is outside of [{}, {}] and will be clamped.",
+                     new Object[] { factor, MIN_FACTOR, MAX_FACTOR });
+        }
+        return Math.max(MIN_FACTOR, Math.min(MAX_FACTOR, factor));
+    }
+
+    @Value
+    @Builder
+    public static class Result {
+        @NonNull
+        private final State state;
+        private final double relayAmplitude;
+        private final double oscillationAmplitude;
+        private final double ultimateGain;
+        @Builder.Default
+        private final Duration ultimatePeriod = Duration.ZERO;
+        private final int cycles;
+        @Builder.Default
+        private final Optional<PIDConfig> config = Optional.empty();
+        @Builder.Default
+        private final String message = "Running.";
+    }
+}
@@ -0,0 +1,29 @@
+package org.builder.session.jackson.workflow.control;
+
+import org.builder.session.jackson.workflow.utilize.PIDConfig;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Limits how far another controller may move the load in one iteration, using the
+ * output rate limit of the config. Since the load is the integrator, the part of a move
+ * that was cut off is not wound up anywhere and is simply asked for again next time.
+ */
+@RequiredArgsConstructor
+public class SlewRateLimitedController implements Controller {
+
+    @NonNull
+    private final Controller delegate;
+
+    @Override
+    public long step (@NonNull ControlSignal signal, @NonNull PIDConfig config) {
+        return signal.clampScale(ControlSignal.limitRate(delegate.step(signal, config),
+                                                         config.getOutputRateLimit()));
+    }
+
+    @Override
+    public void reset () {
+        delegate.reset();
+    }
+}
@@ -33,7 +33,16 @@ public abstract class AbstractConsumer implements Consumer {
         throwIfValueInvalid(value);
         log.info("Setting {} consumption from {} to {} {}",
                  new Object[] { getName(), this.target, value, unit });
+        double previousTarget = this.target;
         this.target = convertToStoredUnitFrom(value, unit);
+        onTargetChanged(previousTarget, this.target);
+    }
+
+    /**
+     * Invoked after the target changes. Both values are in the stored unit.
+     */
+    protected void onTargetChanged(double previousTarget, double newTarget) {
+
     }
 
     @Override
@@ -1,20 +1,91 @@
 package org.builder.session.jackson.workflow.utilize;
 
+import java.time.Clock;
 import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.build.session.jackson.proto.Resource;
+import org.builder.session.jackson.system.RefreshEstimate;
+import org.builder.session.jackson.system.SystemUtil;
+import org.builder.session.jackson.workflow.ControlScheduler;
+import org.builder.session.jackson.workflow.control.ControlSignal;
+import org.builder.session.jackson.workflow.control.ControlTelemetry;
+import org.builder.session.jackson.workflow.control.Controller;
+import org.builder.session.jackson.workflow.control.ConvergenceTracker;
+import org.builder.session.jackson.workflow.control.ControllerType;
+import org.builder.session.jackson.workflow.control.PlantModel;
+import org.builder.session.jackson.workflow.control.RelayAutotuner;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+
+import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
-@RequiredArgsConstructor
 public abstract class AbstractPidConsumer extends AbstractConsumer {
 
+    private static final Duration MIN_ADAPTIVE_PACE = Duration.ofMillis(10);
+    // Consumption must move towards the goal by this fraction of it per iteration to keep a feed-forward hold.
+    private static final double FEED_FORWARD_PROGRESS = 0.05;
+    private static final int MAX_FEED_FORWARD_HOLD = 10;
+
+    @NonNull
+    private final AtomicReference<PIDConfig> config;
+    @NonNull
+    private final AtomicReference<RelayAutotuner> autotuner = new AtomicReference<>();
+    @NonNull
+    private final Clock clock;
+    // Reads the monotonic time that pacing and sample waits are measured in.
+    @NonNull
+    private final Ticker ticker;
+    @NonNull
+    private final PlantModel model = new PlantModel();
+    @NonNull
+    private final AtomicBoolean targetChanged = new AtomicBoolean(false);
     @NonNull
-    private final PIDConfig config;
-    private long previousError = 0;
-    private long totalError = 0;
+    private final AtomicBoolean measureChanged = new AtomicBoolean(false);
+    @NonNull
+    private final ControlSignal signal = new ControlSignal();
+    @NonNull
+    @Getter
+    private final ControlTelemetry telemetry = new ControlTelemetry();
+    @NonNull
+    @Getter
+    private final ConvergenceTracker convergence = new ConvergenceTracker();
+    // Owned by the loop, which rebuilds it when the configured type changes.
+    private ControllerType controllerType = null;
+    private Controller controller = null;
     private long load = 0;
+    // The hold on the load after a feed-forward jump, while consumption catches up to it.
+    private boolean holdingFeedForward = false;
+    private int feedForwardHeld = 0;
+    private long feedForwardDirection = 0;
+    private long feedForwardConsumed = 0;
+    // Owned by the scheduled step.
+    private long sampleVersion = SystemUtil.UNTRACKED_SAMPLE;
+    private boolean awaitingSample = false;
+    private long pacedUntilInNanos = 0;
+    private ControlScheduler.Task task = null;
+    private Runnable sampleListener = null;
+
+    public AbstractPidConsumer (@NonNull final PIDConfig config) {
+        this(config, Clock.systemUTC(), Ticker.systemTicker());
+    }
+
+    /**
+     * Runs the loop on the supplied time sources, which a simulator replaces with virtual ones.
+     */
+    protected AbstractPidConsumer (@NonNull final PIDConfig config,
+                                   @NonNull final Clock clock,
+                                   @NonNull final Ticker ticker) {
+        this.config = new AtomicReference<>(config);
+        this.clock = clock;
+        this.ticker = ticker;
+    }
 
     protected abstract long getConsumed ();
 
@@ -24,55 +95,299 @@ public abstract class AbstractPidConsumer extends AbstractConsumer {
 
     protected abstract void destroyLoad (long scale);
 
+    /**
+     * The least load this consumer can hold. Load is kept within bounds whatever the controller.
+     */
+    protected long getMinLoad () {
+        return 0;
+    }
+
+    /**
+     * The most load this consumer can hold. Load is kept within bounds whatever the controller,
+     * so a consumer whose measure may stop responding to load caps it here to stop the loop
+     * from raising it without bound.
+     */
+    protected long getMaxLoad () {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * The resource this consumer controls, used to find its samples.
+     */
+    protected abstract Resource getResource ();
+
+    /**
+     * The system that getConsumed() reads from.
+     */
+    protected abstract SystemUtil getSystem ();
+
     protected Duration getRunDelay () {
-        return config.getPace();
+        return getPace(config.get());
+    }
+
+    /**
+     * The time to wait between iterations. An adaptive pace waits until the earliest the next
+     * sample is expected, so that the loop neither wakes for data that can't have changed nor
+     * waits out a fixed pace once fresh data could have arrived. The configured pace is used
+     * until there is an estimate.
+     */
+    private Duration getPace (PIDConfig config) {
+        if (!config.isAdaptivePace()) {
+            return config.getPace();
+        }
+        return getSystem().getRefreshEstimate(getResource())
+                          .map(RefreshEstimate::getEarliestNext)
+                          .map(pace -> pace.compareTo(MIN_ADAPTIVE_PACE) < 0 ? MIN_ADAPTIVE_PACE : pace)
+                          .orElse(config.getPace());
+    }
+
+    public PIDConfig getPidConfig () {
+        return config.get();
+    }
+
+    /**
+     * Replaces the gains and pace of this consumer. The running loop picks up
+     * the new config on its next iteration and never mixes values of the two.
+     */
+    public void setPidConfig (@NonNull final PIDConfig newConfig) {
+        PIDConfig oldConfig = config.getAndSet(newConfig);
+        log.info("Replaced PID config of {} from {} to {}",
+                 new Object[] { getName(), oldConfig, newConfig });
+    }
+
+    /**
+     * Hands control of the load to the supplied autotuner until it finishes. On
+     * success, the computed gains replace the current config and the loop resumes.
+     */
+    public void startAutotune (@NonNull final RelayAutotuner tuner) {
+        RelayAutotuner previous = autotuner.getAndSet(tuner);
+        log.info("Starting autotune of {}, replacing {}.",
+                 getName(), Optional.ofNullable(previous).map(RelayAutotuner::getResult).orElse(null));
+    }
+
+    /**
+     * Gets the result of the latest autotune, if one has been started.
+     */
+    public Optional<RelayAutotuner.Result> getAutotuneResult () {
+        return Optional.ofNullable(autotuner.get()).map(RelayAutotuner::getResult);
+    }
+
+    @Override
+    protected void onTargetChanged (double previousTarget, double newTarget) {
+        // The loop owns the load, so it applies the feed-forward step on its next iteration.
+        targetChanged.set(true);
+    }
+
+    /**
+     * Tells the loop that the goal and consumption are now measured differently, so that on
+     * its next iteration it forgets the plant model and controller state learned so far.
+     */
+    protected void onMeasureChanged () {
+        measureChanged.set(true);
+    }
+
+    /**
+     * Jumps the load to the model's estimate for the goal, if the model is ready.
+     *
+     * @return true if the load was set by the model.
+     */
+    private boolean runFeedForward (long goal, long consumed) {
+        Optional<Long> estimate = model.estimateLoadFor(goal);
+        estimate.ifPresent(desiredLoad -> {
+            log.info("Feed-forward of {} moving load from {} to {} for goal {} using model {}",
+                     new Object[] { getName(), load, desiredLoad, goal, model });
+            long scale = Math.max(getMinLoad(), Math.min(getMaxLoad(), desiredLoad)) - load;
+            adjustLoad(scale);
+            telemetry.record(clock.millis(), ControlTelemetry.Source.FEED_FORWARD,
+                             goal, consumed, load, 0.0, 0.0, 0.0, scale);
+            // The controller only corrects the residual from here.
+            controller.reset();
+            holdingFeedForward = true;
+            feedForwardHeld = 0;
+            feedForwardDirection = Long.signum(goal - consumed);
+            feedForwardConsumed = consumed;
+        });
+        return estimate.isPresent();
+    }
+
+    /**
+     * Holds the load set by feed-forward while consumption is still moving towards the goal.
+     * The plant lags its load, so until consumption comes to rest or passes the goal the
+     * error is mostly the jump that hasn't shown up yet, and the controller would add to it.
+     * The first iteration is always held, as the jump may not have reached the sample yet.
+     *
+     * @return true if the load was held.
+     */
+    private boolean holdFeedForward (long goal, long consumed) {
+        if (!holdingFeedForward) {
+            return false;
+        }
+        long progress = feedForwardDirection * (consumed - feedForwardConsumed);
+        long band = Math.max(1L, (long)(FEED_FORWARD_PROGRESS * Math.abs(goal)));
+        boolean crossed = feedForwardDirection * (goal - consumed) <= 0;
+        feedForwardConsumed = consumed;
+        holdingFeedForward = !crossed
+                && (feedForwardHeld == 0 || progress > band)
+                && feedForwardHeld < MAX_FEED_FORWARD_HOLD;
+        if (!holdingFeedForward) {
+            // Start from the consumption reached rather than the move seen while holding.
+            controller.reset();
+            return false;
+        }
+        feedForwardHeld++;
+        telemetry.record(clock.millis(), ControlTelemetry.Source.FEED_FORWARD,
+                         goal, consumed, load, 0.0, 0.0, 0.0, 0L);
+        return true;
+    }
+
+    private void selectController (ControllerType type) {
+        if (!type.equals(controllerType)) {
+            log.info("Switching controller of {} from {} to {}", new Object[] { getName(), controllerType, type });
+            controllerType = type;
+            controller = type.create(model);
+        }
+    }
+
+    private void adjustLoad (long scale) {
+        // Controllers that don't clamp their output would otherwise push load past the bounds.
+        scale = Math.max(getMinLoad(), Math.min(getMaxLoad(), load + scale)) - load;
+        load += scale;
+        if (scale > 0) {
+            generateLoad(scale);
+        } else {
+            destroyLoad(Math.abs(scale));
+        }
+    }
+
+    private void runAutotune (RelayAutotuner tuner, PIDConfig config, long goal, long consumed) {
+        long now = clock.millis();
+        long scale = tuner.step(goal, consumed, load, config, now) - load;
+        adjustLoad(scale);
+        telemetry.record(now, ControlTelemetry.Source.AUTOTUNE, goal, consumed, load, 0.0, 0.0, 0.0, scale);
+        if(!tuner.isRunning()) {
+            // Start closed-loop control fresh from the operating point.
+            controller.reset();
+            tuner.getResult().getConfig().ifPresent(this::setPidConfig);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Autotune of {}: [Goal: {}, Consumed: {}, Load: {}]",
+                      new Object[] { this.getClass().getSimpleName(), goal, consumed, load });
+        }
     }
 
     @Override
-    public final void consume () {
-        while (true) {
-            try {
-                //PID algorithm with some slight modifications to avoid integral overtake.
-                long goal = getGoal();
-                long consumed = getConsumed();
-                long currentError = goal - consumed;
-                double p = (currentError * config.getProportionFactor());
-                double d = ((currentError - previousError) * config.getDerivativeFactor());
-                double i = (totalError * config.getIntegralFactor());
-                long scale = (long) (p + i + d);
-                load += scale;
-                if (scale > 0) {
-                    generateLoad(scale);
-                } else {
-                    destroyLoad(Math.abs(scale));
-
-                    if (load <= 0) {
-                        //Reset total error if the load has been emptied.
-                        totalError = 0;
-                    }
-                }
-
-                long signOfError = currentError == 0 ? 0 : currentError / Math.abs(currentError);
-                long signOfPreviousError = previousError == 0 ? 0 : previousError / Math.abs(previousError);
-                if(signOfError != signOfPreviousError) {
-                    //Reset total error if the error changed signs between + and -
-                    totalError = 0;
-                }
-
-                previousError = currentError;
-                totalError *= config.getIntegralDecay();
-                totalError += currentError;
-                log.debug("Status of {}: [Goal: {}, Consumed: {}, Load: {}, P: {}, D: {}, I: {} = S: {}]",
-                          new Object[] { this.getClass().getSimpleName(),
-                                         goal,
-                                         consumed,
-                                         load,
-                                         p, d, i,
-                                         scale });
-                Thread.sleep(config.getPace().toMillis());
-            } catch (Throwable t) {
-                log.error("Caught an exception while consuming resources for {}. Swallowing.", this.getClass().getSimpleName(), t);
+    public void start (@NonNull final ControlScheduler scheduler) {
+        Preconditions.checkState(task == null, getName() + " has already been started.");
+        task = scheduler.schedule(getName(), this::step);
+        // Wake the loop when fresh data arrives, instead of waiting out the max sample wait.
+        sampleListener = task::wake;
+        getSystem().addSampleListener(getResource(), sampleListener);
+    }
+
+    @Override
+    public void close () {
+        Optional.ofNullable(sampleListener).ifPresent(l -> getSystem().removeSampleListener(getResource(), l));
+        Optional.ofNullable(task).ifPresent(ControlScheduler.Task::cancel);
+        super.close();
+    }
+
+    /**
+     * Runs an iteration once the pace has passed and a sample arrived that the last
+     * iteration hasn't acted on, so that each observation drives exactly one iteration.
+     * If the sample doesn't arrive within the max wait, the loop falls back to acting
+     * on the latest reading.
+     *
+     * This is normally run by the scheduler, but a simulator may call it directly.
+     *
+     * @return the delay until the step should run again, unless woken by a new sample.
+     */
+    public Duration step () {
+        //Read the config once so that a concurrent replacement applies to a whole iteration.
+        PIDConfig config = this.config.get();
+        long now = ticker.read();
+        if (awaitingSample) {
+            if (now - pacedUntilInNanos < 0) {
+                return Duration.ofNanos(pacedUntilInNanos - now);
             }
+            long version = getSystem().getSampleVersion(getResource());
+            boolean fresh = version == SystemUtil.UNTRACKED_SAMPLE || version != sampleVersion;
+            long remainingWait = config.getMaxSampleWait().toNanos() - (now - pacedUntilInNanos);
+            if (!fresh && remainingWait > 0) {
+                return Duration.ofNanos(remainingWait);
+            } else if (!fresh) {
+                log.debug("No new sample for {} within {}. Acting on the latest reading.",
+                          getName(), config.getMaxSampleWait());
+            }
+            sampleVersion = version;
+        }
+
+        try {
+            iterate(config);
+        } catch (Throwable t) {
+            log.error("Caught an exception while consuming resources for {}. Swallowing.", this.getClass().getSimpleName(), t);
+        }
+        Duration pace = getPace(config);
+        awaitingSample = true;
+        pacedUntilInNanos = ticker.read() + pace.toNanos();
+        return pace;
+    }
+
+    private void iterate (PIDConfig config) {
+        selectController(config.getController());
+        if (measureChanged.getAndSet(false)) {
+            log.info("Measure of {} changed. Resetting its model and controller.", getName());
+            model.reset();
+            controller.reset();
+            convergence.abandon();
+            holdingFeedForward = false;
+        }
+        long goal = getGoal();
+        long consumed = getConsumed();
+        // The consumption measured now is the response to the load held since the last iteration.
+        model.observe(load, consumed);
+        RelayAutotuner tuner = autotuner.get();
+        if(tuner != null && tuner.isRunning()) {
+            // The relay, not the controller, drives the load, so it says nothing about convergence.
+            convergence.abandon();
+            holdingFeedForward = false;
+            runAutotune(tuner, config, goal, consumed);
+            return;
+        }
+
+        boolean changed = targetChanged.getAndSet(false);
+        if(changed) {
+            convergence.start(clock.millis(), goal, consumed);
+            holdingFeedForward = false;
+        } else {
+            convergence.observe(clock.millis(), goal, consumed);
+        }
+        if(changed && config.isFeedForward() && runFeedForward(goal, consumed)) {
+            return;
+        }
+        if(holdFeedForward(goal, consumed)) {
+            return;
+        }
+
+        signal.setGoal(goal);
+        signal.setConsumed(consumed);
+        signal.setLoad(load);
+        signal.setMinLoad(getMinLoad());
+        signal.setMaxLoad(getMaxLoad());
+        long scale = controller.step(signal, config);
+        adjustLoad(scale);
+        // Recording is allocation-free, unlike the debug log below, so it runs on every tick.
+        telemetry.record(clock.millis(), ControlTelemetry.Source.CONTROLLER, goal, consumed, load,
+                         signal.getProportional(), signal.getIntegral(), signal.getDerivative(), scale);
+        if (log.isDebugEnabled()) {
+            log.debug("Status of {}: [Goal: {}, Consumed: {}, Load: {}, P: {}, D: {}, I: {} = S: {}]",
+                      new Object[] { this.getClass().getSimpleName(),
+                                     goal,
+                                     consumed,
+                                     load,
+                                     signal.getProportional(),
+                                     signal.getDerivative(),
+                                     signal.getIntegral(),
+                                     scale });
         }
     }
 }
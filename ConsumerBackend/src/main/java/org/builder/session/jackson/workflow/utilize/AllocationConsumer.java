@@ -0,0 +1,169 @@
+package org.builder.session.jackson.workflow.utilize;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.build.session.jackson.proto.AllocationSpec;
+import org.build.session.jackson.proto.Resource;
+import org.build.session.jackson.proto.Unit;
+import org.build.session.jackson.proto.UsageSpec;
+import org.builder.session.jackson.system.DigitalUnit;
+import org.builder.session.jackson.system.SystemUtil;
+import org.builder.session.jackson.workflow.ControlScheduler;
+import org.builder.session.jackson.workflow.utilize.allocation.GarbageEngine;
+import org.builder.session.jackson.workflow.utilize.allocation.GcMonitor;
+import org.builder.session.jackson.workflow.utilize.allocation.SizeDistribution;
+
+import com.google.common.base.Preconditions;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Allocates short-lived garbage to reach a target allocation rate, which drives garbage
+ * collections, and the CPU and pauses they cost, without growing the live set. The rate
+ * is measured within the JVM, so it includes garbage from the rest of the service.
+ */
+@Slf4j
+public class AllocationConsumer extends AbstractPidConsumer {
+
+    private static final long DEFAULT_INITIAL_TARGET = 10000; // 10 MB/Second
+    private static final int DEFAULT_MEAN_OBJECT_BYTES = 256;
+    private static final int DEFAULT_MAX_OBJECT_BYTES = 1024 * 1024;
+    private static final Duration SAMPLE_INTERVAL = Duration.ofSeconds(1);
+
+    @Getter
+    private final String name = "AllocationConsumer";
+    @Getter(AccessLevel.PROTECTED)
+    private final Resource resource = Resource.ALLOCATION;
+    @NonNull
+    @Getter(AccessLevel.PROTECTED)
+    private final SystemUtil system;
+    @NonNull
+    private final GarbageEngine garbage = new GarbageEngine(getName() + "Garbage");
+    @NonNull
+    @Getter
+    private final GcMonitor gc = new GcMonitor(garbage::getAllocatedBytes);
+    // The allocation rate asked of the engine, in the stored unit.
+    @NonNull
+    private final AtomicLong load = new AtomicLong(0);
+    private ControlScheduler.Task sampler = null;
+
+    public AllocationConsumer (@NonNull final SystemUtil system, @NonNull final PIDConfig pidConfig) {
+        this(DigitalUnit.BYTES_PER_SECOND
+                        .from(DEFAULT_INITIAL_TARGET,
+                              DigitalUnit.KILOBYTES_PER_SECOND),
+             system,
+             pidConfig);
+    }
+
+    public AllocationConsumer (final long targetRateInBytes, @NonNull final SystemUtil system, @NonNull final PIDConfig pidConfig) {
+        super(pidConfig);
+        this.system = system;
+        this.setTarget(targetRateInBytes, Unit.BYTES_PER_SECOND);
+    }
+
+    /**
+     * Selects the sizes of allocated objects, if the usage supplies allocation options.
+     */
+    @Override
+    public void configure (@NonNull final UsageSpec usage) {
+        if(!usage.hasAllocation()) {
+            return;
+        }
+        AllocationSpec spec = usage.getAllocation();
+        GarbageEngine.Plan plan = new GarbageEngine.Plan(
+                SizeDistribution.valueOf(spec.getSizes().name()),
+                spec.getMeanObjectBytes() > 0 ? spec.getMeanObjectBytes() : DEFAULT_MEAN_OBJECT_BYTES,
+                spec.getMaxObjectBytes() > 0 ? spec.getMaxObjectBytes() : DEFAULT_MAX_OBJECT_BYTES);
+        log.info("Replacing allocation of {} from {} to {}", new Object[] { getName(), garbage.getPlan(), plan });
+        garbage.setPlan(plan);
+    }
+
+    @Override
+    public void start (@NonNull final ControlScheduler scheduler) {
+        super.start(scheduler);
+        sampler = scheduler.schedule(getName() + "GcMonitor", this::sample);
+    }
+
+    /**
+     * Samples the allocation rate and publishes the sample, so that the loop acts once on
+     * each new rate rather than on every iteration between samples.
+     */
+    private Duration sample () {
+        try {
+            gc.sample();
+            system.publishSample(getResource());
+        } catch (Throwable t) {
+            log.warn("Failed to sample the garbage collections of " + getName() + ".", t);
+        }
+        return SAMPLE_INTERVAL;
+    }
+
+    @Override
+    public boolean isUnitAllowed (Unit unit) {
+        return DigitalUnit.from(getStoredUnit()).canConvertTo(unit);
+    }
+
+    @Override
+    protected double convertFromStoredUnitTo (double storedValue, Unit unit) {
+        return DigitalUnit.from(unit).from(storedValue, getStoredUnit());
+    }
+
+    @Override
+    protected double convertToStoredUnitFrom (double value, Unit unit) {
+        return DigitalUnit.from(getStoredUnit()).from(value, unit);
+    }
+
+    @Override
+    public double getActual () {
+        return DigitalUnit.from(getStoredUnit()).from(gc.getAllocatedBytesPerSecond(), DigitalUnit.BYTES_PER_SECOND);
+    }
+
+    @Override
+    protected Unit getStoredUnit () {
+        return Unit.KILOBYTES_PER_SECOND;
+    }
+
+    @Override
+    public Unit getDefaultUnit () {
+        return Unit.KILOBYTES_PER_SECOND;
+    }
+
+    @Override
+    protected long getGoal () {
+        return (long) getTarget(getStoredUnit());
+    }
+
+    @Override
+    protected long getConsumed () {
+        return (long) getActual(getStoredUnit());
+    }
+
+    @Override
+    protected void generateLoad (long scale) {
+        Preconditions.checkArgument(scale >= 0, "Scale should be greater than or equal to zero.");
+        adjustRate(load.addAndGet(scale));
+    }
+
+    @Override
+    protected void destroyLoad (long scale) {
+        Preconditions.checkArgument(scale >= 0, "Scale should be greater than or equal to zero.");
+        adjustRate(load.addAndGet(-scale));
+    }
+
+    private void adjustRate (long rate) {
+        garbage.setBytesPerSecond(DigitalUnit.BYTES_PER_SECOND.from(Math.max(0L, rate), DigitalUnit.from(getStoredUnit())));
+    }
+
+    @Override
+    public void close () {
+        Optional.ofNullable(sampler).ifPresent(ControlScheduler.Task::cancel);
+        gc.close();
+        garbage.close();
+        super.close();
+    }
+}
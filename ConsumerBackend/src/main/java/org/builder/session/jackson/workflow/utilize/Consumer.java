@@ -1,12 +1,15 @@
 package org.builder.session.jackson.workflow.utilize;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import org.build.session.jackson.proto.Resource;
 import org.build.session.jackson.proto.Unit;
+import org.build.session.jackson.proto.UsageSpec;
 import org.builder.session.jackson.client.loadbalancing.ServiceRegistry;
 import org.builder.session.jackson.system.SystemUtil;
+import org.builder.session.jackson.workflow.ControlScheduler;
 
 import com.google.common.collect.ImmutableMap;
 
@@ -20,21 +23,45 @@ public interface Consumer extends AutoCloseable {
 
     public void setTarget (double value, Unit unit);
 
+    /**
+     * Applies the resource-specific options of a usage, if any. Consumers
+     * without options ignore them.
+     */
+    public default void configure (UsageSpec usage) {
+    }
+
+    /**
+     * Applies the options of a usage and then its target. Consumers whose options
+     * decide which units a target may use validate both before applying either.
+     */
+    public default void apply (UsageSpec usage) {
+        configure(usage);
+        setTarget(usage.getTarget(), usage.getUnit());
+    }
+
     public double getTarget(Unit unit);
     public double getActual(Unit unit);
 
-    public void consume();
+    /**
+     * Starts consuming, running control steps on the scheduler until closed.
+     * Steps must not block, so work that does runs on the consumer's own threads.
+     */
+    public void start(ControlScheduler scheduler);
     public void close();
 
     /**
      * Builds a set of default consumers to use based on a set of specified resources.
+     * Each consumer is driven by the PID config supplied for its resource.
      */
     public static Map<Resource, Consumer> buildDefaultConsumers(@NonNull Set<Resource> resources,
                                                                 @NonNull SystemUtil systemUtil,
-                                                                @NonNull PIDConfig pidConfig,
+                                                                @NonNull Map<Resource, PIDConfig> pidConfigs,
                                                                 @NonNull ServiceRegistry registry) {
         ImmutableMap.Builder<Resource, Consumer> builder = ImmutableMap.builder();
         for(Resource resource : resources) {
+            PIDConfig pidConfig = Optional.ofNullable(pidConfigs.get(resource))
+                                          .orElseThrow(() -> new IllegalArgumentException(
+                                                  "No PID config was supplied for resource " + resource));
             switch (resource) {
                 case CPU:
                     builder.put(Resource.CPU, new CpuConsumer(systemUtil, pidConfig));
@@ -48,6 +75,9 @@ public interface Consumer extends AutoCloseable {
                 case NETWORK:
                     builder.put(Resource.NETWORK, new NetworkConsumer(systemUtil, pidConfig, registry));
                     break;
+                case ALLOCATION:
+                    builder.put(Resource.ALLOCATION, new AllocationConsumer(systemUtil, pidConfig));
+                    break;
                     default:
                         throw new IllegalArgumentException("Unrecognized resource type " + resource);
             }
@@ -1,45 +1,70 @@
 package org.builder.session.jackson.workflow.utilize;
 
 import java.time.Duration;
-import java.time.Instant;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.build.session.jackson.proto.CpuSpec;
+import org.build.session.jackson.proto.Resource;
 import org.build.session.jackson.proto.Unit;
-import org.builder.session.jackson.client.ecs.TaskMetadataClient;
+import org.build.session.jackson.proto.UsageSpec;
 import org.builder.session.jackson.system.DigitalUnit;
 import org.builder.session.jackson.system.SystemUtil;
+import org.builder.session.jackson.system.CpuThrottling;
+import org.builder.session.jackson.system.CpuTopology;
+import org.builder.session.jackson.workflow.ControlScheduler;
+import org.builder.session.jackson.workflow.utilize.cpu.CpuControlMode;
+import org.builder.session.jackson.workflow.utilize.cpu.KernelType;
+import org.builder.session.jackson.workflow.utilize.cpu.PhaseMode;
+import org.builder.session.jackson.workflow.utilize.cpu.PlacementMode;
+import org.builder.session.jackson.workflow.utilize.cpu.PwmEngine;
+import org.builder.session.jackson.workflow.utilize.cpu.WorkloadAllocator;
 
 import com.google.common.base.Preconditions;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class CpuConsumer extends AbstractPidConsumer {
 
     private static final double DEFAULT_INITIAL_TARGET = 0.33;
+    // Throttling is controlled in parts per ten thousand, as the loop works in whole units.
+    private static final double THROTTLING_SCALE = 10_000.0;
     private static final Duration PERIOD =
             Duration.ofMillis(Integer.parseInt(System.getenv("CONSUMER_CPU_PERIOD_IN_MILLIS")));
-    private static final Comparator<AtomicLong> SMALLEST_TO_LARGEST = Comparator.comparingLong(a -> a.get());
-    private static final Comparator<AtomicLong> LARGEST_TO_SMALLEST = SMALLEST_TO_LARGEST.reversed();
+    private static final Duration DEFAULT_SLICE = Duration.ofNanos(500_000);
+    private static final Duration SLICE =
+            Optional.ofNullable(System.getenv("CONSUMER_CPU_SLICE_IN_MICROS"))
+                    .map(s -> Duration.ofNanos(Long.parseLong(s) * 1000))
+                    .orElse(DEFAULT_SLICE);
+    // How often the workers are resized to follow the online CPUs and CPU limit.
+    private static final Duration RESIZE_INTERVAL = Duration.ofSeconds(10);
 
     @Getter
     private final String name = "CpuConsumer";
+    @Getter(AccessLevel.PROTECTED)
+    private final Resource resource = Resource.CPU;
     @NonNull
+    @Getter(AccessLevel.PROTECTED)
     private final SystemUtil system;
     @NonNull
-    private final ExecutorService executorService;
+    private final PwmEngine engine;
+    // The workloads of the workers in use, guarded by this.
     @NonNull
-    private final List<AtomicLong> workloads;
+    private List<AtomicLong> workloads;
+    // The total busy time wanted across workers, guarded by this.
+    private long busy = 0;
     @NonNull
-    private final AtomicLong scaleAdjustment = new AtomicLong(0);
+    private WorkloadAllocator allocator = WorkloadAllocator.pack();
+    @NonNull
+    private volatile CpuControlMode mode = CpuControlMode.UTILIZATION;
+    private ControlScheduler.Task resizer = null;
 
     public CpuConsumer(@NonNull final SystemUtil system,
                           @NonNull final PIDConfig pidConfig) {
@@ -50,11 +75,6 @@ public class CpuConsumer extends AbstractPidConsumer {
                        @NonNull SystemUtil system,
                        @NonNull PIDConfig pidConfig) {
         super(pidConfig);
-        final long hostProcessorCount = TaskMetadataClient.createContainerStatsClient(Duration.ofMillis(1))
-                                                          .call()
-                                                          .getCpuStats()
-                                                          .getOnlineCpus();
-        Preconditions.checkArgument(hostProcessorCount > 0, "Processor count must be positive.");
         this.system = system;
         this.setTarget(targetPercentage, Unit.PERCENTAGE);
 
@@ -64,103 +84,230 @@ public class CpuConsumer extends AbstractPidConsumer {
          * to target. If multiple processors are on the CPU, the load is an average of those
          * percentages (assuming equally paced processors).
          *
-         * "Free" time can be generated by sleeping a thread and "Busy" time can be computed
+         * "Free" time can be generated by parking a thread and "Busy" time can be computed
          * by running some rapid computation (like checking whether you should still be busy).
-         * The simplest approach would be to Thread.sleep(Free) and loop a busy check for the
-         * Busy cycle. Gradually decreasing or increasing the busy/free times will change the
-         * CPU usage. However, this actually has odd results because we are dealing with
-         * fractions.
-         *
-         * FREE/BUSY (UTIL%) => 1/4 (80%) => 1/3 (66%) => 1/2 (33%) => 1/1 (50%)
-         *
-         * Using Thread.sleep(Nanos) produces strange results when the OS/JVM doesn't handle nanos
-         * correctly. Additionally, launching a large number of workers each doing 1/1000 work
-         * has a lot of memory overhead which results in a poor end result for other Consumers.
-         * Instead, we will proceed with the following concept.
+         * Gradually decreasing or increasing the busy/free times will change the CPU usage.
+         * Being busy for a whole burst and then free for the rest of a long period would look
+         * jagged to anything sampling faster than the period, so the PwmEngine repeats each
+         * worker's ratio over short slices instead. Longer slices and the phase mode can bring
+         * back bursts on purpose, either aligned across workers or spread out between them.
          *
-         * - We aim to optimize by seconds, this will give us roughly 1/(1000*PROCESSOR) precision.
-         * - Each Worker begins with essentially infinite sleep time in 1 second period: 1000/0
-         * - When scale comes in, we have to intelligently convert and assign load that would
-         *   make sense for the scale provided to one of the processors.
-         *
-         * How do we convert between SCALE (seemingly-arbitrary PID value based on PID config)
-         * and assignment? Assume SCALE=BUSY time. Then we always start with the first thread
-         * and move down the line when removing or adding scale. This addition and removal can
-         * be done by a single additional background thread.
+         * - Each worker holds the busy milliseconds wanted out of every PERIOD, giving roughly
+         *   1/(PERIOD*PROCESSOR) precision, and is applied by the engine at nanosecond precision.
+         * - Each Worker begins with no busy time: 0/PERIOD
+         * - When scale comes in, the total busy time (SCALE=BUSY time) changes and is spread
+         *   across the workers again in a single pass by the WorkloadAllocator, so a change of
+         *   any size takes effect within a slice. Workers are either packed in order, evened
+         *   out, or weighted explicitly per core.
+         * - There is a worker for each processor the task may use, which is fewer than the
+         *   host's processors when the task's CPU limit is smaller. The workers are resized
+         *   as either changes, and those not in use are parked rather than left spinning.
          */
-        this.executorService = Executors.newFixedThreadPool((int)hostProcessorCount + 1);
-        this.workloads = new ArrayList<>();
-
-        // Start the consuming threads...
-        for(int i = 0; i < hostProcessorCount; i++) {
-            final AtomicLong workload = new AtomicLong();
-            this.workloads.add(workload);
-            this.executorService.submit(() -> {
-                while(true) {
-                    try {
-                        Instant start = Instant.now();
-                        long workTimeInMillis = workload.get();
-                        long sleepTimeInMillis = PERIOD.toMillis() - workload.get();
-                        // The ratio of work to sleep time should be the CPU on this processor.
-                        while (Duration.between(start, Instant.now()).toMillis() < workTimeInMillis) { }
-                        if(sleepTimeInMillis > 0) {
-                            Thread.sleep(sleepTimeInMillis);
-                        }
-                    } catch (Throwable t) {
-                        log.warn("Ran into exception in CPU consumption thread.", t);
-                    }
-                }
-            });
-        }
+        this.engine = new PwmEngine(getName() + "Worker", getDesiredWorkers(), PERIOD, SLICE);
+        this.workloads = engine.getWorkloads();
+    }
+
+    /**
+     * The number of workers needed to reach the CPU limit: one per online processor, or
+     * as many whole processors as the limit covers if that is fewer. An unlimited task
+     * may use every online processor.
+     */
+    private int getDesiredWorkers () {
+        long online = system.getOnlineCpus();
+        Preconditions.checkState(online > 0, "Processor count must be positive.");
+        long limit = system.getTotalCpu(DigitalUnit.VCPU);
+        long unitsPerProcessor = system.getUnitsPerProcessor();
+        long limited = limit > 0 ? (limit + unitsPerProcessor - 1) / unitsPerProcessor : online;
+        return (int)Math.max(1L, Math.min(online, limited));
+    }
 
-        // Start the applier/adjustment thread...
-        executorService.submit(() -> {
-            while(true) {
-                try {
-                    long adjustment = scaleAdjustment.get();
-                    scaleAdjustment.addAndGet(-adjustment);
-                    //Sort to maintain ordering...
-                    Collections.sort(workloads, LARGEST_TO_SMALLEST);
-                    if(adjustment >= 0) {
-                        for(AtomicLong work : workloads) {
-                            if(adjustment <= 0) {
-                                break;
-                            } else {
-                                // We can adjust as long as the current adjustment is enough and there is space.
-                                while (work.get() < PERIOD.toMillis() && adjustment - work.get() >= 0) {
-                                    //Increment work for this thread and reduce adjustment equivalently.
-                                    adjustment -= work.getAndIncrement();
-                                }
-                            }
-                        }
-                    } else {
-                        for(AtomicLong work : workloads) {
-                            if(adjustment >= 0) {
-                                break;
-                            } else {
-                                // We can adjust as long as the current adjustment is enough and there is space.
-                                while (work.get() > 0 && work.get() + adjustment <= 0) {
-                                    //Decrement work for this thread and reduce adjustment equivalently.
-                                    adjustment += work.getAndDecrement();
-                                }
-                            }
-                        }
-                    }
-
-                    // Add the remainder value back in.
-                    scaleAdjustment.addAndGet(adjustment);
-                    log.debug("Workloads distributed (Remainder: {}): {}", adjustment, workloads);
-                    Thread.sleep(getRunDelay().toMillis());
-                } catch (Throwable t) {
-                    log.warn("Swallowing exception caught in CPUConsumer adjustment thread.", t);
+    /**
+     * Resizes the workers if the online processors or CPU limit changed, and spreads the
+     * busy time across the new set of workers.
+     */
+    private Duration resize () {
+        try {
+            int desired = getDesiredWorkers();
+            synchronized (this) {
+                if (desired != engine.getWorkers()) {
+                    log.info("Resizing workers of {} from {} to {}.",
+                             new Object[] { getName(), engine.getWorkers(), desired });
+                    engine.resize(desired);
+                    workloads = engine.getWorkloads();
+                    allocate();
                 }
             }
-        });
+        } catch (Throwable t) {
+            log.warn("Failed to resize the workers of " + getName() + ".", t);
+        }
+        return RESIZE_INTERVAL;
+    }
+
+    @Override
+    public void start (@NonNull final ControlScheduler scheduler) {
+        super.start(scheduler);
+        resizer = scheduler.schedule(getName() + "Resizer", RESIZE_INTERVAL, this::resize);
+    }
+
+    /**
+     * Selects what the target measures, how busy time is spread across workers,
+     * what they burn it on, how their bursts line up and which CPUs they are pinned to,
+     * if the usage supplies CPU options. A usage without them measures utilization.
+     */
+    @Override
+    public void configure (@NonNull final UsageSpec usage) {
+        CpuControlMode newMode = resolveMode(usage);
+        Optional<Options> options = resolveOptions(usage);
+        synchronized (this) {
+            options.ifPresent(this::applyOptions);
+            switchMode(newMode);
+        }
+    }
+
+    /**
+     * As configure, followed by the target of the usage. The units a target may be given in
+     * depend on the control mode, so the mode, options and target are all validated before
+     * any of them are applied, and are then applied together.
+     */
+    @Override
+    public void apply (@NonNull final UsageSpec usage) {
+        CpuControlMode newMode = resolveMode(usage);
+        Optional<Options> options = resolveOptions(usage);
+        Preconditions.checkArgument(isUnitAllowed(newMode, usage.getUnit()),
+                                    "Must specify a valid unit for " + getName() + " controlling "
+                                            + newMode + ", but got " + usage.getUnit());
+        throwIfValueInvalid(usage.getTarget());
+        synchronized (this) {
+            options.ifPresent(this::applyOptions);
+            switchMode(newMode);
+            setTarget(usage.getTarget(), usage.getUnit());
+        }
+    }
+
+    private CpuControlMode resolveMode (@NonNull final UsageSpec usage) {
+        if(!usage.hasCpu()) {
+            return CpuControlMode.UTILIZATION;
+        }
+        CpuControlMode newMode = CpuControlMode.valueOf(usage.getCpu().getControl().name());
+        // Without a CFS quota no enforcement periods elapse, so throttling would read as none forever.
+        Preconditions.checkArgument(CpuControlMode.UTILIZATION.equals(newMode) || system.getCpuThrottling().isPresent(),
+                                    "Cannot control " + newMode + " without a CPU quota being enforced on the consumer's container.");
+        return newMode;
+    }
+
+    /**
+     * Validates the CPU options of a usage without applying them.
+     */
+    private Optional<Options> resolveOptions (@NonNull final UsageSpec usage) {
+        if(!usage.hasCpu()) {
+            return Optional.empty();
+        }
+        CpuSpec spec = usage.getCpu();
+        WorkloadAllocator newAllocator;
+        switch (spec.getAllocation()) {
+            case PACK:
+                newAllocator = WorkloadAllocator.pack();
+                break;
+            case EVEN:
+                newAllocator = WorkloadAllocator.even();
+                break;
+            case EXPLICIT:
+                newAllocator = WorkloadAllocator.explicit(spec.getCoreWeightList());
+                break;
+            default:
+                throw new IllegalArgumentException("Unrecognized CPU allocation " + spec.getAllocation());
+        }
+        // The pool may grow up to a worker per online processor, and ignores weights beyond its size.
+        int maxWorkers = (int)system.getOnlineCpus();
+        newAllocator.checkWorkers(maxWorkers);
+        KernelType kernel = KernelType.valueOf(spec.getKernel().name());
+        int workingSetBytes = kernel.usesWorkingSet() ? kernel.resolveWorkingSet(spec.getWorkingSetBytes(), maxWorkers) : 0;
+        Preconditions.checkArgument(spec.getBurstPeriodInMicros() >= 0,
+                                    "Expected a non-negative burst period, but got " + spec.getBurstPeriodInMicros());
+        PwmEngine.Bursts bursts = new PwmEngine.Bursts(PhaseMode.valueOf(spec.getPhase().name()),
+                                                       spec.getBurstPeriodInMicros() > 0
+                                                               ? Duration.ofNanos(spec.getBurstPeriodInMicros() * 1000)
+                                                               : SLICE);
+        List<Integer> affinity = resolveAffinity(PlacementMode.valueOf(spec.getPlacement().name()),
+                                                 spec.getPinnedCpuList());
+        return Optional.of(new Options(newAllocator, kernel, workingSetBytes, bursts, affinity));
+    }
+
+    /**
+     * Callers must hold the lock on this.
+     */
+    private void applyOptions (@NonNull final Options options) {
+        log.info("Replacing allocator of {} from {} to {} and burning with {} over {} bytes.",
+                 new Object[] { getName(), allocator, options.getAllocator(), options.getKernel(), options.getWorkingSetBytes() });
+        allocator = options.getAllocator();
+        allocate();
+        KernelType kernel = options.getKernel();
+        int workingSetBytes = options.getWorkingSetBytes();
+        engine.setKernel(() -> kernel.create(workingSetBytes));
+        log.info("Replacing bursts of {} from {} to {}", new Object[] { getName(), engine.getBursts(), options.getBursts() });
+        engine.setBursts(options.getBursts().getPhase(), options.getBursts().getSlice());
+        log.info("Replacing affinity of {} from {} to {}", new Object[] { getName(), engine.getAffinity(), options.getAffinity() });
+        engine.setAffinity(options.getAffinity());
+    }
+
+    /**
+     * Callers must hold the lock on this.
+     */
+    private void switchMode (@NonNull final CpuControlMode newMode) {
+        if(!newMode.equals(mode)) {
+            log.info("Switching control mode of {} from {} to {}", new Object[] { getName(), mode, newMode });
+            mode = newMode;
+            onMeasureChanged();
+        }
+    }
+
+    /**
+     * The logical CPU to pin each worker to. Explicitly pinned CPUs take the place of the
+     * placement, and must be online, allowed for this process and among the CPUs reported
+     * in the per-CPU usage stats.
+     */
+    private List<Integer> resolveAffinity (@NonNull final PlacementMode placement,
+                                           @NonNull final List<Integer> pinned) {
+        if(!placement.isPinned() && pinned.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Optional<CpuTopology> topology = CpuTopology.read();
+        Preconditions.checkArgument(topology.isPresent(),
+                                    "Cannot pin CPU workers without the CPU topology of a Linux host.");
+        List<Integer> cpus = pinned.isEmpty() ? placement.place(topology.get()) : pinned;
+        Preconditions.checkArgument(cpus.stream().distinct().count() == cpus.size(),
+                                    "Expected each worker to be pinned to a different CPU, but got " + cpus);
+        Optional<Integer> reported = system.getPerCpuUsage().map(List::size);
+        for(int cpu : cpus) {
+            Preconditions.checkArgument(topology.get().isAvailable(cpu),
+                                        "CPU " + cpu + " is not online or not allowed for this process.");
+            Preconditions.checkArgument(reported.map(r -> cpu < r).orElse(true),
+                                        "CPU " + cpu + " is not among the " + reported.orElse(0)
+                                                + " CPUs reported in the per-CPU usage stats.");
+        }
+        return cpus;
+    }
+
+    /**
+     * Spreads the total busy time across the workers. Callers must hold the lock on this.
+     */
+    private void allocate () {
+        long allocated = allocator.allocate(busy, workloads, PERIOD.toMillis());
+        engine.wake();
+        if (log.isDebugEnabled()) {
+            log.debug("Workloads allocated ({} of {}): {}", new Object[] { allocated, busy, workloads });
+        }
     }
 
     @Override
     public boolean isUnitAllowed (Unit unit) {
-        return DigitalUnit.isPercentage(unit) || DigitalUnit.VCPU.canConvertTo(unit);
+        return isUnitAllowed(mode, unit);
+    }
+
+    private static boolean isUnitAllowed (@NonNull final CpuControlMode mode, Unit unit) {
+        // Throttling is only a fraction, so it has no absolute unit.
+        return DigitalUnit.isPercentage(unit)
+                || (CpuControlMode.UTILIZATION.equals(mode) && DigitalUnit.VCPU.canConvertTo(unit));
     }
 
     @Override
@@ -181,9 +328,20 @@ public class CpuConsumer extends AbstractPidConsumer {
         }
     }
 
+    /**
+     * When a sample has no throttling data, the target is reported so the load is held rather
+     * than driven up by a reading of no throttling.
+     */
     @Override
     public double getActual () {
-        return this.system.getCpuPercentage();
+        switch (mode) {
+            case THROTTLED_PERIODS:
+                return this.system.getCpuThrottling().map(CpuThrottling::getThrottledPeriodFraction).orElse(getTarget());
+            case THROTTLED_TIME:
+                return this.system.getCpuThrottling().map(CpuThrottling::getThrottledTimeRatio).orElse(getTarget());
+            default:
+                return this.system.getCpuPercentage();
+        }
     }
 
     @Override
@@ -198,29 +356,58 @@ public class CpuConsumer extends AbstractPidConsumer {
 
     @Override
     protected long getGoal () {
-        return (long)getTarget(Unit.VCPU);
+        return CpuControlMode.UTILIZATION.equals(mode)
+                ? (long)getTarget(Unit.VCPU)
+                : (long)(getTarget() * THROTTLING_SCALE);
     }
 
     @Override
     protected long getConsumed () {
-        return (long)getActual(Unit.VCPU);
+        return CpuControlMode.UTILIZATION.equals(mode)
+                ? (long)getActual(Unit.VCPU)
+                : (long)(getActual() * THROTTLING_SCALE);
+    }
+
+    @Override
+    protected long getMaxLoad () {
+        // Every worker busy for its whole period.
+        return engine.getWorkers() * PERIOD.toMillis();
     }
 
     @Override
-    protected void generateLoad (long scale) {
+    protected synchronized void generateLoad (long scale) {
         Preconditions.checkArgument(scale >= 0, "Scale should be greater than or equal to zero.");
-        scaleAdjustment.addAndGet(scale);
+        busy += scale;
+        allocate();
     }
 
     @Override
-    protected void destroyLoad (long scale) {
+    protected synchronized void destroyLoad (long scale) {
         Preconditions.checkArgument(scale >= 0, "Scale should be greater than or equal to zero.");
-        scaleAdjustment.addAndGet(-scale);
+        busy -= scale;
+        allocate();
     }
 
     @Override
     public void close() {
-        executorService.shutdown();
+        Optional.ofNullable(resizer).ifPresent(ControlScheduler.Task::cancel);
+        engine.close();
         super.close();
     }
+
+    /**
+     * The validated CPU options of a usage, other than the control mode.
+     */
+    @Value
+    private static class Options {
+        @NonNull
+        WorkloadAllocator allocator;
+        @NonNull
+        KernelType kernel;
+        int workingSetBytes;
+        @NonNull
+        PwmEngine.Bursts bursts;
+        @NonNull
+        List<Integer> affinity;
+    }
 }
@@ -1,50 +1,54 @@
 package org.builder.session.jackson.workflow.utilize;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.time.Duration;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.build.session.jackson.proto.DiskSpec;
+import org.build.session.jackson.proto.Resource;
 import org.build.session.jackson.proto.Unit;
-import org.builder.session.jackson.exception.ConsumerInternalException;
+import org.build.session.jackson.proto.UsageSpec;
 import org.builder.session.jackson.system.DigitalUnit;
 import org.builder.session.jackson.system.SystemUtil;
-import org.builder.session.jackson.utils.DynamicByteArray;
-import org.builder.session.jackson.utils.FileUtilities;
+import org.builder.session.jackson.workflow.utilize.disk.DiskEngine;
+import org.builder.session.jackson.workflow.utilize.disk.OffsetPattern;
 
 import com.google.common.base.Preconditions;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Reads and writes a fixed set of files at a target rate, as measured by the bytes the
+ * task moves to and from storage. The block size, offsets, mix of reads and writes, and
+ * queue depth are set by the usage's disk options, in the manner of fio. The files are
+ * small enough to stay in the page cache, so reads are mostly cache hits that don't count
+ * towards the measured rate, and the rate asked of the engine is capped.
+ */
 @Slf4j
 public class DiskConsumer extends AbstractPidConsumer {
 
     private static final long DEFAULT_INITIAL_TARGET = 10000; // 10 MB/Second
-    private static final Duration WRITE_PACE = Duration.ofMillis(500);
-    private static final Duration SWAP_PACE = Duration.ofSeconds(20);
-    private static final int FILE_BUFFER_SIZE = 3;
+    private static final int DEFAULT_BLOCK_BYTES = 4096;
+    private static final int DEFAULT_QUEUE_DEPTH = 1;
+    // The most rate asked of the engine, as a multiple of the goal and at least a floor, in the
+    // stored unit. Reads that hit the cache may keep the measured rate below the goal, and
+    // without a cap the loop would raise the load without bound.
+    private static final long MAX_LOAD_FACTOR = 4;
+    private static final long MIN_MAX_LOAD = 1024; // 1 MB/Second
 
     @Getter
     private final String name = "DiskConsumer";
+    @Getter(AccessLevel.PROTECTED)
+    private final Resource resource = Resource.DISK;
     @NonNull
+    @Getter(AccessLevel.PROTECTED)
     private final SystemUtil system;
     @NonNull
-    private final ScheduledExecutorService executor;
+    private final DiskEngine engine = new DiskEngine(getName());
+    // The disk rate asked of the engine, in the stored unit.
     @NonNull
-    private final AtomicInteger scaleAdjustment = new AtomicInteger(0);
-    @NonNull
-    private final List<File> fileBuffer = new ArrayList<>(FILE_BUFFER_SIZE);
+    private final AtomicLong load = new AtomicLong(0);
 
     public DiskConsumer (@NonNull final SystemUtil system, @NonNull final PIDConfig pidConfig) {
         this(DigitalUnit.BYTES_PER_SECOND
@@ -58,95 +62,36 @@ public class DiskConsumer extends AbstractPidConsumer {
         super(pidConfig);
         this.system = system;
         this.setTarget(targetRateInBytes, Unit.BYTES_PER_SECOND);
-        this.executor = Executors.newScheduledThreadPool(4);
-
-        //Prepare file buffers for data transfer.
-        AtomicInteger fileRef = new AtomicInteger(0);
-        try {
-            for (int i = 0; i < 3; i++) {
-                File file = FileUtilities.createTempFile(Optional.of("DiskConsumer" + i));
-                fileBuffer.add(file);
-                FileUtilities.reset(file, true);
-            }
-        } catch (Throwable t) {
-            throw new ConsumerInternalException("Failed to start DiskConsumer.", t);
-        }
+    }
 
-        //Start Writer
-        DynamicByteArray writeData = new DynamicByteArray();
-        this.executor.scheduleAtFixedRate(() -> {
-            try {
-                File fileToWrite = fileBuffer.get(calculateIndex(fileRef.get(), FILE_BUFFER_SIZE, 0));
-                // Only one file reads, writes or deletes at a given time.
-                // This should be limited anyway due to the indexing.
-                synchronized (fileToWrite) {
-                    try (OutputStream output = new FileOutputStream(fileToWrite)) {
-                        int dataSize = scaleAdjustment.get();
-                        log.debug("Writing {} bytes to file {}.", dataSize, fileToWrite.getName());
-                        writeData.setSize(dataSize > 0 ? dataSize : 1);
-                        writeData.write(output);
-                        output.flush();
-                    }
-                }
-            } catch (Throwable t) {
-                log.error("Encountered error in DiskConsumer Writer.", t);
-            } finally {
-
-            }
-        }, 0, WRITE_PACE.toMillis(), TimeUnit.MILLISECONDS);
-
-        //Start Reader
-        DynamicByteArray readData = new DynamicByteArray();
-        this.executor.scheduleAtFixedRate(() -> {
-            try {
-                File fileToRead = fileBuffer.get(calculateIndex(fileRef.get(), FILE_BUFFER_SIZE, 1));
-                // Only one file reads, writes or deletes at a given time.
-                // This should be limited anyway due to the indexing.
-                synchronized (fileToRead) {
-                    try (InputStream input = new FileInputStream(fileToRead)) {
-                        while (input.available() > 0) {
-                            int availableToRead = input.available();
-                            log.debug("Reading {} bytes from file {}.", availableToRead, fileToRead.getName());
-                            readData.setSize(availableToRead <= 0 ? 1 : availableToRead);
-                            readData.read(input, availableToRead);
-                        }
-                    }
-                }
-            } catch (Throwable t) {
-                log.error("Encountered error in DiskConsumer Writer.", t);
-            }
-        }, 0, WRITE_PACE.toMillis(), TimeUnit.MILLISECONDS);
-
-        //Start Swapper
-        this.executor.scheduleAtFixedRate(() -> {
-            try {
-                //Swap file pointer...
-                fileRef.getAndUpdate(i -> calculateIndex(i, FILE_BUFFER_SIZE, 1));
-                File fileToDelete = fileBuffer.get(calculateIndex(fileRef.get(), FILE_BUFFER_SIZE, 2));
-                // Only one file reads, writes or deletes at a given time.
-                // This should be limited anyway due to the indexing.
-                synchronized (fileToDelete) {
-                    //Erase next file...
-                    log.debug("Deleting file {}.", fileToDelete.getName());
-                    FileUtilities.reset(fileToDelete, true);
-                }
-            } catch (Throwable t) {
-                log.error("Encountered error in DiskConsumer Swapper.", t);
-            }
-        }, 0, SWAP_PACE.toMillis(), TimeUnit.MILLISECONDS);
-    }
-
-    private int calculateIndex(int index, int size, int offset) {
-        Preconditions.checkArgument(index >= 0 && index < size,
-                                    "Index " + index + " was out of bounds for size " + size);
-        Preconditions.checkArgument(offset < size,
-                                    "The offset (" + offset + ") must be less than the size " + size);
-        int rawIndex = index + offset;
-        if(rawIndex < 0 || rawIndex >= size) {
-            return offset > 0 ? rawIndex - size : rawIndex + size;
-        } else {
-            return rawIndex;
+    /**
+     * Selects how blocks are read and written, if the usage supplies disk options.
+     */
+    @Override
+    public void configure (@NonNull final UsageSpec usage) {
+        if(!usage.hasDisk()) {
+            return;
+        }
+        DiskSpec spec = usage.getDisk();
+        OffsetPattern offsets;
+        switch (spec.getAccess()) {
+            case SEQUENTIAL_IO:
+                offsets = OffsetPattern.SEQUENTIAL_IO;
+                break;
+            case RANDOM_IO:
+                offsets = OffsetPattern.RANDOM_IO;
+                break;
+            default:
+                throw new IllegalArgumentException("Unrecognized disk access " + spec.getAccess());
         }
+        DiskEngine.Plan plan = new DiskEngine.Plan(
+                spec.getBlockBytes() > 0 ? spec.getBlockBytes() : DEFAULT_BLOCK_BYTES,
+                offsets,
+                spec.getReadShare(),
+                spec.getQueueDepth() > 0 ? spec.getQueueDepth() : DEFAULT_QUEUE_DEPTH,
+                spec.getSyncWrites());
+        log.info("Replacing disk access of {} from {} to {}", new Object[] { getName(), engine.getPlan(), plan });
+        engine.setPlan(plan);
     }
 
     @Override
@@ -189,27 +134,30 @@ public class DiskConsumer extends AbstractPidConsumer {
         return (long) getActual(getStoredUnit());
     }
 
+    @Override
+    protected long getMaxLoad () {
+        return Math.max(MIN_MAX_LOAD, MAX_LOAD_FACTOR * getGoal());
+    }
+
     @Override
     protected void generateLoad (long scale) {
         Preconditions.checkArgument(scale >= 0, "Scale should be greater than or equal to zero.");
-        Preconditions.checkArgument(Math.abs(scale) <= (long)Integer.MAX_VALUE, "Scale should be integer size.");
-        scaleAdjustment.addAndGet((int)scale);
+        adjustRate(load.addAndGet(scale));
     }
 
     @Override
     protected void destroyLoad (long scale) {
         Preconditions.checkArgument(scale >= 0, "Scale should be greater than or equal to zero.");
-        Preconditions.checkArgument(Math.abs(scale) <= (long)Integer.MAX_VALUE, "Scale should be integer size.");
-        scaleAdjustment.addAndGet((int)-scale);
+        adjustRate(load.addAndGet(-scale));
+    }
+
+    private void adjustRate (long rate) {
+        engine.setBytesPerSecond(DigitalUnit.BYTES_PER_SECOND.from(Math.max(0L, rate), DigitalUnit.from(getStoredUnit())));
     }
 
     @Override
     public void close () {
-        try {
-            executor.shutdown();
-        } catch (Throwable t) {
-            throw new RuntimeException("Failed to close DiskConsumer.", t);
-        }
+        engine.close();
         super.close();
     }
 }
@@ -1,31 +1,95 @@
 package org.builder.session.jackson.workflow.utilize;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
+import org.build.session.jackson.proto.MemorySpec;
+import org.build.session.jackson.proto.Resource;
 import org.build.session.jackson.proto.Unit;
+import org.build.session.jackson.proto.UsageSpec;
+import org.builder.session.jackson.exception.ConsumerDependencyException;
 import org.builder.session.jackson.system.DigitalUnit;
+import org.builder.session.jackson.system.PageCache;
 import org.builder.session.jackson.system.SystemUtil;
+import org.builder.session.jackson.workflow.ControlScheduler;
+import org.builder.session.jackson.workflow.utilize.memory.AccessPattern;
+import org.builder.session.jackson.workflow.utilize.memory.BackingMode;
+import org.builder.session.jackson.workflow.utilize.memory.HeapFootprint;
+import org.builder.session.jackson.workflow.utilize.memory.MemoryAccessEngine;
+import org.builder.session.jackson.workflow.utilize.memory.MemoryStore;
+import org.builder.session.jackson.workflow.utilize.memory.PageCacheMemoryStore;
 
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import lombok.AccessLevel;
+import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class MemoryConsumer extends AbstractPidConsumer {
 
     private static final double DEFAULT_INITIAL_TARGET = 0.33;
-    public static final int MEMORY_PER_LOAD_IN_BYTES =
-            Integer.parseInt(System.getenv("CONSUMER_MEMORY_PER_LOAD_IN_BYTES"));
+    // The unit of load, which is the unit of the goal and consumption, so that the loop sees a
+    // plant gain of about one whatever the size of the task.
+    private static final DigitalUnit LOAD_UNIT = DigitalUnit.MEGABYTES;
+    private static final double DEFAULT_HOT_FRACTION = 0.1;
+    private static final double DEFAULT_HOT_ACCESS_SHARE = 0.9;
+    // The memory left free when growing TMPFS, as a fraction of the task's memory and at least.
+    private static final double TMPFS_HEADROOM_FRACTION = 0.05;
+    private static final long MIN_TMPFS_HEADROOM_BYTES = 64L * 1024 * 1024;
+    // How often the heap footprint is checked, in HEAP_FOOTPRINT.
+    private static final Duration FOOTPRINT_INTERVAL = Duration.ofMillis(250);
 
     @Getter
     private final String name = "MemoryConsumer";
+    @Getter(AccessLevel.PROTECTED)
+    private final Resource resource = Resource.MEMORY;
     @NonNull
+    @Getter(AccessLevel.PROTECTED)
     private final SystemUtil system;
+    // Guarded by this.
     @NonNull
-    private Queue<byte[]> load = new LinkedList<>();
+    private BackingMode backing = BackingMode.HEAP;
+    @NonNull
+    private MemoryStore load = backing.create();
+    @NonNull
+    private final MemoryAccessEngine access = new MemoryAccessEngine(getName() + "Access", load);
+    @NonNull
+    private final HeapFootprint heapFootprint = new HeapFootprint();
+    // Trims the heap on its own thread, as a full collection would hold up the ControlScheduler.
+    private ScheduledExecutorService footprintTrimmer = null;
+
+    /**
+     * The memory held by this consumer against what the task uses, so that the footprint
+     * beyond the load, from the JVM, garbage and other processes, can be watched.
+     */
+    @Value
+    @Builder
+    public static class Footprint {
+        private final long heldBytes;
+        private final long usedBytes;
+        @NonNull
+        private final HeapFootprint.Snapshot heap;
+        // Or null if the system doesn't report it.
+        private final PageCache pageCache;
+        // The access rates asked for, and those reached.
+        @NonNull
+        private final MemoryAccessEngine.Plan plan;
+        @NonNull
+        private final MemoryAccessEngine.Rates achieved;
+
+        public long getOverheadBytes () {
+            return usedBytes - heldBytes;
+        }
+    }
 
     public MemoryConsumer(@NonNull final SystemUtil system,
                           @NonNull final PIDConfig pidConfig) {
@@ -40,6 +104,110 @@ public class MemoryConsumer extends AbstractPidConsumer {
         setTarget(targetPercentage, Unit.PERCENTAGE);
     }
 
+    /**
+     * Selects where memory is held and how it is accessed, if the usage supplies memory
+     * options. The old backing lets go of its memory before the new one takes it, so that
+     * usage never doubles. Moving to or from PAGE_CACHE changes what is measured, from all
+     * memory used to the page cache alone.
+     */
+    @Override
+    public void configure (@NonNull final UsageSpec usage) {
+        if(!usage.hasMemory()) {
+            return;
+        }
+        MemorySpec spec = usage.getMemory();
+        BackingMode newBacking = BackingMode.valueOf(spec.getBacking().name());
+        double dirtyShare = spec.getDirtyShare();
+        Preconditions.checkArgument(0.0 <= dirtyShare && dirtyShare <= 1.0,
+                                    "Expected a dirty share within [0, 1], but got " + dirtyShare);
+        Preconditions.checkArgument(!BackingMode.PAGE_CACHE.equals(newBacking) || system.getPageCache().isPresent(),
+                                    "Cannot hold " + newBacking + " without page cache stats from the system.");
+        MemoryAccessEngine.Plan plan = new MemoryAccessEngine.Plan(
+                AccessPattern.valueOf(spec.getAccess().name()),
+                spec.getReadBytesPerSecond(),
+                spec.getWriteBytesPerSecond(),
+                spec.getHotFraction() > 0.0 ? spec.getHotFraction() : DEFAULT_HOT_FRACTION,
+                spec.getHotAccessShare() > 0.0 ? spec.getHotAccessShare() : DEFAULT_HOT_ACCESS_SHARE);
+        log.info("Replacing memory access of {} from {} to {}", new Object[] { getName(), access.getPlan(), plan });
+        access.setPlan(plan);
+        synchronized (this) {
+            if(newBacking.equals(backing)) {
+                setDirtyShare(load, dirtyShare);
+                return;
+            }
+            MemoryStore newLoad = newBacking.create();
+            setDirtyShare(newLoad, dirtyShare);
+            long bytes = load.getBytes();
+            log.info("Moving {} bytes of {} from {} to {}",
+                     new Object[] { bytes, getName(), backing, newBacking });
+            load.close();
+            newLoad.grow(bytes);
+            load = newLoad;
+            access.setStore(newLoad);
+            boolean measureChanged = BackingMode.PAGE_CACHE.equals(backing) != BackingMode.PAGE_CACHE.equals(newBacking);
+            backing = newBacking;
+            if(measureChanged) {
+                onMeasureChanged();
+            }
+        }
+    }
+
+    private static void setDirtyShare (MemoryStore store, double dirtyShare) {
+        if(store instanceof PageCacheMemoryStore) {
+            ((PageCacheMemoryStore)store).setDirtyShare(dirtyShare);
+        }
+    }
+
+    private synchronized BackingMode getBacking () {
+        return backing;
+    }
+
+    @Override
+    public void start (@NonNull final ControlScheduler scheduler) {
+        super.start(scheduler);
+        ThreadFactory factory = new ThreadFactoryBuilder().setNameFormat(getName() + "HeapFootprint")
+                                                          .setDaemon(true)
+                                                          .build();
+        footprintTrimmer = Executors.newSingleThreadScheduledExecutor(factory);
+        footprintTrimmer.scheduleWithFixedDelay(this::trimHeap,
+                                                FOOTPRINT_INTERVAL.toMillis(),
+                                                FOOTPRINT_INTERVAL.toMillis(),
+                                                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Collects the heap once enough heap-held load was released, in HEAP_FOOTPRINT.
+     */
+    private void trimHeap () {
+        try {
+            long held;
+            synchronized (this) {
+                if(!BackingMode.HEAP_FOOTPRINT.equals(backing)) {
+                    return;
+                }
+                held = load.getBytes();
+            }
+            heapFootprint.trim(held);
+        } catch (Throwable t) {
+            log.warn("Failed to trim the heap footprint of " + getName() + ".", t);
+        }
+    }
+
+    public Footprint getFootprint () {
+        long held;
+        synchronized (this) {
+            held = load.getBytes();
+        }
+        return Footprint.builder()
+                        .heldBytes(held)
+                        .usedBytes(system.getUsedMemory(DigitalUnit.BYTES))
+                        .heap(heapFootprint.snapshot())
+                        .pageCache(system.getPageCache().orElse(null))
+                        .plan(access.getPlan())
+                        .achieved(access.getAchieved())
+                        .build();
+    }
+
     @Override
     public boolean isUnitAllowed (Unit unit) {
         return DigitalUnit.isPercentage(unit) || DigitalUnit.BYTES.canConvertTo(unit);
@@ -65,6 +233,11 @@ public class MemoryConsumer extends AbstractPidConsumer {
 
     @Override
     public double getActual () {
+        if(BackingMode.PAGE_CACHE.equals(getBacking())) {
+            PageCache cache = this.system.getPageCache()
+                                         .orElseThrow(() -> new ConsumerDependencyException("No page cache stats were reported."));
+            return (double)cache.getCacheBytes() / (double)this.system.getTotalMemory(DigitalUnit.BYTES);
+        }
         return this.system.getMemoryPercentage();
     }
 
@@ -80,29 +253,52 @@ public class MemoryConsumer extends AbstractPidConsumer {
 
     @Override
     protected long getGoal () {
-        return (long)getTarget(Unit.MEGABYTES);
+        return (long)getTarget(LOAD_UNIT.toUnit());
     }
 
     @Override
     protected long getConsumed () {
-        return (long)getActual(Unit.MEGABYTES);
+        return (long)getActual(LOAD_UNIT.toUnit());
+    }
+
+    @Override
+    protected long getMaxLoad () {
+        return this.system.getTotalMemory(LOAD_UNIT);
     }
 
     @Override
-    protected void generateLoad (long scale) {
+    protected synchronized void generateLoad (long scale) {
         Preconditions.checkArgument(scale >= 0, "Scale should be greater than or equal to zero.");
-        for(int i = 0; i < scale; i++) {
-            load.add(new byte[MEMORY_PER_LOAD_IN_BYTES]);
+        long bytes = DigitalUnit.BYTES.from(scale, LOAD_UNIT);
+        if(BackingMode.TMPFS.equals(backing)) {
+            // Nothing in the JVM bounds tmpfs, and the cgroup would kill the task rather than fail
+            // the write, so only take the memory the task has free, short of some headroom for the
+            // JVM and for usage that grew since the last sample.
+            long total = system.getTotalMemory(DigitalUnit.BYTES);
+            long free = total - system.getUsedMemory(DigitalUnit.BYTES);
+            long headroom = Math.max(MIN_TMPFS_HEADROOM_BYTES, (long)(total * TMPFS_HEADROOM_FRACTION));
+            bytes = Math.min(bytes, Math.max(0L, free - headroom));
         }
+        load.grow(bytes);
     }
 
     @Override
-    protected void destroyLoad (long scale) {
+    protected synchronized void destroyLoad (long scale) {
         Preconditions.checkArgument(scale >= 0, "Scale should be greater than or equal to zero.");
-        for(int i = 0; i < scale && !load.isEmpty(); i++) {
-            //TODO: This consumer would function much more accurately if it created memory outside of the heap.
-            //      this would reduce the delay between destroyLoad() and GC cycles.
-            load.remove();
+        long before = load.getBytes();
+        load.shrink(DigitalUnit.BYTES.from(scale, LOAD_UNIT));
+        if(BackingMode.HEAP_FOOTPRINT.equals(backing)) {
+            heapFootprint.onReleased(before - load.getBytes());
+        }
+    }
+
+    @Override
+    public void close() {
+        Optional.ofNullable(footprintTrimmer).ifPresent(ScheduledExecutorService::shutdownNow);
+        access.close();
+        synchronized (this) {
+            load.close();
         }
+        super.close();
     }
 }
@@ -13,6 +13,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.build.session.jackson.proto.Resource;
 import org.build.session.jackson.proto.Unit;
 import org.builder.session.jackson.client.loadbalancing.ServiceRegistry;
 import org.builder.session.jackson.exception.ConsumerInternalException;
@@ -22,6 +23,7 @@ import org.builder.session.jackson.utils.DynamicByteArray;
 
 import com.google.common.base.Preconditions;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -36,7 +38,10 @@ public class NetworkConsumer extends AbstractPidConsumer {
 
     @Getter
     private final String name = "NetworkConsumer";
+    @Getter(AccessLevel.PROTECTED)
+    private final Resource resource = Resource.NETWORK;
     @NonNull
+    @Getter(AccessLevel.PROTECTED)
     private final SystemUtil system;
     @NonNull
     private final ServerSocket server;
@@ -1,20 +1,94 @@
 package org.builder.session.jackson.workflow.utilize;
 
 import java.time.Duration;
+import java.util.Optional;
+
+import org.builder.session.jackson.workflow.control.ControllerType;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Range;
 
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.NonNull;
 import lombok.ToString;
 
 @ToString
 @EqualsAndHashCode
-@Builder
 @Getter
 public class PIDConfig {
-    private Duration pace = Duration.ofSeconds(1);
-    private double proportionFactor = 0.333;
-    private double derivativeFactor = 0.333;
-    private double integralFactor = 0.333;
-    private double integralDecay = 0.95;
+    private static final Range<Double> FACTOR_RANGE = Range.open(0.0, 10.0);
+    private static final Duration DEFAULT_MAX_SAMPLE_WAIT = Duration.ofSeconds(30);
+
+    private final Duration pace;
+    private final double proportionFactor;
+    private final double derivativeFactor;
+    private final double integralFactor;
+    private final double integralDecay;
+    // Whether a learned plant model should set the load on target changes, leaving PID the residual.
+    private final boolean feedForward;
+    // The control law run by the loop, PID unless specified.
+    private final ControllerType controller;
+    // The most that load can move in one iteration, if positive. Also the step of bang-bang control.
+    private final long outputRateLimit;
+    // The error, in units of the goal, tolerated before bang-bang control moves the load.
+    private final long hysteresis;
+    // The iterations over which predictive control plans to reach the goal, if positive.
+    private final int horizon;
+    // The longest the loop waits for a fresh sample before it acts on the latest reading anyway.
+    private final Duration maxSampleWait;
+    // Whether the pace follows the measured refresh interval of the resource instead of the pace above.
+    private final boolean adaptivePace;
+
+    @Builder(toBuilder = true)
+    private PIDConfig(@NonNull final Duration pace,
+                      final double proportionFactor,
+                      final double derivativeFactor,
+                      final double integralFactor,
+                      final double integralDecay,
+                      final boolean feedForward,
+                      final ControllerType controller,
+                      final long outputRateLimit,
+                      final long hysteresis,
+                      final int horizon,
+                      final Duration maxSampleWait,
+                      final boolean adaptivePace) {
+        Preconditions.checkArgument(!pace.isNegative() && !pace.isZero(),
+                                    "Expected a positive pace, but got " + pace);
+        Preconditions.checkArgument(FACTOR_RANGE.contains(proportionFactor),
+                                    "Expected valid P-Value within range " + FACTOR_RANGE);
+        Preconditions.checkArgument(FACTOR_RANGE.contains(derivativeFactor),
+                                    "Expected valid D-Value within range " + FACTOR_RANGE);
+        Preconditions.checkArgument(FACTOR_RANGE.contains(integralFactor),
+                                    "Expected valid I-Value within range " + FACTOR_RANGE);
+        Preconditions.checkArgument(FACTOR_RANGE.contains(integralDecay),
+                                    "Expected valid Decay within range " + FACTOR_RANGE);
+        Preconditions.checkArgument(outputRateLimit >= 0,
+                                    "Expected a non-negative output rate limit, but got " + outputRateLimit);
+        Preconditions.checkArgument(hysteresis >= 0,
+                                    "Expected a non-negative hysteresis, but got " + hysteresis);
+        Preconditions.checkArgument(horizon >= 0,
+                                    "Expected a non-negative horizon, but got " + horizon);
+        Duration sampleWait = Optional.ofNullable(maxSampleWait).orElse(DEFAULT_MAX_SAMPLE_WAIT);
+        Preconditions.checkArgument(!sampleWait.isNegative() && !sampleWait.isZero(),
+                                    "Expected a positive max sample wait, but got " + sampleWait);
+        ControllerType type = Optional.ofNullable(controller).orElse(ControllerType.PID);
+        Preconditions.checkArgument(!ControllerType.BANG_BANG.equals(type) || outputRateLimit > 0,
+                                    "Expected a positive output rate limit for bang-bang control.");
+        Preconditions.checkArgument(!ControllerType.SLEW_LIMITED.equals(type) || outputRateLimit > 0,
+                                    "Expected a positive output rate limit for slew-limited control.");
+        this.pace = pace;
+        this.proportionFactor = proportionFactor;
+        this.derivativeFactor = derivativeFactor;
+        this.integralFactor = integralFactor;
+        this.integralDecay = integralDecay;
+        this.feedForward = feedForward;
+        this.controller = type;
+        this.outputRateLimit = outputRateLimit;
+        this.hysteresis = hysteresis;
+        this.horizon = horizon;
+        this.maxSampleWait = sampleWait;
+        this.adaptivePace = adaptivePace;
+    }
 }
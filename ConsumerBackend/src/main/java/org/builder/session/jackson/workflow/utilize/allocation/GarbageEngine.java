@@ -0,0 +1,155 @@
+package org.builder.session.jackson.workflow.utilize.allocation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Allocates short-lived garbage at a target rate, so that the JVM sees allocation pressure
+ * and collects often while the live set stays small. Each object stays reachable only
+ * until a small ring of recent objects wraps around, which keeps the JIT from eliding
+ * the allocations while letting almost every object die in the young generation.
+ * Work is paced on System.nanoTime() like the memory access engine, and any backlog
+ * beyond a short time is dropped rather than made up in a burst.
+ */
+@Slf4j
+public class GarbageEngine implements AutoCloseable {
+
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // The most bytes allocated before the clock is read again.
+    private static final long BATCH_BYTES = 1024 * 1024;
+    // The most time that unused budget may build up over.
+    private static final long MAX_BACKLOG_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // The header of a byte array, which is counted as part of the object's size.
+    private static final int ARRAY_HEADER_BYTES = 16;
+    // Must be a power of two. Small, so that even the largest objects keep the live set small.
+    private static final int RECENT_OBJECTS = 16;
+
+    @NonNull
+    private final Thread thread;
+    // Written only by the engine's thread.
+    @NonNull
+    private final byte[][] recent = new byte[RECENT_OBJECTS][];
+    @Getter
+    @NonNull
+    private volatile Plan plan = Plan.DEFAULT;
+    @Getter
+    private volatile long bytesPerSecond = 0;
+    // The bytes allocated since the engine started, including array headers. Written only
+    // by the engine's thread.
+    @Getter
+    private volatile long allocatedBytes = 0;
+    private volatile boolean running = true;
+
+    /**
+     * The sizes of allocated objects.
+     */
+    @Value
+    public static class Plan {
+        public static final Plan DEFAULT = new Plan(SizeDistribution.FIXED_SIZE, 256, 1024 * 1024);
+
+        @NonNull
+        private final SizeDistribution sizes;
+        private final int meanObjectBytes;
+        private final int maxObjectBytes;
+
+        public Plan(@NonNull final SizeDistribution sizes, final int meanObjectBytes, final int maxObjectBytes) {
+            Preconditions.checkArgument(meanObjectBytes > 0,
+                                        "Expected a positive mean object size, but got " + meanObjectBytes);
+            Preconditions.checkArgument(meanObjectBytes <= maxObjectBytes,
+                                        "Expected a mean object size of at most " + maxObjectBytes
+                                                + " bytes, but got " + meanObjectBytes);
+            this.sizes = sizes;
+            this.meanObjectBytes = meanObjectBytes;
+            this.maxObjectBytes = maxObjectBytes;
+        }
+    }
+
+    public GarbageEngine(@NonNull final String name) {
+        ThreadFactory factory = new ThreadFactoryBuilder().setNameFormat(name)
+                                                          .setDaemon(true)
+                                                          .build();
+        this.thread = factory.newThread(this::run);
+        this.thread.start();
+    }
+
+    public void setPlan(@NonNull final Plan plan) {
+        this.plan = plan;
+        LockSupport.unpark(thread);
+    }
+
+    public void setBytesPerSecond(final long bytesPerSecond) {
+        Preconditions.checkArgument(bytesPerSecond >= 0, "Expected a non-negative allocation rate.");
+        this.bytesPerSecond = bytesPerSecond;
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        SplittableRandom random = new SplittableRandom();
+        Plan current = null;
+        int next = 0;
+        int slot = 0;
+        long last = System.nanoTime();
+        // Unused budget, in bytes.
+        double budget = 0.0;
+        while (running) {
+            try {
+                long rate = bytesPerSecond;
+                if (rate == 0) {
+                    LockSupport.parkNanos(this, IDLE_NANOS);
+                    last = System.nanoTime();
+                    budget = 0.0;
+                    continue;
+                }
+                Plan selected = plan;
+                if (selected != current) {
+                    current = selected;
+                    next = current.getSizes().next(random, current.getMeanObjectBytes(), current.getMaxObjectBytes());
+                }
+                long now = System.nanoTime();
+                long elapsed = now - last;
+                last = now;
+                budget = Math.min(budget + toBytes(rate, elapsed), Math.max(next, toBytes(rate, MAX_BACKLOG_NANOS)));
+                if (budget < next) {
+                    LockSupport.parkNanos(this, TICK_NANOS);
+                    continue;
+                }
+                long allocated = 0;
+                while (budget >= next && allocated < BATCH_BYTES) {
+                    recent[slot] = new byte[Math.max(0, next - ARRAY_HEADER_BYTES)];
+                    slot = (slot + 1) & (RECENT_OBJECTS - 1);
+                    budget -= next;
+                    allocated += next;
+                    next = current.getSizes().next(random, current.getMeanObjectBytes(), current.getMaxObjectBytes());
+                }
+                allocatedBytes += allocated;
+            } catch (Throwable t) {
+                log.warn("Ran into exception in garbage allocation thread.", t);
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+        }
+    }
+
+    /**
+     * The bytes allocated over the time at the rate.
+     */
+    private static double toBytes(long bytesPerSecond, long nanos) {
+        return (double)bytesPerSecond * nanos / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+}
@@ -0,0 +1,197 @@
+package org.builder.session.jackson.workflow.utilize.allocation;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import org.builder.session.jackson.utils.Histogram;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Measures the allocation rate of the JVM and the collections it causes. The rate is the
+ * bytes allocated by all live threads, as HotSpot counts them, so it includes the JVM's
+ * own garbage as well as the consumer's. On JVMs that don't count them, it falls back to
+ * the bytes the consumer allocated. Pauses are read from the notification each collector sends
+ * after a collection, so each is counted at its own duration. Concurrent cycles, such as those
+ * of CMS, run alongside the application, so they are left out of the pauses.
+ */
+@Slf4j
+public class GcMonitor implements AutoCloseable {
+
+    private static final double[] PAUSE_BOUNDS_IN_MILLIS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000 };
+    // The cause CMS reports for its concurrent cycles. Its stop-the-world collections report their real cause.
+    private static final String NO_GC_CAUSE = "No GC";
+    // Collectors that only report concurrent cycles, such as "ZGC Cycles" and "Shenandoah Cycles".
+    private static final String CYCLES_SUFFIX = " Cycles";
+    private static final String G1_CONCURRENT_NAME = "G1 Concurrent GC";
+
+    @NonNull
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    @NonNull
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    // The bytes allocated so far, for when the JVM doesn't count them per thread.
+    @NonNull
+    private final LongSupplier fallback;
+    @Getter
+    @NonNull
+    private final Histogram pauses = new Histogram(PAUSE_BOUNDS_IN_MILLIS);
+    @NonNull
+    private final NotificationListener listener = this::onNotification;
+    // Guarded by this.
+    private long pausedInMillis = 0;
+    private Map<Long, Long> lastAllocated = new HashMap<>();
+    private long lastFallback = 0;
+    private long lastSampleAtInNanos = -1;
+    private long allocatedBytesPerSecond = 0;
+    private double collectionFraction = 0.0;
+
+    /**
+     * The totals of one collector, such as the young or old generation collector.
+     */
+    @Value
+    public static class Collector {
+        @NonNull
+        private final String name;
+        private final long collections;
+        private final long collectionTimeInMillis;
+    }
+
+    /**
+     * The rate and collections over the last sample, with each collector's totals.
+     */
+    @Value
+    @Builder
+    public static class Snapshot {
+        private final long allocatedBytesPerSecond;
+        private final double collectionFraction;
+        @NonNull
+        private final List<Collector> collectors;
+    }
+
+    public GcMonitor(@NonNull final LongSupplier fallback) {
+        this.fallback = fallback;
+        for (GarbageCollectorMXBean collector : collectors) {
+            if (collector instanceof NotificationEmitter) {
+                ((NotificationEmitter)collector).addNotificationListener(listener, null, null);
+            } else {
+                log.warn("Collector {} does not send notifications, so its pauses are not counted.", collector.getName());
+            }
+        }
+    }
+
+    private void onNotification(final Notification notification, final Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData)notification.getUserData());
+        if (isConcurrent(info)) {
+            return;
+        }
+        long duration = Math.max(0L, info.getGcInfo().getDuration());
+        pauses.add(duration);
+        synchronized (this) {
+            pausedInMillis += duration;
+        }
+    }
+
+    private static boolean isConcurrent(@NonNull final GarbageCollectionNotificationInfo info) {
+        return NO_GC_CAUSE.equals(info.getGcCause())
+                || info.getGcName().endsWith(CYCLES_SUFFIX)
+                || G1_CONCURRENT_NAME.equals(info.getGcName());
+    }
+
+    /**
+     * Measures the allocation rate and the time paused for collections since the last sample.
+     */
+    public synchronized void sample() {
+        long now = System.nanoTime();
+        long allocated = readAllocated();
+        long collectionTimeInMillis = pausedInMillis;
+        pausedInMillis = 0;
+        if (lastSampleAtInNanos >= 0 && now > lastSampleAtInNanos) {
+            long elapsed = now - lastSampleAtInNanos;
+            allocatedBytesPerSecond = (long)((double)allocated * TimeUnit.SECONDS.toNanos(1) / elapsed);
+            collectionFraction = Math.min(1.0, (double)TimeUnit.MILLISECONDS.toNanos(collectionTimeInMillis) / elapsed);
+        }
+        lastSampleAtInNanos = now;
+    }
+
+    /**
+     * The bytes allocated since the last read.
+     */
+    private long readAllocated() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean)threads;
+            if (counting.isThreadAllocatedMemorySupported() && counting.isThreadAllocatedMemoryEnabled()) {
+                long[] ids = counting.getAllThreadIds();
+                long[] bytes = counting.getThreadAllocatedBytes(ids);
+                Map<Long, Long> current = new HashMap<>(ids.length * 2);
+                long allocated = 0;
+                for (int i = 0; i < ids.length; i++) {
+                    if (bytes[i] < 0) {
+                        // The thread died since its id was read.
+                        continue;
+                    }
+                    current.put(ids[i], bytes[i]);
+                    // Threads that weren't seen before count everything they allocated.
+                    allocated += Math.max(0L, bytes[i] - lastAllocated.getOrDefault(ids[i], 0L));
+                }
+                lastAllocated = current;
+                return allocated;
+            }
+        }
+        long total = fallback.getAsLong();
+        long allocated = Math.max(0L, total - lastFallback);
+        lastFallback = total;
+        return allocated;
+    }
+
+    public synchronized long getAllocatedBytesPerSecond() {
+        return allocatedBytesPerSecond;
+    }
+
+    public synchronized Snapshot snapshot() {
+        return Snapshot.builder()
+                       .allocatedBytesPerSecond(allocatedBytesPerSecond)
+                       .collectionFraction(collectionFraction)
+                       .collectors(collectors.stream()
+                                             .map(c -> new Collector(c.getName(),
+                                                                     Math.max(0L, c.getCollectionCount()),
+                                                                     Math.max(0L, c.getCollectionTime())))
+                                             .collect(Collectors.toList()))
+                       .build();
+    }
+
+    @Override
+    public void close() {
+        for (GarbageCollectorMXBean collector : collectors) {
+            if (collector instanceof NotificationEmitter) {
+                try {
+                    ((NotificationEmitter)collector).removeNotificationListener(listener);
+                } catch (ListenerNotFoundException e) {
+                    // Nothing to remove.
+                }
+            }
+        }
+    }
+}
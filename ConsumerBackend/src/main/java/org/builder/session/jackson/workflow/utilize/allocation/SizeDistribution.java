@@ -0,0 +1,39 @@
+package org.builder.session.jackson.workflow.utilize.allocation;
+
+import java.util.SplittableRandom;
+
+/**
+ * How the sizes of allocated objects are spread around their mean. Small objects are
+ * cheap to allocate and die young, while large ones fill the young generation quickly
+ * and, past the collector's threshold, are allocated straight into the old generation.
+ */
+public enum SizeDistribution {
+    FIXED_SIZE {
+        @Override
+        protected double sample (SplittableRandom random, int meanBytes) {
+            return meanBytes;
+        }
+    },
+    UNIFORM_SIZE {
+        @Override
+        protected double sample (SplittableRandom random, int meanBytes) {
+            return random.nextDouble() * 2.0 * meanBytes;
+        }
+    },
+    EXPONENTIAL_SIZE {
+        @Override
+        protected double sample (SplittableRandom random, int meanBytes) {
+            // Inverse transform, with 1 - u in (0, 1] so that the log is finite.
+            return -Math.log(1.0 - random.nextDouble()) * meanBytes;
+        }
+    };
+
+    protected abstract double sample (SplittableRandom random, int meanBytes);
+
+    /**
+     * The size in bytes of the next object, within [1, maxBytes].
+     */
+    public int next (SplittableRandom random, int meanBytes, int maxBytes) {
+        return (int)Math.max(1L, Math.min(maxBytes, Math.round(sample(random, meanBytes))));
+    }
+}
@@ -0,0 +1,13 @@
+package org.builder.session.jackson.workflow.utilize.cpu;
+
+/**
+ * How the total busy time of the CPU consumer is spread across its workers.
+ */
+public enum AllocationMode {
+    // Fill each worker before starting the next, keeping as few cores busy as possible.
+    PACK,
+    // Give every worker an equal share, keeping every core equally busy.
+    EVEN,
+    // Give each worker a share proportional to its configured weight.
+    EXPLICIT
+}
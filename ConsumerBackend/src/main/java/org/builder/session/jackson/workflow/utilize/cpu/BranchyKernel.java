@@ -0,0 +1,39 @@
+package org.builder.session.jackson.workflow.utilize.cpu;
+
+import java.util.Random;
+
+/**
+ * Branches on random bytes, so that the predictor is wrong about half of the time, like
+ * parsing and other data-dependent control flow.
+ */
+public class BranchyKernel implements BurnKernel {
+
+    private static final int LENGTH = 4096;
+    private static final int STEPS = 256;
+
+    private final byte[] data = new byte[LENGTH];
+    private int position = 0;
+
+    public BranchyKernel() {
+        new Random().nextBytes(data);
+    }
+
+    @Override
+    public long burn (long input) {
+        long sum = input;
+        int p = position;
+        for (int i = 0; i < STEPS; i++) {
+            byte value = data[p];
+            if (value < 0) {
+                sum += value;
+            } else if ((value & 1) == 0) {
+                sum ^= value;
+            } else {
+                sum -= i;
+            }
+            p = (p + 1) & (LENGTH - 1);
+        }
+        position = p;
+        return sum;
+    }
+}
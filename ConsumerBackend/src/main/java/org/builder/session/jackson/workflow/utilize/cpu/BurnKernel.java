@@ -0,0 +1,16 @@
+package org.builder.session.jackson.workflow.utilize.cpu;
+
+/**
+ * A unit of work that CPU workers repeat while busy, which decides how the load looks to the
+ * host (ex. its IPC, cache misses and power draw). Each worker thread owns its own instance,
+ * so kernels may keep unsynchronized state.
+ */
+public interface BurnKernel {
+
+    /**
+     * Does a short burst of work, ideally no more than a few microseconds so that busy time
+     * ends on time. The result must depend on the work done, and is folded into the next call
+     * and published by the engine, so that the JIT cannot remove the work.
+     */
+    long burn(long input);
+}
@@ -0,0 +1,32 @@
+package org.builder.session.jackson.workflow.utilize.cpu;
+
+/**
+ * Sweeps the working set in order, writing one long per cache line, so that it keeps missing
+ * in every cache level smaller than the working set and hitting in those larger.
+ */
+public class CacheSweepKernel implements BurnKernel {
+
+    private static final int LONGS_PER_LINE = 64 / Long.BYTES;
+    private static final int LINES = 64;
+
+    private final long[] data;
+    private int position = 0;
+
+    public CacheSweepKernel(int workingSetBytes) {
+        this.data = new long[workingSetBytes / Long.BYTES];
+    }
+
+    @Override
+    public long burn (long input) {
+        int p = position;
+        for (int i = 0; i < LINES; i++) {
+            data[p] += input;
+            p += LONGS_PER_LINE;
+            if (p >= data.length) {
+                p = 0;
+            }
+        }
+        position = p;
+        return input + data[p];
+    }
+}
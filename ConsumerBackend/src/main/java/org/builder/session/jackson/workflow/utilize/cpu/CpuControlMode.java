@@ -0,0 +1,13 @@
+package org.builder.session.jackson.workflow.utilize.cpu;
+
+/**
+ * What the CPU consumer's target measures.
+ */
+public enum CpuControlMode {
+    // The share of the task's reserved CPU that is used.
+    UTILIZATION,
+    // The fraction of CFS enforcement periods in which the quota ran out.
+    THROTTLED_PERIODS,
+    // The time held back by the quota per unit of elapsed time.
+    THROTTLED_TIME
+}
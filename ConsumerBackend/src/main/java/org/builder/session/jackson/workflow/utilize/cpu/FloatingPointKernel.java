@@ -0,0 +1,32 @@
+package org.builder.session.jackson.workflow.utilize.cpu;
+
+import java.util.Random;
+
+/**
+ * Runs multiply-adds over arrays that fit in L1, in a simple counted loop that the JIT can
+ * vectorize. The accumulator decays each pass, so values stay bounded however long it runs.
+ */
+public class FloatingPointKernel implements BurnKernel {
+
+    private static final int LENGTH = 256;
+
+    private final double[] a = new double[LENGTH];
+    private final double[] b = new double[LENGTH];
+    private final double[] c = new double[LENGTH];
+
+    public FloatingPointKernel() {
+        Random random = new Random();
+        for (int i = 0; i < LENGTH; i++) {
+            a[i] = random.nextDouble();
+            b[i] = random.nextDouble();
+        }
+    }
+
+    @Override
+    public long burn (long input) {
+        for (int i = 0; i < LENGTH; i++) {
+            c[i] = a[i] * b[i] + c[i] * 0.5;
+        }
+        return input + Double.doubleToRawLongBits(c[(int)(input & (LENGTH - 1))]);
+    }
+}
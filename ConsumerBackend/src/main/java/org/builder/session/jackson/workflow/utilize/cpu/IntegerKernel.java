@@ -0,0 +1,24 @@
+package org.builder.session.jackson.workflow.utilize.cpu;
+
+/**
+ * Mixes a value through rounds of the MurmurHash3 finalizer, a dependent chain of integer
+ * multiplies, shifts and xors like the hashing that services do.
+ */
+public class IntegerKernel implements BurnKernel {
+
+    private static final int ROUNDS = 64;
+
+    @Override
+    public long burn (long input) {
+        long x = input;
+        for (int i = 0; i < ROUNDS; i++) {
+            x ^= x >>> 33;
+            x *= 0xff51afd7ed558ccdL;
+            x ^= x >>> 33;
+            x *= 0xc4ceb9fe1a85ec53L;
+            x ^= x >>> 33;
+            x += i;
+        }
+        return x;
+    }
+}
@@ -0,0 +1,97 @@
+package org.builder.session.jackson.workflow.utilize.cpu;
+
+/**
+ * The built-in kernels that CPU workers can burn with.
+ */
+public enum KernelType {
+    // Only checks the clock, as workers always have.
+    SPIN(0) {
+        @Override
+        public BurnKernel create (int workingSetBytes) {
+            return new SpinKernel();
+        }
+    },
+    // Integer multiply, shift and xor chains, as in hashing.
+    INTEGER(0) {
+        @Override
+        public BurnKernel create (int workingSetBytes) {
+            return new IntegerKernel();
+        }
+    },
+    // Floating-point multiply-adds over small arrays, which the JIT can vectorize.
+    FLOATING_POINT(0) {
+        @Override
+        public BurnKernel create (int workingSetBytes) {
+            return new FloatingPointKernel();
+        }
+    },
+    // Dependent loads in a random cycle over the working set, stalling on memory latency.
+    POINTER_CHASE(64 * 1024 * 1024) {
+        @Override
+        public BurnKernel create (int workingSetBytes) {
+            return new PointerChaseKernel(resolveInRange(workingSetBytes));
+        }
+    },
+    // Branches on random data, mispredicting about half of the time.
+    BRANCHY(0) {
+        @Override
+        public BurnKernel create (int workingSetBytes) {
+            return new BranchyKernel();
+        }
+    },
+    // Sequential sweeps over the working set, one write per cache line. Size the working set
+    // to the cache level to stress (ex. 16KB for L1, 512KB for L2 or 32MB for the LLC).
+    CACHE_SWEEP(512 * 1024) {
+        @Override
+        public BurnKernel create (int workingSetBytes) {
+            return new CacheSweepKernel(resolveInRange(workingSetBytes));
+        }
+    };
+
+    public static final int MIN_WORKING_SET_BYTES = 4 * 1024;
+    public static final int MAX_WORKING_SET_BYTES = 1024 * 1024 * 1024;
+    // The share of the heap not yet in use that the working sets of every worker may take together.
+    private static final double MAX_HEAP_SHARE = 0.5;
+
+    // The working set used when none is given, or zero if the kernel has none.
+    private final int defaultWorkingSetBytes;
+
+    KernelType(int defaultWorkingSetBytes) {
+        this.defaultWorkingSetBytes = defaultWorkingSetBytes;
+    }
+
+    /**
+     * Creates a kernel for one worker. A working set of zero uses the kernel's default.
+     */
+    public abstract BurnKernel create (int workingSetBytes);
+
+    public boolean usesWorkingSet () {
+        return defaultWorkingSetBytes > 0;
+    }
+
+    /**
+     * The working set a kernel would be created with, failing if it is out of range or if a
+     * kernel for each of the workers would not fit in half of the heap not yet in use. Each
+     * worker holds its own working set on the heap.
+     */
+    public int resolveWorkingSet (long workingSetBytes, int workers) {
+        int resolved = resolveInRange(workingSetBytes);
+        Runtime runtime = Runtime.getRuntime();
+        long unusedHeap = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        long budget = (long)(unusedHeap * MAX_HEAP_SHARE);
+        if ((long)resolved * workers > budget) {
+            throw new IllegalArgumentException("Working sets of " + resolved + " bytes for each of " + workers
+                                                       + " workers would exceed the " + budget + " bytes of heap available to them.");
+        }
+        return resolved;
+    }
+
+    int resolveInRange (long workingSetBytes) {
+        long resolved = workingSetBytes == 0 ? defaultWorkingSetBytes : workingSetBytes;
+        if (resolved < MIN_WORKING_SET_BYTES || resolved > MAX_WORKING_SET_BYTES) {
+            throw new IllegalArgumentException("Expected a working set between " + MIN_WORKING_SET_BYTES
+                                                       + " and " + MAX_WORKING_SET_BYTES + " bytes, but got " + resolved);
+        }
+        return (int)resolved;
+    }
+}
@@ -0,0 +1,38 @@
+package org.builder.session.jackson.workflow.utilize.cpu;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Where in each burst period a worker's busy time starts, which decides whether
+ * the bursts of workers line up into spikes or spread into a smooth load.
+ */
+public enum PhaseMode {
+    // Every worker starts its burst at the start of the period, so load arrives as spikes.
+    ALIGNED {
+        @Override
+        public long offset (int worker, int workers, long burstPeriodInNanos, long busyInNanos) {
+            return 0L;
+        }
+    },
+    // Workers start at evenly spaced offsets, so their bursts overlap as little as possible.
+    STAGGERED {
+        @Override
+        public long offset (int worker, int workers, long burstPeriodInNanos, long busyInNanos) {
+            return burstPeriodInNanos * worker / Math.max(1, workers);
+        }
+    },
+    // Each burst starts at a random offset that still ends within the period.
+    JITTERED {
+        @Override
+        public long offset (int worker, int workers, long burstPeriodInNanos, long busyInNanos) {
+            long room = burstPeriodInNanos - busyInNanos;
+            return room > 0 ? ThreadLocalRandom.current().nextLong(room + 1) : 0L;
+        }
+    };
+
+    /**
+     * The delay from the start of a burst period until the worker's burst starts. A burst
+     * may run past the end of the period, as long as it ends before the next one starts.
+     */
+    public abstract long offset (int worker, int workers, long burstPeriodInNanos, long busyInNanos);
+}
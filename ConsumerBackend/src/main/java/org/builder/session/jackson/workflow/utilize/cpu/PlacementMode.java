@@ -0,0 +1,78 @@
+package org.builder.session.jackson.workflow.utilize.cpu;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.builder.session.jackson.system.CpuTopology;
+import org.builder.session.jackson.system.CpuTopology.LogicalCpu;
+
+/**
+ * Which logical CPUs the CPU consumer's workers are pinned to, in worker order. Combined with
+ * packed allocation, the first workers, and so the load, land where the placement puts them.
+ */
+public enum PlacementMode {
+    // Workers are left to the scheduler.
+    UNPINNED {
+        @Override
+        protected Comparator<LogicalCpu> order (List<LogicalCpu> cpus) {
+            return Comparator.comparingInt(LogicalCpu::getId);
+        }
+    },
+    // One worker per physical core before any shares a core with an SMT sibling.
+    SPREAD_CORES {
+        @Override
+        protected Comparator<LogicalCpu> order (List<LogicalCpu> cpus) {
+            // The first sibling of every core, then the second of every core and so on.
+            return Comparator.comparingLong((LogicalCpu c) -> siblingRank(cpus, c))
+                             .thenComparingInt(LogicalCpu::getNode)
+                             .thenComparingInt(LogicalCpu::getPackageId)
+                             .thenComparingInt(LogicalCpu::getCoreId);
+        }
+    },
+    // Both SMT siblings of a core before the next core, so workers compete for the same core.
+    SMT_SIBLINGS {
+        @Override
+        protected Comparator<LogicalCpu> order (List<LogicalCpu> cpus) {
+            return Comparator.comparingInt(LogicalCpu::getPackageId)
+                             .thenComparingInt(LogicalCpu::getCoreId)
+                             .thenComparingInt(LogicalCpu::getId);
+        }
+    },
+    // Every core of one NUMA node before the next node, so load and memory stay on one node.
+    NUMA_NODE {
+        @Override
+        protected Comparator<LogicalCpu> order (List<LogicalCpu> cpus) {
+            return Comparator.comparingInt(LogicalCpu::getNode)
+                             .thenComparingInt(LogicalCpu::getId);
+        }
+    };
+
+    protected abstract Comparator<LogicalCpu> order (List<LogicalCpu> cpus);
+
+    public boolean isPinned () {
+        return !UNPINNED.equals(this);
+    }
+
+    /**
+     * The logical CPU ids to pin workers to, in worker order.
+     */
+    public List<Integer> place (CpuTopology topology) {
+        return topology.getCpus()
+                       .stream()
+                       .sorted(order(topology.getCpus()))
+                       .map(LogicalCpu::getId)
+                       .collect(Collectors.toList());
+    }
+
+    /**
+     * How many siblings on the same physical core have a lower id.
+     */
+    private static long siblingRank (List<LogicalCpu> cpus, LogicalCpu cpu) {
+        return cpus.stream()
+                   .filter(c -> c.getPackageId() == cpu.getPackageId()
+                           && c.getCoreId() == cpu.getCoreId()
+                           && c.getId() < cpu.getId())
+                   .count();
+    }
+}
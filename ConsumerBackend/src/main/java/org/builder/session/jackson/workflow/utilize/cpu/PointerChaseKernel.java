@@ -0,0 +1,41 @@
+package org.builder.session.jackson.workflow.utilize.cpu;
+
+import java.util.Random;
+
+/**
+ * Follows a random cycle through the working set, where each load depends on the last, so
+ * that the core stalls on memory latency as it does walking large object graphs.
+ */
+public class PointerChaseKernel implements BurnKernel {
+
+    private static final int HOPS = 64;
+
+    private final int[] next;
+    private int position = 0;
+
+    public PointerChaseKernel(int workingSetBytes) {
+        int length = workingSetBytes / Integer.BYTES;
+        this.next = new int[length];
+        for (int i = 0; i < length; i++) {
+            next[i] = i;
+        }
+        // Sattolo's algorithm gives a single cycle through every slot, so no short loops stay cached.
+        Random random = new Random();
+        for (int i = length - 1; i > 0; i--) {
+            int j = random.nextInt(i);
+            int swap = next[i];
+            next[i] = next[j];
+            next[j] = swap;
+        }
+    }
+
+    @Override
+    public long burn (long input) {
+        int p = position;
+        for (int i = 0; i < HOPS; i++) {
+            p = next[p];
+        }
+        position = p;
+        return input + p;
+    }
+}
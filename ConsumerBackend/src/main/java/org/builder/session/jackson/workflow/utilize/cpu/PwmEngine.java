@@ -0,0 +1,269 @@
+package org.builder.session.jackson.workflow.utilize.cpu;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Burns CPU on one thread per workload by pulse-width modulation. Each workload is the busy
+ * time, in milliseconds, wanted out of every period. Rather than being busy for all of it and
+ * then idle for the rest of the period, each thread repeats the same ratio over short slices
+ * so that load is smooth at any sampling interval. Slices are laid on a grid shared by every
+ * thread, and the phase mode decides where in its slice each thread's burst of busy time
+ * falls: together, staggered across threads or at random. Longer slices give longer, rarer
+ * bursts at the same average load. Deadlines are kept in System.nanoTime()
+ * and idle time is parked, so the busy loop neither allocates nor spins while idle. Busy time
+ * is spent repeating a BurnKernel, which each thread creates for itself once it has busy time.
+ * Kernels may hold large working sets, so a thread drops its kernel as soon as its worker is
+ * removed, or once it has had no busy time for a few periods.
+ *
+ * Threads may be pinned to logical CPUs, which each applies to itself before its next slice.
+ *
+ * The number of workers can be resized at runtime. Threads are only created once a worker is
+ * first needed, and workers beyond the current size park until they are needed again.
+ */
+@Slf4j
+public class PwmEngine implements AutoCloseable {
+
+    public static final Duration MAX_SLICE = Duration.ofSeconds(1);
+    // Periods without busy time before a worker drops its kernel, so brief lulls don't rebuild it.
+    private static final int KERNEL_IDLE_PERIODS = 5;
+
+    @Getter
+    @NonNull
+    private final Duration period;
+    private final long periodInMillis;
+    private final long periodInNanos;
+    // The start of the slice grid shared by every thread.
+    private final long epochInNanos = System.nanoTime();
+    @Getter
+    @NonNull
+    private volatile Bursts bursts;
+    @NonNull
+    private final ThreadFactory factory;
+    // Every thread and workload created so far, guarded by this.
+    @NonNull
+    private final List<Thread> threads = new ArrayList<>();
+    @NonNull
+    private final List<AtomicLong> workloads = new ArrayList<>();
+    // The workers in use, which are always the first ones created.
+    private volatile int active = 0;
+    private volatile boolean running = true;
+    @NonNull
+    private volatile Supplier<BurnKernel> kernelFactory = SpinKernel::new;
+    // The logical CPU of each worker, by index. Workers beyond its end are unpinned.
+    @Getter
+    @NonNull
+    private volatile List<Integer> affinity = ImmutableList.of();
+    // Where kernel results are published, so that the JIT cannot remove their work.
+    private volatile long sink = 0;
+
+    public PwmEngine(@NonNull final String name,
+                     final int workers,
+                     @NonNull final Duration period,
+                     @NonNull final Duration slice) {
+        Preconditions.checkArgument(period.toMillis() > 0,
+                                    "Expected a period of at least a millisecond, but got " + period);
+        this.period = period;
+        this.periodInMillis = period.toMillis();
+        this.periodInNanos = period.toNanos();
+        this.bursts = new Bursts(PhaseMode.ALIGNED, slice);
+        this.factory = new ThreadFactoryBuilder().setNameFormat(name + "-%d")
+                                                 .setDaemon(true)
+                                                 .build();
+        resize(workers);
+    }
+
+    /**
+     * Changes the number of workers, creating threads for any that have never run. Workers
+     * removed by a shrink have their workload cleared and park until the pool grows again.
+     */
+    public synchronized void resize(final int workers) {
+        Preconditions.checkArgument(workers > 0, "Expected at least one worker, but got " + workers);
+        Preconditions.checkState(running, "Cannot resize a closed engine.");
+        while (threads.size() < workers) {
+            final int index = threads.size();
+            final AtomicLong workload = new AtomicLong();
+            Thread thread = factory.newThread(() -> run(index, workload));
+            workloads.add(workload);
+            threads.add(thread);
+            thread.start();
+        }
+        for (int i = workers; i < workloads.size(); i++) {
+            workloads.get(i).set(0L);
+        }
+        active = workers;
+        wake();
+    }
+
+    /**
+     * The number of workers in use.
+     */
+    public int getWorkers() {
+        return active;
+    }
+
+    /**
+     * The workloads of the workers in use, which callers set to the busy time wanted of each.
+     * The list is a snapshot of the current size and should be fetched again after a resize.
+     */
+    public synchronized List<AtomicLong> getWorkloads() {
+        return ImmutableList.copyOf(workloads.subList(0, active));
+    }
+
+    /**
+     * Selects the kernel that busy time is spent on. Each thread switches at its next slice.
+     */
+    public void setKernel(@NonNull final Supplier<BurnKernel> factory) {
+        this.kernelFactory = factory;
+    }
+
+    /**
+     * Selects where each thread's busy time falls and the slice it repeats over. Each
+     * thread moves to the new grid after its current slice.
+     */
+    public void setBursts(@NonNull final PhaseMode phase, @NonNull final Duration slice) {
+        this.bursts = new Bursts(phase, slice);
+    }
+
+    /**
+     * Pins each worker to the logical CPU at its index, leaving any beyond the end unpinned.
+     */
+    public void setAffinity(@NonNull final List<Integer> cpus) {
+        this.affinity = ImmutableList.copyOf(cpus);
+        wake();
+    }
+
+    /**
+     * Wakes threads that are idle for a whole period, so that a new workload starts promptly.
+     */
+    public synchronized void wake() {
+        threads.forEach(LockSupport::unpark);
+    }
+
+    private void run(final int index, final AtomicLong workload) {
+        Supplier<BurnKernel> factory = null;
+        BurnKernel kernel = null;
+        int idlePeriods = 0;
+        Bursts shape = null;
+        List<Integer> placement = affinity;
+        int pinnedCpu = -1;
+        long sliceStart = 0;
+        long result = 0;
+        while (running) {
+            try {
+                if (index >= active) {
+                    // Not needed at this size, so drop the kernel and wait indefinitely for the pool to grow.
+                    kernel = null;
+                    factory = null;
+                    LockSupport.park(this);
+                    shape = null;
+                    continue;
+                }
+                List<Integer> selectedPlacement = affinity;
+                if (selectedPlacement != placement) {
+                    placement = selectedPlacement;
+                    int cpu = index < placement.size() ? placement.get(index) : -1;
+                    if (cpu != pinnedCpu) {
+                        boolean applied = cpu >= 0 ? ThreadAffinity.pin(cpu) : ThreadAffinity.unpin();
+                        pinnedCpu = applied ? cpu : pinnedCpu;
+                    }
+                    shape = null;
+                }
+                long busyInMillis = Math.min(workload.get(), periodInMillis);
+                if (busyInMillis <= 0) {
+                    // Nothing to burn, so wait for a wake or the period to pass.
+                    if (++idlePeriods >= KERNEL_IDLE_PERIODS) {
+                        kernel = null;
+                        factory = null;
+                    }
+                    LockSupport.parkNanos(this, periodInNanos);
+                    shape = null;
+                    continue;
+                }
+                idlePeriods = 0;
+                Supplier<BurnKernel> selected = kernelFactory;
+                if (kernel == null || selected != factory) {
+                    factory = selected;
+                    // Drop the old kernel first, so that two working sets are never held at once.
+                    kernel = null;
+                    try {
+                        kernel = selected.get();
+                    } catch (Throwable t) {
+                        log.warn("Failed to create a CPU kernel. Spinning instead.", t);
+                        kernel = new SpinKernel();
+                    }
+                    shape = null;
+                }
+                long now = System.nanoTime();
+                long sliceInNanos;
+                if (shape != bursts) {
+                    shape = bursts;
+                    sliceInNanos = shape.getSliceInNanos();
+                    sliceStart = now - Math.floorMod(now - epochInNanos, sliceInNanos);
+                } else {
+                    sliceInNanos = shape.getSliceInNanos();
+                    // Having fallen a whole slice behind (ex. descheduled), rejoin the grid rather than burst.
+                    if (now - sliceStart > sliceInNanos) {
+                        sliceStart = now - Math.floorMod(now - epochInNanos, sliceInNanos);
+                    }
+                }
+                long busyInNanos = sliceInNanos * busyInMillis / periodInMillis;
+                long burstStart = sliceStart + shape.getPhase().offset(index, active, sliceInNanos, busyInNanos);
+                sliceStart += sliceInNanos;
+                long idle;
+                while (running && (idle = burstStart - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(this, idle);
+                }
+                // Busy time is measured from the actual start, while slices stay on the grid,
+                // so that waking late from a park shortens the idle time instead of the busy time.
+                long busyUntil = System.nanoTime() + busyInNanos;
+                while (System.nanoTime() - busyUntil < 0) {
+                    result = kernel.burn(result);
+                }
+                sink = result;
+            } catch (Throwable t) {
+                log.warn("Ran into exception in CPU consumption thread.", t);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        wake();
+    }
+
+    /**
+     * The slice that busy time repeats over and where in it each thread's burst falls.
+     */
+    @Value
+    public static class Bursts {
+        @NonNull
+        private final PhaseMode phase;
+        @NonNull
+        private final Duration slice;
+        private final long sliceInNanos;
+
+        public Bursts(@NonNull final PhaseMode phase, @NonNull final Duration slice) {
+            Preconditions.checkArgument(!slice.isNegative() && !slice.isZero() && slice.compareTo(MAX_SLICE) <= 0,
+                                        "Expected a positive slice of at most " + MAX_SLICE + ", but got " + slice);
+            this.phase = phase;
+            this.slice = slice;
+            this.sliceInNanos = slice.toNanos();
+        }
+    }
+}
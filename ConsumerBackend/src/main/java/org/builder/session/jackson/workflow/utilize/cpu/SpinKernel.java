@@ -0,0 +1,12 @@
+package org.builder.session.jackson.workflow.utilize.cpu;
+
+/**
+ * Does no work of its own, so that workers spend their busy time checking the clock.
+ */
+public class SpinKernel implements BurnKernel {
+
+    @Override
+    public long burn (long input) {
+        return input + 1;
+    }
+}
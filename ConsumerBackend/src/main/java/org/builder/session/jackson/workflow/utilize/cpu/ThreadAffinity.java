@@ -0,0 +1,91 @@
+package org.builder.session.jackson.workflow.utilize.cpu;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.builder.session.jackson.system.CpuTopology;
+
+import com.google.common.base.Preconditions;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pins the calling thread to logical CPUs on Linux. The JVM has no API for affinity, so this
+ * finds the thread's kernel id through /proc/thread-self and runs taskset on it, which is
+ * part of util-linux and of busybox. Failures are logged and leave the thread where it was.
+ */
+@Slf4j
+public final class ThreadAffinity {
+
+    private static final Path THREAD_SELF = Paths.get("/proc/thread-self");
+    private static final long TIMEOUT_IN_SECONDS = 5;
+
+    private ThreadAffinity() {
+    }
+
+    /**
+     * Pins the calling thread to the logical CPU.
+     *
+     * @return true if the thread was pinned.
+     */
+    public static boolean pin(final int cpu) {
+        Preconditions.checkArgument(cpu >= 0, "Expected a logical CPU id, but got " + cpu);
+        return apply(Integer.toString(cpu));
+    }
+
+    /**
+     * Lets the calling thread run on any CPU the process was allowed when it started again.
+     * Within a restricted cpuset, taskset rejects the host's online CPUs, so those are only
+     * used when the allowed list can't be read.
+     *
+     * @return true if the thread was unpinned.
+     */
+    public static boolean unpin() {
+        Optional<List<Integer>> allowed = CpuTopology.getAllowedCpus();
+        if (allowed.isPresent()) {
+            return apply(CpuTopology.formatList(allowed.get()));
+        }
+        try {
+            Path online = CpuTopology.DEFAULT_ROOT.resolve("online");
+            return apply(new String(Files.readAllBytes(online), StandardCharsets.US_ASCII).trim());
+        } catch (Throwable t) {
+            log.warn("Failed to read the online CPUs to unpin thread " + Thread.currentThread().getName() + ".", t);
+            return false;
+        }
+    }
+
+    private static boolean apply(@NonNull final String cpuList) {
+        try {
+            // Resolves to "<pid>/task/<tid>".
+            Path self = Files.readSymbolicLink(THREAD_SELF);
+            String tid = self.getFileName().toString();
+            Process process = new ProcessBuilder("taskset", "-p", "-c", cpuList, tid).redirectErrorStream(true)
+                                                                                   .start();
+            process.getOutputStream().close();
+            if (!process.waitFor(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                log.warn("Timed out setting the affinity of thread {} to {}.", Thread.currentThread().getName(), cpuList);
+                return false;
+            }
+            if (process.exitValue() != 0) {
+                log.warn("Failed to set the affinity of thread {} to {}, taskset exited with {}.",
+                         new Object[] { Thread.currentThread().getName(), cpuList, process.exitValue() });
+                return false;
+            }
+            log.debug("Set the affinity of thread {} to {}.", Thread.currentThread().getName(), cpuList);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Throwable t) {
+            log.warn("Failed to set the affinity of thread " + Thread.currentThread().getName() + " to " + cpuList + ".", t);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.builder.session.jackson.workflow.utilize.cpu;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import com.google.common.base.Preconditions;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Spreads a total busy time across workers in a single pass, whatever the size of the change,
+ * so that a new total takes effect at once. Every worker is capped at its capacity and any
+ * total beyond what the workers can hold is left unallocated.
+ */
+@ToString
+public class WorkloadAllocator {
+
+    @Getter
+    @NonNull
+    private final AllocationMode mode;
+    // The weight of each worker, for EXPLICIT allocation.
+    private final double[] weights;
+    // Workers by descending weight, which is the order they saturate in.
+    @ToString.Exclude
+    private final int[] order;
+
+    private WorkloadAllocator(@NonNull final AllocationMode mode, @NonNull final double[] weights) {
+        this.mode = mode;
+        this.weights = weights;
+        this.order = IntStream.range(0, weights.length)
+                              .boxed()
+                              .sorted(Comparator.comparingDouble((Integer i) -> weights[i]).reversed())
+                              .mapToInt(Integer::intValue)
+                              .toArray();
+    }
+
+    public static WorkloadAllocator pack() {
+        return new WorkloadAllocator(AllocationMode.PACK, new double[0]);
+    }
+
+    public static WorkloadAllocator even() {
+        return new WorkloadAllocator(AllocationMode.EVEN, new double[0]);
+    }
+
+    /**
+     * Allocates in proportion to a weight per worker. Workers beyond the weights supplied get none.
+     */
+    public static WorkloadAllocator explicit(@NonNull final List<Double> weights) {
+        Preconditions.checkArgument(weights.stream().allMatch(w -> w >= 0.0 && Double.isFinite(w)),
+                                    "Expected non-negative weights, but got " + weights);
+        Preconditions.checkArgument(weights.stream().mapToDouble(Double::doubleValue).sum() > 0.0,
+                                    "Expected at least one positive weight, but got " + weights);
+        return new WorkloadAllocator(AllocationMode.EXPLICIT,
+                                     weights.stream().mapToDouble(Double::doubleValue).toArray());
+    }
+
+    /**
+     * Checks that this allocator can be used for the supplied number of workers.
+     */
+    public void checkWorkers(final int workers) {
+        Preconditions.checkArgument(weights.length <= workers,
+                                    "Expected at most " + workers + " weights, but got " + Arrays.toString(weights));
+    }
+
+    /**
+     * Sets each workload to its share of the total. If there are fewer workloads than weights,
+     * as when the pool has shrunk, the weights of the missing workers are ignored.
+     *
+     * @return the busy time allocated, which is less than the total if the workers are full.
+     */
+    public long allocate(final long total,
+                         @NonNull final List<AtomicLong> workloads,
+                         final long capacity) {
+        long remaining = Math.max(0L, Math.min(total, capacity * workloads.size()));
+        long allocated = remaining;
+        switch (mode) {
+            case PACK:
+                for (AtomicLong workload : workloads) {
+                    long share = Math.min(capacity, remaining);
+                    workload.set(share);
+                    remaining -= share;
+                }
+                break;
+            case EVEN:
+                long base = remaining / workloads.size();
+                long extra = remaining % workloads.size();
+                for (int i = 0; i < workloads.size(); i++) {
+                    workloads.get(i).set(base + (i < extra ? 1 : 0));
+                }
+                break;
+            case EXPLICIT:
+                // Water-filling. Heavier workers saturate first, and what they can't hold is
+                // shared among the rest by weight. Rounding is absorbed by later workers.
+                double remainingWeight = 0.0;
+                for (int i = 0; i < Math.min(weights.length, workloads.size()); i++) {
+                    remainingWeight += weights[i];
+                }
+                for (int i = weights.length; i < workloads.size(); i++) {
+                    workloads.get(i).set(0L);
+                }
+                for (int index : order) {
+                    if (index >= workloads.size()) {
+                        continue;
+                    }
+                    long share = remainingWeight <= 0.0 ? 0L
+                            : Math.min(capacity, Math.round(remaining * weights[index] / remainingWeight));
+                    workloads.get(index).set(share);
+                    remaining -= share;
+                    remainingWeight -= weights[index];
+                }
+                allocated -= remaining;
+                break;
+            default:
+                throw new IllegalStateException("Unrecognized allocation mode " + mode);
+        }
+        return allocated;
+    }
+}
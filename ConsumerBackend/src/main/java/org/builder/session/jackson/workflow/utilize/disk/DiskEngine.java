@@ -0,0 +1,306 @@
+package org.builder.session.jackson.workflow.utilize.disk;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.builder.session.jackson.exception.ConsumerInternalException;
+import org.builder.session.jackson.utils.FileUtilities;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads and writes blocks of a fixed set of files at a target rate, in the manner of fio.
+ * The files are laid out once when the engine starts and are reused from then on, so no
+ * bytes go to creating, growing or deleting them. Each outstanding operation has its own
+ * thread and its own direct buffer, reused for every block, and takes an equal share of
+ * the rate. Work is paced on System.nanoTime() like the garbage engine, and any backlog
+ * beyond a short time is dropped rather than made up in a burst.
+ *
+ * Java 8 can't open files with O_DIRECT. The files total 256MB, which usually fits in the
+ * page cache once laid out, so most reads are served from the cache and never reach the
+ * device, nor the task's storage stats. Writes reach the device when the kernel writes
+ * them back, unless the plan syncs each write.
+ */
+@Slf4j
+public class DiskEngine implements AutoCloseable {
+
+    public static final int FILES = 4;
+    public static final long FILE_BYTES = 64L * 1024 * 1024;
+    public static final int SECTOR_BYTES = 512;
+    public static final int MAX_BLOCK_BYTES = 1024 * 1024;
+    public static final int MAX_QUEUE_DEPTH = 64;
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // The most time that unused budget may build up over.
+    private static final long MAX_BACKLOG_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final byte FILL = (byte)0x5A;
+
+    @NonNull
+    private final String name;
+    @NonNull
+    private final List<File> files = new ArrayList<>(FILES);
+    @NonNull
+    private final List<RandomAccessFile> handles = new ArrayList<>(FILES);
+    @NonNull
+    private final List<FileChannel> channels = new ArrayList<>(FILES);
+    @NonNull
+    private final ThreadFactory factory;
+    // Guarded by this. One per outstanding operation, started as the queue deepens, and
+    // idle while beyond the current depth.
+    @NonNull
+    private final List<Thread> workers = new ArrayList<>();
+    @Getter
+    @NonNull
+    private volatile Plan plan = Plan.DEFAULT;
+    @Getter
+    private volatile long bytesPerSecond = 0;
+    private volatile boolean running = true;
+
+    /**
+     * How blocks are read and written.
+     */
+    @Value
+    public static class Plan {
+        public static final Plan DEFAULT = new Plan(4096, OffsetPattern.SEQUENTIAL_IO, 0.0, 1, false);
+
+        private final int blockBytes;
+        @NonNull
+        private final OffsetPattern offsets;
+        // The share of operations that are reads, rather than writes.
+        private final double readShare;
+        private final int queueDepth;
+        // Whether each write is flushed to the device before the next, like fio's fsync=1.
+        private final boolean syncWrites;
+
+        public Plan(final int blockBytes,
+                    @NonNull final OffsetPattern offsets,
+                    final double readShare,
+                    final int queueDepth,
+                    final boolean syncWrites) {
+            Preconditions.checkArgument(0 < blockBytes && blockBytes <= MAX_BLOCK_BYTES && blockBytes % SECTOR_BYTES == 0,
+                                        "Expected a block size that is a multiple of " + SECTOR_BYTES
+                                                + " bytes up to " + MAX_BLOCK_BYTES + ", but got " + blockBytes);
+            Preconditions.checkArgument(0.0 <= readShare && readShare <= 1.0,
+                                        "Expected a read share within [0, 1], but got " + readShare);
+            Preconditions.checkArgument(0 < queueDepth && queueDepth <= MAX_QUEUE_DEPTH,
+                                        "Expected a queue depth within [1, " + MAX_QUEUE_DEPTH + "], but got " + queueDepth);
+            this.blockBytes = blockBytes;
+            this.offsets = offsets;
+            this.readShare = readShare;
+            this.queueDepth = queueDepth;
+            this.syncWrites = syncWrites;
+        }
+    }
+
+    public DiskEngine(@NonNull final String name) {
+        this.name = name;
+        this.factory = new ThreadFactoryBuilder().setNameFormat(name + "-%d")
+                                                 .setDaemon(true)
+                                                 .build();
+        try {
+            for (int i = 0; i < FILES; i++) {
+                File file = FileUtilities.createTempFile(Optional.of(name + i));
+                file.deleteOnExit();
+                RandomAccessFile handle = new RandomAccessFile(file, "rw");
+                files.add(file);
+                handles.add(handle);
+                channels.add(handle.getChannel());
+            }
+            layOut();
+        } catch (Throwable t) {
+            close();
+            throw new ConsumerInternalException("Failed to lay out the files of " + name + ".", t);
+        }
+        resize(plan.getQueueDepth());
+    }
+
+    /**
+     * Writes every file in full and flushes it, so that blocks are allocated on the device
+     * before any are read or written, and reads don't just return holes.
+     */
+    private void layOut() throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer data = ByteBuffer.allocateDirect(MAX_BLOCK_BYTES);
+        fill(data);
+        for (FileChannel channel : channels) {
+            for (long position = 0; position < FILE_BYTES; position += MAX_BLOCK_BYTES) {
+                ((Buffer)data).clear();
+                write(channel, data, position);
+            }
+            channel.force(false);
+        }
+        log.info("Laid out {} files of {} bytes for {} in {} ms.",
+                 new Object[] { FILES, FILE_BYTES, name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) });
+    }
+
+    public synchronized void setPlan(@NonNull final Plan plan) {
+        this.plan = plan;
+        resize(plan.getQueueDepth());
+        workers.forEach(LockSupport::unpark);
+    }
+
+    public synchronized void setBytesPerSecond(final long bytesPerSecond) {
+        Preconditions.checkArgument(bytesPerSecond >= 0, "Expected a non-negative disk rate.");
+        this.bytesPerSecond = bytesPerSecond;
+        workers.forEach(LockSupport::unpark);
+    }
+
+    private synchronized void resize(final int depth) {
+        while (running && workers.size() < depth) {
+            final int index = workers.size();
+            Thread worker = factory.newThread(() -> run(index));
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    private void run(final int index) {
+        SplittableRandom random = new SplittableRandom();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_BLOCK_BYTES);
+        fill(buffer);
+        // Sequential streams start on different files, or spread across a file when they
+        // share one, so that they don't follow each other.
+        int file = index % FILES;
+        long position = getStartOffset(index);
+        long last = System.nanoTime();
+        // Unused budget, in bytes.
+        double budget = 0.0;
+        while (running) {
+            try {
+                Plan current = plan;
+                long rate = bytesPerSecond;
+                if (rate == 0 || index >= current.getQueueDepth()) {
+                    LockSupport.parkNanos(this, IDLE_NANOS);
+                    last = System.nanoTime();
+                    budget = 0.0;
+                    continue;
+                }
+                int block = current.getBlockBytes();
+                long share = Math.max(1L, rate / current.getQueueDepth());
+                long now = System.nanoTime();
+                long elapsed = now - last;
+                last = now;
+                budget = Math.min(budget + toBytes(share, elapsed), Math.max(block, toBytes(share, MAX_BACKLOG_NANOS)));
+                if (budget < block) {
+                    LockSupport.parkNanos(this, TICK_NANOS);
+                    continue;
+                }
+                long offset;
+                FileChannel channel;
+                if (OffsetPattern.RANDOM_IO.equals(current.getOffsets())) {
+                    channel = channels.get(random.nextInt(FILES));
+                    offset = random.nextLong(FILE_BYTES / block) * block;
+                } else {
+                    if (position + block > FILE_BYTES) {
+                        file = (file + 1) % FILES;
+                        position = 0;
+                    }
+                    channel = channels.get(file);
+                    offset = position;
+                    position += block;
+                }
+                ((Buffer)buffer).clear();
+                ((Buffer)buffer).limit(block);
+                if (random.nextDouble() < current.getReadShare()) {
+                    read(channel, buffer, offset);
+                } else {
+                    write(channel, buffer, offset);
+                    if (current.isSyncWrites()) {
+                        channel.force(false);
+                    }
+                }
+                budget -= block;
+            } catch (ClosedChannelException e) {
+                // Expected when the engine closes while the operation is outstanding.
+                if (running) {
+                    log.warn("Files of " + name + " were closed while the engine was running.", e);
+                    LockSupport.parkNanos(this, IDLE_NANOS);
+                }
+            } catch (Throwable t) {
+                log.warn("Ran into exception in disk engine thread.", t);
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Where a sequential stream starts within its file. The streams that share a file start
+     * at evenly spread offsets, with each new one splitting the largest gap: 0, 1/2, 1/4, 3/4
+     * and so on, so that they stay spread out at any queue depth.
+     */
+    static long getStartOffset(final int index) {
+        int shares = MAX_QUEUE_DEPTH / FILES;
+        int bits = Integer.numberOfTrailingZeros(shares);
+        int share = Integer.reverse(index / FILES) >>> (Integer.SIZE - bits);
+        return FILE_BYTES / shares * share;
+    }
+
+    /**
+     * Fills the buffer and leaves it cleared. Buffers in this class are reset through Buffer, as the
+     * ByteBuffer overrides of clear() and limit() only exist from Java 9, and calls linked against
+     * them fail on the Java 8 image.
+     */
+    private static void fill(final ByteBuffer buffer) {
+        byte[] data = new byte[buffer.capacity()];
+        Arrays.fill(data, FILL);
+        ((Buffer)buffer).clear();
+        buffer.put(data);
+        ((Buffer)buffer).clear();
+    }
+
+    private static void read(final FileChannel channel, final ByteBuffer buffer, final long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                break;
+            }
+        }
+    }
+
+    private static void write(final FileChannel channel, final ByteBuffer buffer, final long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+    }
+
+    /**
+     * The bytes read or written over the time at the rate.
+     */
+    private static double toBytes(long bytesPerSecond, long nanos) {
+        return (double)bytesPerSecond * nanos / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        workers.forEach(LockSupport::unpark);
+        for (int i = 0; i < files.size(); i++) {
+            try {
+                if (i < handles.size()) {
+                    handles.get(i).close();
+                }
+                FileUtilities.delete(files.get(i));
+            } catch (Throwable t) {
+                log.warn("Failed to close " + files.get(i) + " of " + name + ".", t);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.builder.session.jackson.workflow.utilize.disk;
+
+/**
+ * The order in which the disk engine reads and writes blocks of its files.
+ */
+public enum OffsetPattern {
+    // Each outstanding operation streams through the files in order, from its own file.
+    SEQUENTIAL_IO,
+    // Blocks are picked at random across every file.
+    RANDOM_IO;
+}
@@ -0,0 +1,13 @@
+package org.builder.session.jackson.workflow.utilize.memory;
+
+/**
+ * The order in which the access engine touches the cache lines of held memory.
+ */
+public enum AccessPattern {
+    // Streams through the held memory in order, which prefetchers turn into full bandwidth.
+    SEQUENTIAL,
+    // Touches cache lines at random, missing the caches and the TLB.
+    RANDOM_LINES,
+    // Touches a hot share of the memory more often than the cold rest, at random within each.
+    HOT_COLD
+}
@@ -0,0 +1,48 @@
+package org.builder.session.jackson.workflow.utilize.memory;
+
+/**
+ * Where the memory consumer holds its memory.
+ */
+public enum BackingMode {
+    // Arrays on the heap, which are only returned after a garbage collection.
+    HEAP {
+        @Override
+        public MemoryStore create () {
+            return new HeapMemoryStore();
+        }
+    },
+    // Arrays on the heap, with full collections triggered once enough has been released,
+    // so that the committed heap follows the load.
+    HEAP_FOOTPRINT {
+        @Override
+        public MemoryStore create () {
+            return new HeapMemoryStore();
+        }
+    },
+    // Native slabs outside the heap, which are returned as soon as they are released. Each is
+    // at least 32MB so that malloc maps it, so the load moves in steps of 32MB.
+    OFF_HEAP {
+        @Override
+        public MemoryStore create () {
+            return new NativeMemoryStore();
+        }
+    },
+    // A file on tmpfs, which the memory cgroup charges as shared memory, returned as soon as
+    // it is truncated.
+    TMPFS {
+        @Override
+        public MemoryStore create () {
+            return new TmpfsMemoryStore();
+        }
+    },
+    // Cached pages of files on disk, some share of which is kept dirty. The kernel may
+    // reclaim them under pressure, and they are measured by the page cache alone.
+    PAGE_CACHE {
+        @Override
+        public MemoryStore create () {
+            return new PageCacheMemoryStore();
+        }
+    };
+
+    public abstract MemoryStore create ();
+}
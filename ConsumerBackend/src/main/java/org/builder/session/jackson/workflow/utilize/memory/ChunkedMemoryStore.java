@@ -0,0 +1,284 @@
+package org.builder.session.jackson.workflow.utilize.memory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.common.base.Preconditions;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds bytes in a pool of chunks, grouped by size. Chunk sizes adapt to the move: a large
+ * move is made of large power-of-two chunks, so that it takes few allocations, while what is
+ * left below the minimum chunk is either held as a single chunk of exactly that size, or
+ * rounded up to a whole minimum chunk for stores that need every chunk to be at least that
+ * large. Shrinking releases the largest chunks that fit within the move, and if none fits,
+ * releases the smallest larger chunk and takes back the difference.
+ *
+ * The chunks are also laid end to end in the order they were allocated, so that the
+ * held memory can be touched by offset. Every method is synchronized, so that memory
+ * can be touched while the store grows and shrinks.
+ *
+ * @param <T> a chunk of memory.
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public abstract class ChunkedMemoryStore<T> implements MemoryStore {
+
+    public static final int MIN_CHUNK_BYTES = 64 * 1024;
+    public static final int MAX_CHUNK_BYTES = 64 * 1024 * 1024;
+
+    // A power of two, no larger than the max chunk.
+    private final int minChunkBytes;
+    private final boolean roundUp;
+
+    @NonNull
+    private final TreeMap<Integer, ArrayDeque<T>> pool = new TreeMap<>();
+    // Every chunk held, along with its size, in the order they are laid end to end.
+    @NonNull
+    private final List<T> held = new ArrayList<>();
+    @NonNull
+    private final List<Integer> heldSizes = new ArrayList<>();
+    // The end offset of each held chunk, or null once the chunks have changed.
+    private long[] ends = null;
+    @ToString.Include
+    private long bytes = 0;
+
+    /**
+     * A store that holds exactly the bytes asked for.
+     */
+    protected ChunkedMemoryStore () {
+        this(MIN_CHUNK_BYTES, false);
+    }
+
+    /**
+     * @param minChunkBytes the smallest chunk worth allocating, a power of two.
+     * @param roundUp whether what is left below the smallest chunk is rounded up to a whole
+     *                one, so that the store holds up to a chunk more than asked for.
+     */
+    protected ChunkedMemoryStore (final int minChunkBytes, final boolean roundUp) {
+        Preconditions.checkArgument(minChunkBytes > 0 && Integer.bitCount(minChunkBytes) == 1
+                                            && minChunkBytes <= MAX_CHUNK_BYTES,
+                                    "Expected a power of two up to " + MAX_CHUNK_BYTES + ", but got " + minChunkBytes);
+        this.minChunkBytes = minChunkBytes;
+        this.roundUp = roundUp;
+    }
+
+    /**
+     * Allocates a chunk and touches it, so that it counts as used.
+     */
+    protected abstract T allocate (int size);
+
+    /**
+     * Lets go of a chunk, which is no longer used.
+     */
+    protected abstract void free (@NonNull T chunk);
+
+    /**
+     * Reads the byte at the offset within the chunk.
+     */
+    protected abstract byte read (@NonNull T chunk, int offset);
+
+    /**
+     * Writes the byte at the offset within the chunk.
+     */
+    protected abstract void write (@NonNull T chunk, int offset, byte value);
+
+    /**
+     * The size of the next chunk to allocate for a move with the remaining bytes.
+     */
+    int getChunkSize (final long remaining) {
+        if (remaining < minChunkBytes) {
+            return roundUp ? minChunkBytes : (int)remaining;
+        }
+        return (int)Math.min(MAX_CHUNK_BYTES, Long.highestOneBit(remaining));
+    }
+
+    @Override
+    public synchronized void grow (final long bytes) {
+        Preconditions.checkArgument(bytes >= 0, "Bytes should be greater than or equal to zero.");
+        long remaining = bytes;
+        try {
+            while (remaining > 0) {
+                int size = getChunkSize(remaining);
+                T chunk = allocate(size);
+                pool.computeIfAbsent(size, s -> new ArrayDeque<>()).push(chunk);
+                held.add(chunk);
+                heldSizes.add(size);
+                ends = null;
+                this.bytes += size;
+                remaining -= Math.min(remaining, size);
+            }
+        } catch (OutOfMemoryError e) {
+            // Hold what could be allocated, so that the loop sees the consumption it got.
+            log.warn("Could only allocate {} of {} bytes.", new Object[] { bytes - remaining, bytes, e });
+        }
+    }
+
+    @Override
+    public synchronized void shrink (final long bytes) {
+        Preconditions.checkArgument(bytes >= 0, "Bytes should be greater than or equal to zero.");
+        long remaining = Math.min(bytes, this.bytes);
+        while (remaining > 0) {
+            Integer size = pool.floorKey((int)Math.min(Integer.MAX_VALUE, remaining));
+            if (size != null) {
+                release(size);
+                remaining -= size;
+            } else {
+                // Every chunk is larger than what is left, so split the smallest, unless the
+                // difference would be rounded back up to the same size.
+                size = pool.ceilingKey((int)remaining);
+                if (!roundUp || roundUp(size - remaining) < size) {
+                    release(size);
+                    grow(size - remaining);
+                }
+                remaining = 0;
+            }
+        }
+    }
+
+    /**
+     * The bytes that growing by the given bytes would hold, as every chunk of at least the
+     * minimum size is a whole number of minimum chunks.
+     */
+    private long roundUp (final long bytes) {
+        return (bytes + minChunkBytes - 1) / minChunkBytes * minChunkBytes;
+    }
+
+    private void release (final int size) {
+        ArrayDeque<T> chunksOfSize = pool.get(size);
+        T chunk = chunksOfSize.pop();
+        if (chunksOfSize.isEmpty()) {
+            pool.remove(size);
+        }
+        // Move the last chunk into the gap, as the order of chunks doesn't matter.
+        int index = lastIndexOf(chunk);
+        int last = held.size() - 1;
+        held.set(index, held.get(last));
+        heldSizes.set(index, heldSizes.get(last));
+        held.remove(last);
+        heldSizes.remove(last);
+        ends = null;
+        free(chunk);
+        this.bytes -= size;
+    }
+
+    /**
+     * Finds the chunk by identity, as chunks such as buffers may be equal by content.
+     */
+    private int lastIndexOf (@NonNull final T chunk) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            if (held.get(i) == chunk) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Expected the chunk to be held.");
+    }
+
+    @Override
+    public synchronized long getBytes () {
+        return bytes;
+    }
+
+    /**
+     * The number of chunks held, each of which is one allocation.
+     */
+    @ToString.Include
+    public synchronized int getChunks () {
+        return held.size();
+    }
+
+    @Override
+    public synchronized long touch (final long offset, final int lines, final boolean write) {
+        Preconditions.checkArgument(offset >= 0, "Expected a non-negative offset, but got " + offset);
+        if (bytes <= 0 || lines <= 0) {
+            return 0L;
+        }
+        computeEnds();
+        long position = offset % bytes;
+        int index = indexOf(position);
+        long sum = 0;
+        for (int line = 0; line < lines; line++) {
+            T chunk = held.get(index);
+            int inner = (int)(position - (ends[index] - heldSizes.get(index)));
+            if (write) {
+                write(chunk, inner, (byte)line);
+            } else {
+                sum += read(chunk, inner);
+            }
+            position += LINE_BYTES;
+            while (index < ends.length && position >= ends[index]) {
+                index++;
+            }
+            if (index == ends.length) {
+                position = 0;
+                index = 0;
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public synchronized long touch (@NonNull final long[] offsets, final int count, final boolean write) {
+        Preconditions.checkArgument(0 <= count && count <= offsets.length,
+                                    "Expected a count within [0, " + offsets.length + "], but got " + count);
+        if (bytes <= 0) {
+            return 0L;
+        }
+        computeEnds();
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            Preconditions.checkArgument(offsets[i] >= 0, "Expected a non-negative offset, but got " + offsets[i]);
+            long position = offsets[i] % bytes;
+            int index = indexOf(position);
+            T chunk = held.get(index);
+            int inner = (int)(position - (ends[index] - heldSizes.get(index)));
+            if (write) {
+                write(chunk, inner, (byte)i);
+            } else {
+                sum += read(chunk, inner);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Finds the end offset of each held chunk, laid end to end, if the chunks changed.
+     */
+    private void computeEnds () {
+        if (ends == null) {
+            ends = new long[held.size()];
+            long end = 0;
+            for (int i = 0; i < ends.length; i++) {
+                end += heldSizes.get(i);
+                ends[i] = end;
+            }
+        }
+    }
+
+    /**
+     * The index of the chunk that holds the position, which is the first that ends after it.
+     */
+    private int indexOf (final long position) {
+        int index = Arrays.binarySearch(ends, position);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    @Override
+    public synchronized void close () {
+        for (Map.Entry<Integer, ArrayDeque<T>> entry : pool.entrySet()) {
+            entry.getValue().forEach(this::free);
+        }
+        pool.clear();
+        held.clear();
+        heldSizes.clear();
+        ends = null;
+        bytes = 0;
+    }
+}
@@ -0,0 +1,130 @@
+package org.builder.session.jackson.workflow.utilize.memory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.time.Duration;
+
+import com.google.common.base.Preconditions;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the committed heap close to what the heap-held load needs. Released chunks stay
+ * committed as garbage until a collection, and the heap is only uncommitted, within the
+ * bounds of -XX:MinHeapFreeRatio and -XX:MaxHeapFreeRatio, by a full collection. So once
+ * enough has been released, this triggers one rather than waiting for the JVM to. A full
+ * collection stops the whole JVM, so they are spaced at least a few seconds apart, and the
+ * caller should trim from a thread of its own rather than from the ControlScheduler. It also
+ * measures how much the committed heap grows between checks and shrinks on collections.
+ */
+@Slf4j
+public class HeapFootprint {
+
+    // Released bytes below this aren't worth a collection.
+    private static final long MIN_RELEASED_BYTES = 64L * 1024 * 1024;
+    // Or below this fraction of the held bytes, so that large loads aren't collected too often.
+    private static final double MIN_RELEASED_FRACTION = 0.05;
+    private static final Duration MIN_COLLECTION_INTERVAL = Duration.ofSeconds(5);
+
+    @NonNull
+    private final MemoryMXBean bean = ManagementFactory.getMemoryMXBean();
+    // Guarded by this.
+    private long releasedBytes = 0;
+    private long lastCommittedBytes = -1;
+    private long lastCollectionAtInNanos = 0;
+    private long collections = 0;
+    private long grownBytes = 0;
+    private long uncommittedBytes = 0;
+    private Duration lastCollection = Duration.ZERO;
+    private long lastUncommittedBytes = 0;
+
+    /**
+     * A view of the heap and of what this has done to it.
+     */
+    @Value
+    @Builder
+    public static class Snapshot {
+        private final long heapUsedBytes;
+        private final long heapCommittedBytes;
+        // Or -1 if the heap has no maximum.
+        private final long heapMaxBytes;
+        // Collections triggered, and the committed heap they gave back in total and the last time.
+        private final long collections;
+        private final long uncommittedBytes;
+        private final long lastUncommittedBytes;
+        @NonNull
+        private final Duration lastCollection;
+        // The growth in committed heap seen between checks, in total.
+        private final long grownBytes;
+    }
+
+    /**
+     * Notes that held chunks were released and are now garbage on the heap.
+     */
+    public synchronized void onReleased (final long bytes) {
+        Preconditions.checkArgument(bytes >= 0, "Bytes should be greater than or equal to zero.");
+        releasedBytes += bytes;
+    }
+
+    /**
+     * Triggers a full collection if enough has been released since the last one, and the last
+     * one was long enough ago. The collection runs without holding the lock on this, so that
+     * releases and snapshots don't wait on it. Trims must not run concurrently.
+     *
+     * @return true if a collection ran.
+     */
+    public boolean trim (final long heldBytes) {
+        long released;
+        long now;
+        synchronized (this) {
+            observe(bean.getHeapMemoryUsage().getCommitted());
+            long threshold = Math.max(MIN_RELEASED_BYTES, (long)(heldBytes * MIN_RELEASED_FRACTION));
+            now = System.nanoTime();
+            if (releasedBytes < threshold
+                    || (collections > 0 && now - lastCollectionAtInNanos < MIN_COLLECTION_INTERVAL.toNanos())) {
+                return false;
+            }
+            released = releasedBytes;
+            releasedBytes = 0;
+        }
+        long before = bean.getHeapMemoryUsage().getCommitted();
+        bean.gc();
+        long after = bean.getHeapMemoryUsage().getCommitted();
+        synchronized (this) {
+            lastCollectionAtInNanos = System.nanoTime();
+            lastCollection = Duration.ofNanos(lastCollectionAtInNanos - now);
+            lastUncommittedBytes = Math.max(0L, before - after);
+            uncommittedBytes += lastUncommittedBytes;
+            collections++;
+            lastCommittedBytes = after;
+        }
+        log.info("Collected {} released bytes in {}, taking committed heap from {} to {} for {} held bytes.",
+                 new Object[] { released, lastCollection, before, after, heldBytes });
+        return true;
+    }
+
+    private void observe (final long committedBytes) {
+        if (lastCommittedBytes >= 0 && committedBytes > lastCommittedBytes) {
+            grownBytes += committedBytes - lastCommittedBytes;
+        }
+        lastCommittedBytes = committedBytes;
+    }
+
+    public synchronized Snapshot snapshot () {
+        MemoryUsage heap = bean.getHeapMemoryUsage();
+        return Snapshot.builder()
+                       .heapUsedBytes(heap.getUsed())
+                       .heapCommittedBytes(heap.getCommitted())
+                       .heapMaxBytes(heap.getMax())
+                       .collections(collections)
+                       .uncommittedBytes(uncommittedBytes)
+                       .lastUncommittedBytes(lastUncommittedBytes)
+                       .lastCollection(lastCollection)
+                       .grownBytes(grownBytes)
+                       .build();
+    }
+}
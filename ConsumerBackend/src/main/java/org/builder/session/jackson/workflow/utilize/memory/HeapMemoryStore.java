@@ -0,0 +1,31 @@
+package org.builder.session.jackson.workflow.utilize.memory;
+
+import lombok.NonNull;
+
+/**
+ * Holds each chunk as an array on the heap, which the JVM zeroes when allocated. Released
+ * chunks only leave the process after a later garbage collection, and then only if the heap
+ * shrinks.
+ */
+public class HeapMemoryStore extends ChunkedMemoryStore<byte[]> {
+
+    @Override
+    protected byte[] allocate (final int size) {
+        return new byte[size];
+    }
+
+    @Override
+    protected void free (@NonNull final byte[] chunk) {
+        // Left to the garbage collector.
+    }
+
+    @Override
+    protected byte read (@NonNull final byte[] chunk, final int offset) {
+        return chunk[offset];
+    }
+
+    @Override
+    protected void write (@NonNull final byte[] chunk, final int offset, final byte value) {
+        chunk[offset] = value;
+    }
+}
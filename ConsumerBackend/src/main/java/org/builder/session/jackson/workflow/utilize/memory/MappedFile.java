@@ -0,0 +1,181 @@
+package org.builder.session.jackson.workflow.utilize.memory;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.builder.session.jackson.exception.ConsumerInternalException;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A file whose pages hold memory for a store. It grows by writing, which fails cleanly when
+ * the file system is full, and shrinks by truncating, which drops the pages at once. It is
+ * touched through mappings of fixed segments, made when first touched. Mappings outlive
+ * truncation, so callers must never touch beyond the bytes held. The file is unlinked as
+ * soon as it is opened, so its pages are returned when the process exits, even if it crashes.
+ *
+ * Not thread safe, so stores synchronize on themselves around it.
+ */
+@Slf4j
+class MappedFile implements AutoCloseable {
+
+    private static final int SEGMENT_BYTES = 64 * 1024 * 1024;
+    private static final int WRITE_BYTES = 1024 * 1024;
+    private static final byte FILL = (byte)0x5A;
+
+    @NonNull
+    private final Path directory;
+    @NonNull
+    private final RandomAccessFile file;
+    @NonNull
+    private final FileChannel channel;
+    @NonNull
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    // Filled once, and only read from through duplicates.
+    @NonNull
+    private final ByteBuffer fill = ByteBuffer.allocateDirect(WRITE_BYTES);
+    @NonNull
+    private final ByteBuffer scratch = ByteBuffer.allocateDirect(WRITE_BYTES);
+    @Getter
+    private long bytes = 0;
+
+    MappedFile (@NonNull final Path directory, @NonNull final String prefix) {
+        this.directory = directory;
+        try {
+            Path path = Files.createTempFile(directory, prefix, ".mem");
+            this.file = new RandomAccessFile(path.toFile(), "rw");
+            Files.delete(path);
+        } catch (IOException e) {
+            throw new ConsumerInternalException("Failed to create a file to hold memory in " + directory + ".", e);
+        }
+        this.channel = file.getChannel();
+        byte[] data = new byte[WRITE_BYTES];
+        Arrays.fill(data, FILL);
+        fill.put(data);
+    }
+
+    /**
+     * Writes bytes to the end of the file. Whatever was written before a failure stays held.
+     */
+    void grow (final long bytes) {
+        long target = this.bytes + bytes;
+        try {
+            while (this.bytes < target) {
+                this.bytes += fill(this.bytes, (int)Math.min(WRITE_BYTES, target - this.bytes));
+            }
+        } catch (IOException e) {
+            throw new ConsumerInternalException("Failed to grow memory held in " + directory + " to " + target
+                                                        + " bytes, holding " + this.bytes + ".", e);
+        }
+    }
+
+    void truncate (final long bytes) {
+        try {
+            channel.truncate(bytes);
+            this.bytes = Math.min(this.bytes, bytes);
+        } catch (IOException e) {
+            throw new ConsumerInternalException("Failed to shrink memory held in " + directory + " to " + bytes
+                                                        + " bytes.", e);
+        }
+    }
+
+    /**
+     * Writes over up to one buffer of held bytes from the position, which dirties their pages.
+     *
+     * @return the bytes written.
+     */
+    int rewrite (final long position) throws IOException {
+        return fill(position, (int)Math.min(WRITE_BYTES, bytes - position));
+    }
+
+    /**
+     * Reads up to one buffer of held bytes from the position, which brings their pages into
+     * the cache and marks them as recently used.
+     *
+     * @return the bytes read.
+     */
+    int read (final long position) throws IOException {
+        // Through Buffer, since the ByteBuffer overrides of clear() and limit() are missing before Java 9.
+        ((Buffer)scratch).clear();
+        ((Buffer)scratch).limit((int)Math.min(WRITE_BYTES, bytes - position));
+        int read = 0;
+        while (scratch.hasRemaining()) {
+            int count = channel.read(scratch, position + read);
+            if (count < 0) {
+                break;
+            }
+            read += count;
+        }
+        return read;
+    }
+
+    /**
+     * Writes dirty pages back to the device, so that they are clean but stay cached. Unlike
+     * the other methods, this may run concurrently with them, and fails with a
+     * ClosedChannelException if the file is closed.
+     */
+    void force () throws IOException {
+        channel.force(false);
+    }
+
+    private int fill (final long position, final int length) throws IOException {
+        ByteBuffer data = fill.duplicate();
+        ((Buffer)data).clear();
+        ((Buffer)data).limit(length);
+        int written = 0;
+        while (data.hasRemaining()) {
+            written += channel.write(data, position + written);
+        }
+        return written;
+    }
+
+    byte get (final long position) {
+        return getSegment((int)(position / SEGMENT_BYTES)).get((int)(position % SEGMENT_BYTES));
+    }
+
+    void put (final long position, final byte value) {
+        getSegment((int)(position / SEGMENT_BYTES)).put((int)(position % SEGMENT_BYTES), value);
+    }
+
+    private MappedByteBuffer getSegment (final int index) {
+        try {
+            while (segments.size() <= index) {
+                // Mapping past the end extends the file without allocating pages, which stay
+                // holes unless written, and the next truncation cuts it back.
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE,
+                                         (long)segments.size() * SEGMENT_BYTES,
+                                         SEGMENT_BYTES));
+            }
+        } catch (IOException e) {
+            throw new ConsumerInternalException("Failed to map memory held in " + directory + ".", e);
+        }
+        return segments.get(index);
+    }
+
+    /**
+     * Closes the file, which returns its pages once the mappings are collected.
+     */
+    @Override
+    public void close () {
+        try {
+            channel.truncate(0);
+            channel.close();
+            file.close();
+        } catch (IOException e) {
+            log.warn("Failed to close memory held in " + directory + ".", e);
+        }
+        segments.clear();
+        bytes = 0;
+    }
+}
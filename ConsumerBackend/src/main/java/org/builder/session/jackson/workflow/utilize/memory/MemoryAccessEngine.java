@@ -0,0 +1,245 @@
+package org.builder.session.jackson.workflow.utilize.memory;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads and writes the memory held by a store at target rates, so that held memory
+ * generates memory bandwidth and cache pressure rather than only footprint, and so
+ * that the kernel doesn't see it as idle. Rates count whole cache lines, as that is
+ * what moves between memory and the caches. Work is paced on System.nanoTime() in
+ * small batches, parking in between, and any backlog beyond a short time, as from a stall
+ * or a rate faster than this thread can reach, is dropped rather than made up in a burst.
+ * The rates achieved are measured alongside, so that a plan out of reach shows up as
+ * achieved rates below it. Random lines of a batch are touched in one call to the store,
+ * so that the store is locked once per batch rather than once per line.
+ */
+@Slf4j
+public class MemoryAccessEngine implements AutoCloseable {
+
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // The most lines touched in one batch, which bounds how long the store is locked for.
+    private static final int BATCH_LINES = 1024;
+    // The most time that unused budget may build up over.
+    private static final long MAX_BACKLOG_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // The time over which achieved rates are measured.
+    private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @NonNull
+    private final Thread thread;
+    @NonNull
+    private volatile MemoryStore store;
+    @Getter
+    @NonNull
+    private volatile Plan plan = Plan.IDLE;
+    @Getter
+    @NonNull
+    private volatile Rates achieved = Rates.NONE;
+    private volatile boolean running = true;
+    // Where read results are published, so that the JIT cannot remove the reads.
+    private volatile long sink = 0;
+
+    /**
+     * How memory is accessed and how fast.
+     */
+    @Value
+    public static class Plan {
+        public static final Plan IDLE = new Plan(AccessPattern.SEQUENTIAL, 0L, 0L, 0.0, 0.0);
+
+        @NonNull
+        private final AccessPattern pattern;
+        private final long readBytesPerSecond;
+        private final long writeBytesPerSecond;
+        // For HOT_COLD, the fraction of held memory that is hot and the share of accesses it gets.
+        private final double hotFraction;
+        private final double hotAccessShare;
+
+        public Plan(@NonNull final AccessPattern pattern,
+                    final long readBytesPerSecond,
+                    final long writeBytesPerSecond,
+                    final double hotFraction,
+                    final double hotAccessShare) {
+            Preconditions.checkArgument(readBytesPerSecond >= 0 && writeBytesPerSecond >= 0,
+                                        "Expected non-negative access rates.");
+            Preconditions.checkArgument(0.0 <= hotFraction && hotFraction <= 1.0,
+                                        "Expected a hot fraction within [0, 1], but got " + hotFraction);
+            Preconditions.checkArgument(0.0 <= hotAccessShare && hotAccessShare <= 1.0,
+                                        "Expected a hot access share within [0, 1], but got " + hotAccessShare);
+            this.pattern = pattern;
+            this.readBytesPerSecond = readBytesPerSecond;
+            this.writeBytesPerSecond = writeBytesPerSecond;
+            this.hotFraction = hotFraction;
+            this.hotAccessShare = hotAccessShare;
+        }
+
+        public boolean isIdle() {
+            return readBytesPerSecond == 0 && writeBytesPerSecond == 0;
+        }
+    }
+
+    /**
+     * The rates at which memory was read and written over the latest window.
+     */
+    @Value
+    public static class Rates {
+        public static final Rates NONE = new Rates(0L, 0L);
+
+        private final long readBytesPerSecond;
+        private final long writeBytesPerSecond;
+    }
+
+    public MemoryAccessEngine(@NonNull final String name, @NonNull final MemoryStore store) {
+        this.store = store;
+        ThreadFactory factory = new ThreadFactoryBuilder().setNameFormat(name)
+                                                          .setDaemon(true)
+                                                          .build();
+        this.thread = factory.newThread(this::run);
+        this.thread.start();
+    }
+
+    /**
+     * Moves the engine to a new store, as when the backing of held memory changes.
+     */
+    public void setStore(@NonNull final MemoryStore store) {
+        this.store = store;
+    }
+
+    public void setPlan(@NonNull final Plan plan) {
+        this.plan = plan;
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        SplittableRandom random = new SplittableRandom();
+        long[] offsets = new long[BATCH_LINES];
+        Plan current = null;
+        long position = 0;
+        long last = System.nanoTime();
+        // Unused budgets, in cache lines.
+        double readLines = 0.0;
+        double writeLines = 0.0;
+        long result = 0;
+        // The lines touched over the current rate window.
+        long windowStart = last;
+        long windowReads = 0;
+        long windowWrites = 0;
+        while (running) {
+            try {
+                long windowElapsed = System.nanoTime() - windowStart;
+                if (windowElapsed >= RATE_WINDOW_NANOS) {
+                    achieved = new Rates(toBytesPerSecond(windowReads, windowElapsed),
+                                         toBytesPerSecond(windowWrites, windowElapsed));
+                    windowStart += windowElapsed;
+                    windowReads = 0;
+                    windowWrites = 0;
+                }
+                Plan selected = plan;
+                MemoryStore target = store;
+                long bytes = target.getBytes();
+                if (selected.isIdle() || bytes < MemoryStore.LINE_BYTES) {
+                    LockSupport.parkNanos(this, IDLE_NANOS);
+                    last = System.nanoTime();
+                    readLines = 0.0;
+                    writeLines = 0.0;
+                    continue;
+                }
+                if (selected != current) {
+                    current = selected;
+                    readLines = 0.0;
+                    writeLines = 0.0;
+                }
+                long now = System.nanoTime();
+                long elapsed = now - last;
+                last = now;
+                readLines = Math.min(readLines + toLines(current.getReadBytesPerSecond(), elapsed),
+                                     toLines(current.getReadBytesPerSecond(), MAX_BACKLOG_NANOS));
+                writeLines = Math.min(writeLines + toLines(current.getWriteBytesPerSecond(), elapsed),
+                                      toLines(current.getWriteBytesPerSecond(), MAX_BACKLOG_NANOS));
+                if (readLines < 1.0 && writeLines < 1.0) {
+                    LockSupport.parkNanos(this, TICK_NANOS);
+                    continue;
+                }
+                int reads = (int)Math.min(BATCH_LINES, readLines);
+                int writes = (int)Math.min(BATCH_LINES, writeLines);
+                result += access(target, current, random, offsets, position, bytes, reads, false);
+                access(target, current, random, offsets, position, bytes, writes, true);
+                windowReads += reads;
+                windowWrites += writes;
+                if (AccessPattern.SEQUENTIAL.equals(current.getPattern())) {
+                    position = (position + (long)Math.max(reads, writes) * MemoryStore.LINE_BYTES) % bytes;
+                }
+                readLines -= reads;
+                writeLines -= writes;
+                sink = result;
+            } catch (Throwable t) {
+                log.warn("Ran into exception in memory access thread.", t);
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+        }
+    }
+
+    private static long access(MemoryStore store, Plan plan, SplittableRandom random, long[] offsets,
+                               long position, long bytes, int lines, boolean write) {
+        if (lines <= 0) {
+            return 0L;
+        }
+        switch (plan.getPattern()) {
+            case SEQUENTIAL:
+                return store.touch(position, lines, write);
+            case RANDOM_LINES:
+                for (int i = 0; i < lines; i++) {
+                    offsets[i] = randomLine(random, 0, bytes);
+                }
+                return store.touch(offsets, lines, write);
+            case HOT_COLD:
+                long hotBytes = Math.max(MemoryStore.LINE_BYTES, (long)(bytes * plan.getHotFraction()));
+                for (int i = 0; i < lines; i++) {
+                    boolean hot = hotBytes >= bytes || random.nextDouble() < plan.getHotAccessShare();
+                    offsets[i] = hot ? randomLine(random, 0, Math.min(hotBytes, bytes))
+                                     : randomLine(random, hotBytes, bytes);
+                }
+                return store.touch(offsets, lines, write);
+            default:
+                throw new IllegalStateException("Unrecognized access pattern " + plan.getPattern());
+        }
+    }
+
+    /**
+     * The cache lines touched over the time at the rate.
+     */
+    private static double toLines(long bytesPerSecond, long nanos) {
+        return (double)bytesPerSecond * nanos / TimeUnit.SECONDS.toNanos(1) / MemoryStore.LINE_BYTES;
+    }
+
+    /**
+     * The bytes per second of the cache lines touched over the time.
+     */
+    private static long toBytesPerSecond(long lines, long nanos) {
+        return (long)((double)lines * MemoryStore.LINE_BYTES * TimeUnit.SECONDS.toNanos(1) / nanos);
+    }
+
+    /**
+     * The offset of a random cache line within [from, to).
+     */
+    private static long randomLine(SplittableRandom random, long from, long to) {
+        long lines = Math.max(1L, (to - from) / MemoryStore.LINE_BYTES);
+        return from + random.nextLong(lines) * MemoryStore.LINE_BYTES;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+}
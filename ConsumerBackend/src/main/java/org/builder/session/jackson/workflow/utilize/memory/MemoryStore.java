@@ -0,0 +1,46 @@
+package org.builder.session.jackson.workflow.utilize.memory;
+
+/**
+ * Holds the memory of the memory consumer, exactly to the byte, so that the
+ * way memory is held can be swapped without changing the control loop.
+ */
+public interface MemoryStore extends AutoCloseable {
+
+    public static final int LINE_BYTES = 64;
+
+    /**
+     * Takes hold of more bytes, touching them so that they count as used.
+     */
+    public void grow (long bytes);
+
+    /**
+     * Lets go of bytes, down to none.
+     */
+    public void shrink (long bytes);
+
+    /**
+     * The bytes held.
+     */
+    public long getBytes ();
+
+    /**
+     * Touches one byte in each of consecutive cache lines, starting from the offset within
+     * the held bytes and wrapping around at the end. Reads return a sum of the bytes read,
+     * which the caller should keep so that the reads cannot be optimized away.
+     */
+    public long touch (long offset, int lines, boolean write);
+
+    /**
+     * Touches one byte in the cache line at each of the first count offsets, wrapping each
+     * around at the end of the held bytes. The whole batch is touched under one hold of the
+     * store, so that scattered lines cost no more to reach than consecutive ones. Reads
+     * return a sum as with touching consecutive lines.
+     */
+    public long touch (long[] offsets, int count, boolean write);
+
+    /**
+     * Lets go of every byte.
+     */
+    @Override
+    public void close ();
+}
@@ -0,0 +1,94 @@
+package org.builder.session.jackson.workflow.utilize.memory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+import com.google.common.base.Preconditions;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Allocates and frees memory outside of the heap as direct buffers. A direct buffer is
+ * normally only freed once the garbage collector finds it unreachable, so this runs the
+ * buffer's cleaner as soon as it is freed instead. The cleaner isn't public API, so it is
+ * looked up by reflection: through Unsafe.invokeCleaner on Java 9 and later, and through
+ * the buffer's own cleaner on Java 8. If neither is found, freed buffers are left to the
+ * garbage collector.
+ *
+ * Direct buffers are capped by -XX:MaxDirectMemorySize, which defaults to the max heap.
+ * An allocation beyond the cap throws an OutOfMemoryError, like any other allocation.
+ */
+@Slf4j
+final class NativeMemory {
+
+    // Bytes written when touching memory. Zero would let pages stay unbacked on some systems.
+    private static final byte FILL = (byte)0x5A;
+    private static final byte[] FILL_PAGE = filledPage();
+    private static final Consumer<ByteBuffer> CLEANER = loadCleaner();
+
+    private NativeMemory () {
+    }
+
+    private static byte[] filledPage () {
+        byte[] page = new byte[4096];
+        for (int i = 0; i < page.length; i++) {
+            page[i] = FILL;
+        }
+        return page;
+    }
+
+    private static Consumer<ByteBuffer> loadCleaner () {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            return buffer -> invoke(invokeCleaner, unsafe, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Found no Unsafe.invokeCleaner, looking for the cleaner of Java 8.", e);
+        }
+        try {
+            Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return buffer -> invoke(clean, invoke(cleaner, buffer), new Object[0]);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Found no cleaner for direct buffers, so freed memory waits for a garbage collection.", e);
+            return buffer -> {};
+        }
+    }
+
+    private static Object invoke (Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to free a direct buffer.", e);
+        }
+    }
+
+    /**
+     * Allocates memory and writes to every byte of it, so that its pages are resident.
+     */
+    static ByteBuffer allocate (final int bytes) {
+        Preconditions.checkArgument(bytes > 0, "Expected a positive size, but got " + bytes);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes);
+        while (buffer.hasRemaining()) {
+            buffer.put(FILL_PAGE, 0, Math.min(FILL_PAGE.length, buffer.remaining()));
+        }
+        // Called through Buffer, as ByteBuffer.clear() only exists from Java 9 and the image runs Java 8.
+        ((Buffer)buffer).clear();
+        return buffer;
+    }
+
+    /**
+     * Frees the memory of the buffer, which must not be used again.
+     */
+    static void free (@NonNull final ByteBuffer buffer) {
+        Preconditions.checkArgument(buffer.isDirect(), "Expected a direct buffer.");
+        CLEANER.accept(buffer);
+    }
+}
@@ -0,0 +1,47 @@
+package org.builder.session.jackson.workflow.utilize.memory;
+
+import java.nio.ByteBuffer;
+
+import lombok.NonNull;
+
+/**
+ * Holds each chunk outside of the heap in a direct buffer, freeing it as soon as it is
+ * released, and doesn't count against the heap limits of the JVM.
+ *
+ * Freed memory only leaves the process if malloc gave the chunk its own mapping. glibc maps
+ * requests of at least its mmap threshold, which starts at 128KB but rises as mapped chunks
+ * are freed, up to 32MB on 64-bit hosts. Smaller chunks come from an arena, which rarely
+ * returns them. So every chunk is at least 32MB, with remainders rounded up, and the store
+ * may hold up to 32MB more than its load.
+ *
+ * Link: https://man7.org/linux/man-pages/man3/mallopt.3.html
+ */
+public class NativeMemoryStore extends ChunkedMemoryStore<ByteBuffer> {
+
+    // The largest mmap threshold glibc adjusts to on 64-bit hosts (DEFAULT_MMAP_THRESHOLD_MAX).
+    public static final int MIN_MAPPED_CHUNK_BYTES = 32 * 1024 * 1024;
+
+    public NativeMemoryStore () {
+        super(MIN_MAPPED_CHUNK_BYTES, true);
+    }
+
+    @Override
+    protected ByteBuffer allocate (final int size) {
+        return NativeMemory.allocate(size);
+    }
+
+    @Override
+    protected void free (@NonNull final ByteBuffer chunk) {
+        NativeMemory.free(chunk);
+    }
+
+    @Override
+    protected byte read (@NonNull final ByteBuffer chunk, final int offset) {
+        return chunk.get(offset);
+    }
+
+    @Override
+    protected void write (@NonNull final ByteBuffer chunk, final int offset, final byte value) {
+        chunk.put(offset, value);
+    }
+}
@@ -0,0 +1,226 @@
+package org.builder.session.jackson.workflow.utilize.memory;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds memory as page cache of files on disk, which the memory cgroup charges to the task
+ * but which the kernel may reclaim under pressure, by dropping clean pages or writing back
+ * dirty ones. Memory is split across two files by the dirty share. A refresher thread
+ * rewrites the dirty file more often than the kernel writes dirty pages back, so that it
+ * stays mostly dirty. It flushes and re-reads the clean file, so that it stays clean and
+ * recently used. Shrinking truncates the files, which drops their pages without writing
+ * them back.
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public class PageCacheMemoryStore implements MemoryStore {
+
+    public static final Path DEFAULT_DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"));
+    // Well within the kernel's default 30s dirty expiry, so that dirty pages are written
+    // again soon after they are written back.
+    private static final Duration REWRITE_INTERVAL = Duration.ofSeconds(5);
+    // Often enough that clean pages stay on the active list.
+    private static final Duration REREAD_INTERVAL = Duration.ofSeconds(30);
+
+    @NonNull
+    @ToString.Include
+    private final Path directory;
+    // Guarded by this. The clean file is laid out before the dirty one.
+    @NonNull
+    private final MappedFile clean;
+    @NonNull
+    private final MappedFile dirty;
+    @ToString.Include
+    private double dirtyShare = 0.0;
+    @NonNull
+    private final Thread refresher;
+    private volatile boolean running = true;
+
+    public PageCacheMemoryStore () {
+        this(DEFAULT_DIRECTORY);
+    }
+
+    public PageCacheMemoryStore (@NonNull final Path directory) {
+        Preconditions.checkArgument(Files.isDirectory(directory) && Files.isWritable(directory),
+                                    "Expected a writable directory, but got " + directory);
+        this.directory = directory;
+        this.clean = new MappedFile(directory, "MemoryConsumerClean");
+        this.dirty = new MappedFile(directory, "MemoryConsumerDirty");
+        ThreadFactory factory = new ThreadFactoryBuilder().setNameFormat("PageCacheRefresher")
+                                                          .setDaemon(true)
+                                                          .build();
+        this.refresher = factory.newThread(this::refresh);
+        this.refresher.start();
+    }
+
+    /**
+     * Sets the share of held bytes kept dirty, moving bytes between the files to match.
+     */
+    public synchronized void setDirtyShare (final double dirtyShare) {
+        Preconditions.checkArgument(0.0 <= dirtyShare && dirtyShare <= 1.0,
+                                    "Expected a dirty share within [0, 1], but got " + dirtyShare);
+        this.dirtyShare = dirtyShare;
+        long change = getDirtyGoal(getBytes()) - dirty.getBytes();
+        if (change > 0) {
+            clean.truncate(clean.getBytes() - change);
+            dirty.grow(change);
+        } else if (change < 0) {
+            dirty.truncate(dirty.getBytes() + change);
+            clean.grow(-change);
+        }
+    }
+
+    private long getDirtyGoal (final long bytes) {
+        return Math.round(bytes * dirtyShare);
+    }
+
+    /**
+     * Writes the bytes, split so that the dirty share is met. New clean pages are dirty
+     * until the refresher flushes them.
+     */
+    @Override
+    public synchronized void grow (final long bytes) {
+        Preconditions.checkArgument(bytes >= 0, "Bytes should be greater than or equal to zero.");
+        long toDirty = Math.max(0L, Math.min(bytes, getDirtyGoal(getBytes() + bytes) - dirty.getBytes()));
+        dirty.grow(toDirty);
+        clean.grow(bytes - toDirty);
+    }
+
+    /**
+     * Truncates the files, taking from whichever is beyond its share first.
+     */
+    @Override
+    public synchronized void shrink (final long bytes) {
+        Preconditions.checkArgument(bytes >= 0, "Bytes should be greater than or equal to zero.");
+        long remaining = Math.min(bytes, getBytes());
+        long fromDirty = Math.max(0L, Math.min(remaining, dirty.getBytes() - getDirtyGoal(getBytes() - remaining)));
+        long fromClean = Math.min(remaining - fromDirty, clean.getBytes());
+        fromDirty = remaining - fromClean;
+        dirty.truncate(dirty.getBytes() - fromDirty);
+        clean.truncate(clean.getBytes() - fromClean);
+    }
+
+    @Override
+    @ToString.Include
+    public synchronized long getBytes () {
+        return clean.getBytes() + dirty.getBytes();
+    }
+
+    @Override
+    public synchronized long touch (final long offset, final int lines, final boolean write) {
+        Preconditions.checkArgument(offset >= 0, "Expected a non-negative offset, but got " + offset);
+        long bytes = getBytes();
+        if (bytes <= 0 || lines <= 0) {
+            return 0L;
+        }
+        long position = offset % bytes;
+        long sum = 0;
+        for (int line = 0; line < lines; line++) {
+            MappedFile file = position < clean.getBytes() ? clean : dirty;
+            long inner = file == clean ? position : position - clean.getBytes();
+            if (write) {
+                file.put(inner, (byte)line);
+            } else {
+                sum += file.get(inner);
+            }
+            position += LINE_BYTES;
+            if (position >= bytes) {
+                position = 0;
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public synchronized long touch (@NonNull final long[] offsets, final int count, final boolean write) {
+        Preconditions.checkArgument(0 <= count && count <= offsets.length,
+                                    "Expected a count within [0, " + offsets.length + "], but got " + count);
+        long bytes = getBytes();
+        if (bytes <= 0) {
+            return 0L;
+        }
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            Preconditions.checkArgument(offsets[i] >= 0, "Expected a non-negative offset, but got " + offsets[i]);
+            long position = offsets[i] % bytes;
+            MappedFile file = position < clean.getBytes() ? clean : dirty;
+            long inner = file == clean ? position : position - clean.getBytes();
+            if (write) {
+                file.put(inner, (byte)i);
+            } else {
+                sum += file.get(inner);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Rewrites the dirty file on every pass, and flushes and re-reads the clean file every
+     * few passes. The files are worked through a buffer at a time, so that the store is
+     * only locked briefly, and the flush isn't locked at all.
+     */
+    private void refresh () {
+        long passesPerReread = Math.max(1L, REREAD_INTERVAL.toNanos() / REWRITE_INTERVAL.toNanos());
+        long pass = 0;
+        while (running) {
+            long start = System.nanoTime();
+            try {
+                for (long position = 0, done = 1; running && done > 0; position += done) {
+                    synchronized (this) {
+                        done = position < dirty.getBytes() ? dirty.rewrite(position) : 0;
+                    }
+                }
+                if (pass++ % passesPerReread == 0) {
+                    boolean open;
+                    synchronized (this) {
+                        open = running;
+                    }
+                    if (open) {
+                        // Flushing waits on the device, so it runs without the lock, where
+                        // only a close can race it.
+                        clean.force();
+                    }
+                    for (long position = 0, done = 1; running && done > 0; position += done) {
+                        synchronized (this) {
+                            done = position < clean.getBytes() ? clean.read(position) : 0;
+                        }
+                    }
+                }
+            } catch (ClosedChannelException e) {
+                if (running) {
+                    log.warn("Failed to refresh the page cache held in " + directory + ".", e);
+                }
+            } catch (IOException e) {
+                log.warn("Failed to refresh the page cache held in " + directory + ".", e);
+            } catch (Throwable t) {
+                log.warn("Ran into exception in page cache refresher thread.", t);
+            }
+            long remaining = REWRITE_INTERVAL.toNanos() - (System.nanoTime() - start);
+            if (remaining > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close () {
+        running = false;
+        LockSupport.unpark(refresher);
+        clean.close();
+        dirty.close();
+    }
+}
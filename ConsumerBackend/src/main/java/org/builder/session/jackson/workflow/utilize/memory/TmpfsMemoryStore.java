@@ -0,0 +1,128 @@
+package org.builder.session.jackson.workflow.utilize.memory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.builder.session.jackson.exception.ConsumerInternalException;
+
+import com.google.common.base.Preconditions;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds memory as a file on tmpfs, such as /dev/shm. Its pages are shared memory, which the
+ * memory cgroup charges to the task like any other, but they aren't held by the JVM and,
+ * without swap, can't be reclaimed under pressure. Growth is capped at the room left on the
+ * tmpfs, and shrinking truncates the file, which returns the pages at once.
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public class TmpfsMemoryStore implements MemoryStore {
+
+    public static final Path DEFAULT_DIRECTORY = Paths.get("/dev/shm");
+    private static final int PAGE_BYTES = 4096;
+
+    @NonNull
+    @ToString.Include
+    private final Path directory;
+    @NonNull
+    private final MappedFile file;
+
+    public TmpfsMemoryStore () {
+        this(DEFAULT_DIRECTORY);
+    }
+
+    public TmpfsMemoryStore (@NonNull final Path directory) {
+        Preconditions.checkArgument(Files.isDirectory(directory) && Files.isWritable(directory),
+                                    "Expected a writable tmpfs directory, but got " + directory);
+        this.directory = directory;
+        this.file = new MappedFile(directory, "MemoryConsumer");
+    }
+
+    /**
+     * Writes the bytes to the end of the file, or as many as the tmpfs has room for.
+     */
+    @Override
+    public synchronized void grow (final long bytes) {
+        Preconditions.checkArgument(bytes >= 0, "Bytes should be greater than or equal to zero.");
+        long room;
+        try {
+            room = Files.getFileStore(directory).getUsableSpace() / PAGE_BYTES * PAGE_BYTES;
+        } catch (IOException e) {
+            throw new ConsumerInternalException("Failed to read the room left in " + directory + ".", e);
+        }
+        if (bytes > room) {
+            log.warn("Only {} of {} bytes fit in {}, so holding {} bytes.",
+                     new Object[] { room, bytes, directory, file.getBytes() + room });
+        }
+        file.grow(Math.min(bytes, room));
+    }
+
+    /**
+     * Truncates the file, which returns the pages beyond the bytes held to the system.
+     */
+    @Override
+    public synchronized void shrink (final long bytes) {
+        Preconditions.checkArgument(bytes >= 0, "Bytes should be greater than or equal to zero.");
+        file.truncate(Math.max(0L, file.getBytes() - bytes));
+    }
+
+    @Override
+    @ToString.Include
+    public synchronized long getBytes () {
+        return file.getBytes();
+    }
+
+    @Override
+    public synchronized long touch (final long offset, final int lines, final boolean write) {
+        Preconditions.checkArgument(offset >= 0, "Expected a non-negative offset, but got " + offset);
+        long bytes = file.getBytes();
+        if (bytes <= 0 || lines <= 0) {
+            return 0L;
+        }
+        long position = offset % bytes;
+        long sum = 0;
+        for (int line = 0; line < lines; line++) {
+            if (write) {
+                file.put(position, (byte)line);
+            } else {
+                sum += file.get(position);
+            }
+            position += LINE_BYTES;
+            if (position >= bytes) {
+                position = 0;
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public synchronized long touch (@NonNull final long[] offsets, final int count, final boolean write) {
+        Preconditions.checkArgument(0 <= count && count <= offsets.length,
+                                    "Expected a count within [0, " + offsets.length + "], but got " + count);
+        long bytes = file.getBytes();
+        if (bytes <= 0) {
+            return 0L;
+        }
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            Preconditions.checkArgument(offsets[i] >= 0, "Expected a non-negative offset, but got " + offsets[i]);
+            long position = offsets[i] % bytes;
+            if (write) {
+                file.put(position, (byte)i);
+            } else {
+                sum += file.get(position);
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public synchronized void close () {
+        file.close();
+    }
+}
@@ -0,0 +1,187 @@
+package org.builder.session.jackson.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.build.session.jackson.proto.Resource;
+import org.build.session.jackson.proto.Unit;
+import org.builder.session.jackson.system.DigitalUnit;
+import org.builder.session.jackson.workflow.control.ControllerType;
+import org.builder.session.jackson.workflow.control.ConvergenceTracker;
+import org.builder.session.jackson.workflow.utilize.PIDConfig;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+public class SimulatorTest {
+
+    private static final Duration HOLD = Duration.ofSeconds(120);
+    private static final List<Double> TARGETS = Arrays.asList(0.2, 0.6, 0.4);
+    private static final double MAX_OVERSHOOT_PERCENT = 50.0;
+    private static final long MAX_SETTLING_TIME_IN_MILLIS = 30_000;
+    private static final double MAX_STEADY_STATE_ERROR_PERCENT = 2.0;
+
+    private static final PIDConfig PID = PIDConfig.builder()
+                                                  .pace(Duration.ofSeconds(1))
+                                                  .proportionFactor(0.5)
+                                                  .derivativeFactor(0.5)
+                                                  .integralFactor(0.1)
+                                                  .integralDecay(0.5)
+                                                  .build();
+
+    // Bang-bang control only moves the load a step at a time and cycles around the goal, so it
+    // is given longer to settle and held less tightly.
+    private static final long MAX_BANG_BANG_SETTLING_TIME_IN_MILLIS = 60_000;
+    private static final double MAX_BANG_BANG_STEADY_STATE_ERROR_PERCENT = 5.0;
+
+    private static final long SLEW_RATE_LIMIT = 100;
+    private static final long BANG_BANG_STEP = 8;
+    private static final long BANG_BANG_HYSTERESIS = 2;
+    private static final int PREDICTIVE_HORIZON = 8;
+
+    // A CPU limited to one VCPU that responds to load through a 3s lag.
+    private static final PlantSpec LAGGED = PlantSpec.builder()
+                                                     .gain(1.0)
+                                                     .lag(Duration.ofSeconds(3))
+                                                     .limit(1024)
+                                                     .build();
+
+    // As above, but with the JVM's own usage, a delay before load takes effect and noisy samples.
+    private static final PlantSpec NOISY = LAGGED.toBuilder()
+                                                 .baseline(50)
+                                                 .deadTime(Duration.ofMillis(500))
+                                                 .noise(2.0)
+                                                 .build();
+
+    @Test
+    public void convergesOnLaggedPlant () {
+        assertConverges(LAGGED);
+    }
+
+    @Test
+    public void convergesOnNoisyPlantWithDeadTime () {
+        assertConverges(NOISY);
+    }
+
+    @Test
+    public void convergesWithPidAndFeedForward () {
+        assertConverges(NOISY, PID.toBuilder().feedForward(true).build());
+    }
+
+    @Test
+    public void convergesWithAntiWindupPi () {
+        assertConvergesWithAndWithoutFeedForward(PID.toBuilder()
+                                                    .controller(ControllerType.PI_ANTI_WINDUP)
+                                                    .build());
+    }
+
+    @Test
+    public void convergesWithSlewLimitedControl () {
+        assertConvergesWithAndWithoutFeedForward(PID.toBuilder()
+                                                    .controller(ControllerType.SLEW_LIMITED)
+                                                    .outputRateLimit(SLEW_RATE_LIMIT)
+                                                    .build());
+    }
+
+    @Test
+    public void convergesWithBangBangControl () {
+        PIDConfig config = PID.toBuilder()
+                              .controller(ControllerType.BANG_BANG)
+                              .outputRateLimit(BANG_BANG_STEP)
+                              .hysteresis(BANG_BANG_HYSTERESIS)
+                              .build();
+        for (boolean feedForward : new boolean[] { false, true }) {
+            assertConverges(NOISY,
+                            config.toBuilder().feedForward(feedForward).build(),
+                            MAX_BANG_BANG_SETTLING_TIME_IN_MILLIS,
+                            MAX_BANG_BANG_STEADY_STATE_ERROR_PERCENT);
+        }
+    }
+
+    @Test
+    public void convergesWithPredictiveControl () {
+        assertConvergesWithAndWithoutFeedForward(PID.toBuilder()
+                                                    .controller(ControllerType.PREDICTIVE)
+                                                    .horizon(PREDICTIVE_HORIZON)
+                                                    .build());
+    }
+
+    @Test
+    public void runsAreRepeatableForASeed () {
+        assertEquals(runAndRead(NOISY, 7L), runAndRead(NOISY, 7L));
+    }
+
+    @Test
+    public void runCoversTheRequestedVirtualTime () {
+        SimulatedSystemUtil system = new SimulatedSystemUtil(new VirtualClock(), ImmutableMap.of(Resource.CPU, LAGGED), 0L);
+        Simulator simulator = new Simulator(system);
+        simulator.add(new SimulatedConsumer(Resource.CPU, system, PID));
+
+        Simulator.Result result = simulator.run(HOLD);
+
+        assertEquals(HOLD, result.getSimulated());
+        assertEquals(HOLD.toNanos(), system.getClock().nanos());
+        // One tick per pace, give or take the first and last.
+        assertTrue("Expected a tick per second, but got " + result, Math.abs(result.getTicks() - HOLD.getSeconds()) <= 1);
+    }
+
+    @Test
+    public void allocationIsSimulatedAsARate () {
+        assertEquals(DigitalUnit.BYTES_PER_SECOND, SimulatedSystemUtil.getBaseUnit(Resource.ALLOCATION));
+    }
+
+    private static void assertConvergesWithAndWithoutFeedForward (final PIDConfig config) {
+        assertConverges(NOISY, config.toBuilder().feedForward(false).build());
+        assertConverges(NOISY, config.toBuilder().feedForward(true).build());
+    }
+
+    private static void assertConverges (final PlantSpec plant) {
+        assertConverges(plant, PID);
+    }
+
+    private static void assertConverges (final PlantSpec plant, final PIDConfig config) {
+        assertConverges(plant, config, MAX_SETTLING_TIME_IN_MILLIS, MAX_STEADY_STATE_ERROR_PERCENT);
+    }
+
+    private static void assertConverges (final PlantSpec plant,
+                                         final PIDConfig config,
+                                         final long maxSettlingTimeInMillis,
+                                         final double maxSteadyStateErrorPercent) {
+        SimulatedSystemUtil system = new SimulatedSystemUtil(new VirtualClock(), ImmutableMap.of(Resource.CPU, plant), 0L);
+        SimulatedConsumer consumer = new SimulatedConsumer(Resource.CPU, system, config);
+        Simulator simulator = new Simulator(system);
+        simulator.add(consumer);
+
+        for (double target : TARGETS) {
+            consumer.setTarget(target, Unit.PERCENTAGE);
+            simulator.run(HOLD);
+
+            ConvergenceTracker.Summary episode = consumer.getConvergence().getCurrent().get();
+            String context = "target " + target + " with " + config;
+            assertTrue("Expected " + context + " to settle: " + episode, episode.isSettled());
+            assertTrue("Overshot " + context + ": " + episode,
+                       episode.getOvershootPercent() <= MAX_OVERSHOOT_PERCENT);
+            assertTrue("Settled too slowly on " + context + ": " + episode,
+                       episode.getSettlingTimeInMillis() <= maxSettlingTimeInMillis);
+            assertTrue("Held " + context + " too loosely: " + episode,
+                       episode.getSteadyStateErrorPercent() <= maxSteadyStateErrorPercent);
+        }
+        assertEquals(0, consumer.getConvergence().getUnsettled());
+        consumer.close();
+    }
+
+    private static long runAndRead (final PlantSpec plant, final long seed) {
+        SimulatedSystemUtil system = new SimulatedSystemUtil(new VirtualClock(), ImmutableMap.of(Resource.CPU, plant), seed);
+        SimulatedConsumer consumer = new SimulatedConsumer(Resource.CPU, system, PID);
+        Simulator simulator = new Simulator(system);
+        simulator.add(consumer);
+        consumer.setTarget(0.5, Unit.PERCENTAGE);
+        simulator.run(HOLD);
+        consumer.close();
+        return system.getReading(Resource.CPU);
+    }
+}
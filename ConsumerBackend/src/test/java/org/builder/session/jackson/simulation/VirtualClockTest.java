@@ -0,0 +1,32 @@
+package org.builder.session.jackson.simulation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.Test;
+
+public class VirtualClockTest {
+
+    @Test
+    public void onlyMovesWhenTold () {
+        VirtualClock clock = new VirtualClock();
+        assertEquals(0L, clock.nanos());
+        assertEquals(0L, clock.getTicker().read());
+
+        clock.advance(Duration.ofMillis(1500));
+
+        assertEquals(Duration.ofMillis(1500).toNanos(), clock.nanos());
+        assertEquals(clock.nanos(), clock.getTicker().read());
+        assertEquals(1500L, clock.millis());
+        assertEquals(Instant.EPOCH.plusMillis(1500), clock.instant());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void neverMovesBackwards () {
+        VirtualClock clock = new VirtualClock();
+        clock.advanceTo(10L);
+        clock.advanceTo(5L);
+    }
+}
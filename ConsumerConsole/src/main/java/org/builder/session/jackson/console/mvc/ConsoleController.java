@@ -1,9 +1,17 @@
 package org.builder.session.jackson.console.mvc;
 
+import org.builder.session.jackson.console.util.RequestUtils;
+import org.builder.session.jackson.console.util.TelemetryClients;
+import org.builder.session.jackson.utils.JsonHelper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -11,10 +19,31 @@ import lombok.extern.slf4j.Slf4j;
 @Controller
 public class ConsoleController {
 
+    @Autowired
+    private TelemetryClients telemetryClients;
+
     @RequestMapping(value = "/",
                     method = { RequestMethod.GET, RequestMethod.POST})
     public String index(Model model) {
         log.debug("Starting Index page! Model: " + model);
         return "index";
     }
+
+    /**
+     * Serves the telemetry of one host, which the page loads only once its Telemetry tab is opened.
+     * Only the discovered instances of the service are served, so that the console can't be made
+     * to connect anywhere else.
+     */
+    @RequestMapping(value = "/telemetry",
+                    method = RequestMethod.GET,
+                    produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> telemetry(@RequestParam("host") String host, @RequestParam("port") int port) {
+        if(!telemetryClients.isDiscovered(host, port)) {
+            log.warn("Refused telemetry of {}:{}, which is not an instance of the service.", host, port);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Unknown host.");
+        }
+        return ResponseEntity.ok(RequestUtils.describeTelemetry(host, port, telemetryClients)
+                                             .map(JsonHelper::format)
+                                             .orElse("Could not reach host."));
+    }
 }
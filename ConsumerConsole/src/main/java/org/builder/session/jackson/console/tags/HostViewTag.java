@@ -190,7 +190,10 @@ public class HostViewTag extends SimpleTagSupport {
         DiskUnit,
         SaveNetwork,
         NetworkValue,
-        NetworkUnit;
+        NetworkUnit,
+        SaveAllocation,
+        AllocationValue,
+        AllocationUnit;
 
         public static Input find(Resource resource, String type) {
             return Arrays.asList(Input.values())
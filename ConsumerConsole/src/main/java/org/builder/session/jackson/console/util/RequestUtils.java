@@ -10,6 +10,8 @@ import javax.servlet.http.HttpServletRequest;
 import org.build.session.jackson.proto.Candidate;
 import org.build.session.jackson.proto.ConsumeRequest;
 import org.build.session.jackson.proto.ConsumeResponse;
+import org.build.session.jackson.proto.DescribeTelemetryRequest;
+import org.build.session.jackson.proto.DescribeTelemetryResponse;
 import org.build.session.jackson.proto.InstanceSummary;
 import org.build.session.jackson.proto.Resource;
 import org.build.session.jackson.proto.Unit;
@@ -30,6 +32,9 @@ import software.amazon.awssdk.utils.StringUtils;
 @NoArgsConstructor(access = AccessLevel.NONE)
 public final class RequestUtils {
 
+    // The ticks of each control loop shown per host, enough to see a few settling periods.
+    public static final int TELEMETRY_TICKS = 30;
+
     public static Optional<ConsumeResponse> request(HttpServletRequest request, ConsumerBackendClient client) {
 
         String candidateRawValue = request.getParameter(HostViewTag.Input.Candidate.name());
@@ -99,6 +104,25 @@ public final class RequestUtils {
         }
     }
 
+    /**
+     * Reads the control-loop telemetry of a host by calling it directly, since telemetry is
+     * only served for SELF. A host that can't be reached in time is logged and skipped.
+     */
+    public static Optional<DescribeTelemetryResponse> describeTelemetry(String host, int port, TelemetryClients clients) {
+        DescribeTelemetryRequest request = DescribeTelemetryRequest.newBuilder()
+                                                                   .setCandidate(Candidate.SELF)
+                                                                   .setMaxTicks(TELEMETRY_TICKS)
+                                                                   .build();
+        try {
+            log.info("Telemetry request to {}:{}: {}",
+                     new Object[] { host, port, JsonHelper.toSingleLine(request) });
+            return Optional.of(clients.get(host, port).describeTelemetry(request));
+        } catch (Throwable t) {
+            log.error("Failed to read telemetry of {}:{}.", new Object[] { host, port, t });
+            return Optional.empty();
+        }
+    }
+
     public static List<InstanceSummary> sort(List<InstanceSummary> instances) {
         Lists.newArrayList(instances).sort(
                 Comparator.comparing(i -> i.getHost() + ":" + i.getPort()));
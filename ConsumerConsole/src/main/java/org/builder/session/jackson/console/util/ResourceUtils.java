@@ -28,6 +28,9 @@ public class ResourceUtils {
             .put(Resource.NETWORK, ImmutableSet.<Unit>builder()
                     .addAll(DigitalUnit.findMatchingUnits(Unit.BYTES_PER_SECOND))
                     .build())
+            .put(Resource.ALLOCATION, ImmutableSet.<Unit>builder()
+                    .addAll(DigitalUnit.findMatchingUnits(Unit.BYTES_PER_SECOND))
+                    .build())
             .build();
 
     public static Set<Unit> getMatchingUnits(Resource resource) {
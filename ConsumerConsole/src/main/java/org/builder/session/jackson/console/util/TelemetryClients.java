@@ -0,0 +1,97 @@
+package org.builder.session.jackson.console.util;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.builder.session.jackson.client.consumer.ConsumerBackendClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps a client for each host that telemetry is read from, so that each read reuses the
+ * host's channel instead of opening a new one. Clients of hosts that haven't been read
+ * from in a while are closed, as hosts come and go with the tasks of the service.
+ *
+ * The console is public, so only the hosts of the service, as discovered by the backend,
+ * may be read from, and the number of clients held is bounded.
+ */
+@Slf4j
+@Component
+public class TelemetryClients {
+
+    // Telemetry is a small in-memory read, so a host that takes longer is treated as unreachable.
+    public static final Duration DEADLINE = Duration.ofSeconds(2);
+    private static final Duration IDLE_TIME = Duration.ofMinutes(10);
+    // Well beyond the tasks of one service, so that only hosts that left are ever evicted.
+    private static final int MAX_CLIENTS = 64;
+    // How long the discovered hosts are reused for, as the page loads each host's telemetry at once.
+    private static final Duration DISCOVERY_TIME = Duration.ofSeconds(10);
+
+    @NonNull
+    private final Cache<String, ConsumerBackendClient> clients =
+            CacheBuilder.newBuilder()
+                        .maximumSize(MAX_CLIENTS)
+                        .expireAfterAccess(IDLE_TIME.toMillis(), TimeUnit.MILLISECONDS)
+                        .removalListener((RemovalListener<String, ConsumerBackendClient>) removal -> {
+                            log.info("Closing telemetry client of {}.", removal.getKey());
+                            removal.getValue().close();
+                        })
+                        .build();
+    @NonNull
+    private final Supplier<Set<String>> discovered;
+
+    @Autowired
+    public TelemetryClients(@NonNull final ObjectProvider<ConsumerBackendClient> backendClients) {
+        this.discovered = Suppliers.memoizeWithExpiration(() -> {
+            try (ConsumerBackendClient client = backendClients.getObject()) {
+                return RequestUtils.describe(client)
+                                   .stream()
+                                   .map(i -> toKey(i.getHost(), i.getPort()))
+                                   .collect(Collectors.toSet());
+            }
+        }, DISCOVERY_TIME.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Whether the host is among the instances of the service, as listed on the page.
+     */
+    public boolean isDiscovered(@NonNull final String host, final int port) {
+        return discovered.get().contains(toKey(host, port));
+    }
+
+    public ConsumerBackendClient get(@NonNull final String host, final int port) {
+        Preconditions.checkArgument(isDiscovered(host, port),
+                                    "Host " + toKey(host, port) + " is not an instance of the service.");
+        try {
+            return clients.get(toKey(host, port), () -> new ConsumerBackendClient(host, port, DEADLINE));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to create a client of " + host + ":" + port + ".", e.getCause());
+        }
+    }
+
+    private static String toKey(final String host, final int port) {
+        return host + ":" + port;
+    }
+
+    @PreDestroy
+    public void close() {
+        clients.invalidateAll();
+        clients.cleanUp();
+    }
+}
@@ -61,6 +61,7 @@
             <button id="SpecificButton" class="tabbutton" onclick="changeTab(event, 'Specific')">Specific</button>
             <button id="AllButton" class="tabbutton" onclick="changeTab(event, 'All')">All</button>
             <button id="RandomButton" class="tabbutton" onclick="changeTab(event, 'Random')">Random</button>
+            <button id="TelemetryButton" class="tabbutton" onclick="changeTab(event, 'Telemetry')">Telemetry</button>
             <button id="PreviousResultButton" class="tabbutton" onclick="changeTab(event, 'PreviousResult')">Previous Result</button>
         </div>
 
@@ -88,6 +89,15 @@
             </form>
         </div>
 
+        <div id="Telemetry" class="tabcontent">
+            <p>The latest iterations of each hosts' control loops, oldest first.</p>
+            <br/>
+            <% for (InstanceSummary instance : instances) { %>
+                <h4><%= instance.getHost() + ":" + instance.getPort() %></h4>
+                <pre class="telemetry" data-host="<%= instance.getHost() %>" data-port="<%= instance.getPort() %>">Not loaded.</pre>
+            <% } %>
+        </div>
+
         <div id="PreviousResult" class="tabcontent">
             <p>The results from the previous call (if applicable) are below.</p>
             <br/>
@@ -114,6 +124,33 @@
                 }
                 document.getElementById(candidate).style.display = "block";
                 event.currentTarget.className += " active";
+
+                if (candidate === "Telemetry") {
+                    loadTelemetry();
+                }
+            }
+
+            //Telemetry calls every host, so it is only loaded while its tab is open.
+            function loadTelemetry() {
+                var i, views;
+                views = document.getElementsByClassName("telemetry");
+                for (i = 0; i < views.length; i++) {
+                    loadHostTelemetry(views[i]);
+                }
+            }
+
+            function loadHostTelemetry(view) {
+                var xhr = new XMLHttpRequest();
+                xhr.open("GET", "telemetry?host=" + encodeURIComponent(view.dataset.host)
+                                 + "&port=" + encodeURIComponent(view.dataset.port));
+                xhr.onload = function () {
+                    view.textContent = xhr.status === 200 ? xhr.responseText : "Could not reach host.";
+                };
+                xhr.onerror = function () {
+                    view.textContent = "Could not reach host.";
+                };
+                view.textContent = "Loading...";
+                xhr.send();
             }
         </script>
     </body>